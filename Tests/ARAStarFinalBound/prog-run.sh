@@ -0,0 +1,13 @@
+#!/bin/bash
+
+# With a deadline it cannot reach, ARA* must end with a suboptimality bound of 1.00 and a route as short as the one of
+# AStar, on every configuration. Prints the last cost and bound of each run next to the cost of AStar.
+for conf in JCONF00 JCONF11 JCONF01 JCONF02 JCONF03 JCONF04 JCONF05 CONF0 CONF1 CONF2 CONF3 CONF4 CONF5 CONF6 CONF7 \
+        CONF8 CONF9 CONF10 CONF11 CONF12 CONF13 CONF14 CONF15 CONF16 CONF17 CONF18 CONF19 CONF20 CONF21 CONF22 CONF23 \
+        CONF24; do
+    # The last route of ARA* is followed by its cost, its bound and the nodes explored; a failure by fail and them.
+    ara=$(java A1main ARAStar "$conf" M 60000 | awk '/^fail/ { print "fail"; exit } { last[NR] = $0 }
+        END { if (NR in last) print "cost " last[NR - 2] " bound " last[NR - 1] }')
+    astar=$(java A1main AStar "$conf" M | grep -v "^\[" | awk '/^fail/ { print "fail"; exit } NR == 2 { print "cost " $0 }')
+    echo "$conf: ARAStar $ara, AStar $astar"
+done
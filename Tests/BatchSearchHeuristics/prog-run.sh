@@ -0,0 +1,7 @@
+#!/bin/bash
+
+# A batch with the heuristic L loads the landmark table of the map and finds the same route costs as with M; an
+# unknown heuristic is refused with the accepted ones. The timing line is left out.
+java BatchSearch AStar CONF3 L 2 | grep -v " queries in "
+java BatchSearch AStar CONF3 M 2 | grep -v " queries in "
+java BatchSearch AStar CONF3 X 2
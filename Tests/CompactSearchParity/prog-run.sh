@@ -0,0 +1,19 @@
+#!/bin/bash
+
+# Compare the whole output (frontiers, path, cost and explored states) of CompactSearch, selected with
+# -DA1main.compact=true, with the one of UninformedSearch and InformedSearch. Prints each mismatch, then the number of
+# mismatches.
+
+mismatches=0
+for target in JCONF00 JCONF03 CONF0 CONF3 CONF15 CONF17 CONF18 CONF24; do
+    for algo in BFS DFS BestF AStar; do
+        for heuristic in M T E C; do
+            if [ "$(java A1main "$algo" "$target" "$heuristic")" != \
+                    "$(java -DA1main.compact=true A1main "$algo" "$target" "$heuristic")" ]; then
+                echo "$algo $target $heuristic"
+                mismatches=$((mismatches + 1))
+            fi
+        done
+    done
+done
+echo "$mismatches"
@@ -0,0 +1,6 @@
+#!/bin/bash
+
+# The distance field of a goal is built once and answers every start to that goal; a tide drops it, and the field
+# built again routes around the tide with the same cost as BFS.
+printf '%s\n' 'Field CONF3' 'Field CONF3 0 0 1 4' 'Field CONF3 5 5 1 4' 'stats' 'tide CONF3 2 4' 'Field CONF3' \
+    'BFS CONF3' 'Field CONF3 0 0 1 4' 'stats' 'quit' | java RouteServer
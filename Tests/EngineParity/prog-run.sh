@@ -0,0 +1,36 @@
+#!/bin/bash
+
+# Compare the route costs of the engines with the ones of BFS, on every configuration and on a map with island and
+# closed in starts and goals. HPA* may return longer routes, so it only has to find a route when BFS does, no shorter.
+# Prints each mismatch, then the number of mismatches.
+
+map="$(dirname "$0")/parity-map.txt"
+
+# Print the cost of each query of a run, or fail.
+costs() {
+    java A1main "$@" | grep -v "^\[" | awk '/^\(/ { getline cost; print cost + 0; next } /^fail/ { print "fail" }'
+}
+
+mismatches=0
+for target in JCONF00 JCONF11 JCONF01 JCONF02 JCONF03 JCONF04 JCONF05 CONF0 CONF1 CONF2 CONF3 CONF4 CONF5 CONF6 CONF7 \
+        CONF8 CONF9 CONF10 CONF11 CONF12 CONF13 CONF14 CONF15 CONF16 CONF17 CONF18 CONF19 CONF20 CONF21 CONF22 CONF23 \
+        CONF24 "$map"; do
+    expected=($(costs BFS "$target"))
+    for engine in CH HPAStar BiAStar IDAStar SMAStar PathDB; do
+        got=($(costs "$engine" "$target" M))
+        for ((i = 0; i < ${#expected[@]}; i++)); do
+            want=${expected[$i]}
+            have=${got[$i]:-missing}
+            if [ "$engine" = HPAStar ] && [ "$want" != fail ] && [ "$have" != fail ] && [ "$have" != missing ]; then
+                ok=$((have >= want))
+            else
+                ok=$([ "$have" = "$want" ] && echo 1 || echo 0)
+            fi
+            if [ "$ok" != 1 ]; then
+                echo "$engine $(basename "$target") query $i: BFS $want, $engine $have"
+                mismatches=$((mismatches + 1))
+            fi
+        done
+    done
+done
+echo "$mismatches"
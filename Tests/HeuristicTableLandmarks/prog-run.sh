@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# With the heuristic L, many cells have a landmark bound of 0. CompactSearch reads the heuristic from the shared
+# HeuristicTable, and InformedSearch computes it for every node: their whole outputs must be the same. Prints each
+# mismatch, then the number of mismatches.
+mismatches=0
+for target in CONF3 CONF10 CONF14 CONF18 CONF20 CONF24 "$(dirname "$0")/islands.txt"; do
+    for algo in BestF AStar; do
+        if [ "$(java A1main "$algo" "$target" L)" != "$(java -DA1main.compact=true A1main "$algo" "$target" L)" ]; then
+            echo "$algo $(basename "$target")"
+            mismatches=$((mismatches + 1))
+        fi
+    done
+done
+echo "$mismatches"
@@ -0,0 +1,23 @@
+#!/bin/bash
+
+# Build the landmark tables of a map with 3 landmarks, save them next to a copy of the map and check that A1main loads
+# them: the output must be the one of tables built on the fly with 3 landmarks (not the default 8). Then check that
+# the tables of another map, and a truncated file, are rejected. The maps are copied to a temporary directory, which
+# is left out of the messages.
+dir="$(dirname "$0")"
+tmp="$(mktemp -d)"
+cp "$dir/islands.txt" "$dir/harbour.txt" "$tmp"
+built=$(java -DLandmarkTable.count=3 A1main AStar "$tmp/islands.txt" L)
+java LandmarkTable "$tmp/islands.txt" "$tmp/islands.txt.landmarks" 3
+loaded=$(java A1main AStar "$tmp/islands.txt" L)
+if [ "$built" = "$loaded" ]; then
+    echo "same output with the saved tables"
+fi
+echo "$loaded" | grep -v "^\["
+
+cp "$tmp/islands.txt.landmarks" "$tmp/harbour.txt.landmarks"
+java A1main AStar "$tmp/harbour.txt" L | sed "s|$tmp/||g"
+head -c 40 "$tmp/islands.txt.landmarks" > "$tmp/truncated.landmarks"
+mv "$tmp/truncated.landmarks" "$tmp/islands.txt.landmarks"
+java A1main AStar "$tmp/islands.txt" L | sed "s|$tmp/||g"
+rm -r "$tmp"
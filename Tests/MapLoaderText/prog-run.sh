@@ -0,0 +1,10 @@
+#!/bin/bash
+
+# Load text maps: rows with and without separators, comments, blank lines and several queries are read; a query
+# outside of the map and rows of different widths are rejected with the line at fault. The directory of the maps is
+# left out of the messages.
+dir="$(dirname "$0")"
+java A1main BFS "$dir/harbour.txt"
+java A1main AStar "$dir/harbour.txt" M | grep -v "^\["
+java A1main BFS "$dir/query-outside.txt" | sed "s|$dir/||g"
+java A1main BFS "$dir/ragged.txt" | sed "s|$dir/||g"
@@ -0,0 +1,24 @@
+#!/bin/bash
+
+# Convert a text map to the binary format and check that A1main gives the same output on both. Then check that a file
+# with a wrong header, a header whose size does not match the file, and a query outside of the map are rejected. The
+# files are written to a temporary directory, which is left out of the messages.
+dir="$(dirname "$0")"
+tmp="$(mktemp -d)"
+java MappedMap "$dir/harbour.txt" "$tmp/harbour.tmap"
+for algo in BFS AStar; do
+    if [ "$(java A1main $algo "$dir/harbour.txt" M)" = "$(java A1main $algo "$tmp/harbour.tmap" M)" ]; then
+        echo "$algo: same output on the text and binary maps"
+    fi
+done
+java A1main AStar "$tmp/harbour.tmap" M | grep -v "^\["
+
+# Header: magic "TMAP", version 1, rows and columns (big-endian ints); then 2 bits per cell, the number of queries and
+# their coordinates.
+printf 'TMAQ\0\0\0\1\0\0\0\3\0\0\0\3\0\0\0\0\0\0\0\0' > "$tmp/wrong-header.tmap"
+printf 'TMAP\0\0\0\1\0\0\0\144\0\0\0\144\0\0\0\0\0\0\0\0' > "$tmp/wrong-size.tmap"
+printf 'TMAP\0\0\0\1\0\0\0\3\0\0\0\3\0\0\0\0\0\0\1\0\0\0\0\0\0\0\0\0\0\0\3\0\0\0\1' > "$tmp/query-outside.tmap"
+for map in wrong-header wrong-size query-outside; do
+    java A1main BFS "$tmp/$map.tmap" | sed "s|$tmp/||g"
+done
+rm -r "$tmp"
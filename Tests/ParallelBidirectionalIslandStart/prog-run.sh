@@ -0,0 +1,5 @@
+#!/bin/bash
+
+# The same query 500 times: a start on an island must never fail because the search from the goal ran out first.
+java A1main ParallelBidirectional "$(dirname "$0")/island-start.txt" | grep -c fail || true
+
@@ -0,0 +1,12 @@
+#!/bin/bash
+
+# Over a seeded sequence of 5 tides on every configuration and on a generated 16 by 16 map (also with its start on an
+# island), the route repaired by D* Lite after each tide must cost the same as AStar replanning from scratch. Prints
+# each case with a different cost, then the totals (the times are left out).
+java ReplanBenchmark 5 1 16 | awk -F, 'NR > 1 {
+    cases++; tides += $3; incremental += $6; full += $8; mismatches += $9
+    if ($9 != 0) print $1 " " $2 ": " $9 " tides with a different cost"
+} END {
+    print cases " cases, " tides " tides, " mismatches " cost mismatches"
+    print "states expanded: incremental " incremental ", from scratch " full
+}'
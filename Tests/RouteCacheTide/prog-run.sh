@@ -0,0 +1,6 @@
+#!/bin/bash
+
+# A route asked again is answered from the cache, and the heuristic does not split the answers of BFS. A tide changes
+# the version of the map, so the route asked again after it is searched on the new version and avoids the tide.
+printf '%s\n' 'AStar CONF3 M' 'AStar CONF3 M' 'BFS CONF3 M' 'BFS CONF3 T' 'stats' 'tide CONF3 3 3' 'AStar CONF3 M' \
+    'AStar CONF3 M' 'stats' 'quit' | java RouteServer
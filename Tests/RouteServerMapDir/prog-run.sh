@@ -0,0 +1,9 @@
+#!/bin/bash
+
+# The route server only reads maps from its map directory: a map inside it is answered, a path leading outside of it
+# (with .., an absolute path or a symbolic link) is refused with an error, and the server goes on answering.
+dir="$(dirname "$0")"
+ln -sf ../EngineParity/parity-map.txt "$dir/outside.txt"
+printf 'BFS harbour.txt\nBFS ../EngineParity/parity-map.txt\nBFS /etc/hosts\nBFS outside.txt\nBFS ./sub/../harbour.txt 3 0 0 5\nquit\n' \
+    | java -DRouteServer.mapDir="$dir" RouteServer
+rm -f "$dir/outside.txt"
@@ -0,0 +1,7 @@
+#!/bin/bash
+
+# With a budget of exactly the nodes of the shortest route, SMA* must still find it, after few expansions, as the many
+# routes as short through open sea are not searched again and again; with one node less, no route fits and it fails.
+java -DSMAStar.maxNodes=48 A1main SMAStar "$(dirname "$0")/route-fits.txt" M
+java -DSMAStar.maxNodes=47 A1main SMAStar "$(dirname "$0")/route-fits.txt" M
+
@@ -0,0 +1,5 @@
+#!/bin/bash
+
+# With a budget too small to rule out every route at once, SMA* must fail once no route fits instead of forgetting and
+# regenerating nodes for hours (well before its expansion limit), and must fail at once on a goal on an island.
+java -DSMAStar.maxNodes=50 A1main SMAStar "$(dirname "$0")/unreachable-goal.txt" M
@@ -1,3 +1,8 @@
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
 /********************Starter Code
  *
  * This class contains some examples on how to handle the required inputs and outputs
@@ -7,26 +12,49 @@
  *
  * run with
  * java A1main <Algo> <ConfID>
+ * or, for a map loaded from a file (see MapLoader for the format), with
+ * java A1main <Algo> <path/to/map.txt>
+ * or, for a memory-mapped binary map (see MappedMap), with
+ * java A1main <Algo> <path/to/map.tmap>
  *
  */
 public class A1main {
 
     public static void main(String[] args) {
         //Example: java A1main BFS JCONF03 M
+        //Example: java A1main AStar ../maps/harbour.txt T
+        //Example: java A1main ARAStar JCONF03 M 5   (anytime AStar with a deadline of 5 ms)
 
         try {
-            Conf conf = Conf.valueOf(args[1]);
-            Map map = conf.getMap();
+            TidalGrid map;
+            ArrayList<Query> queries = new ArrayList<>();
+
+            // The second argument is either a configuration or the path of a map file.
+            if (isConf(args[1])) {
+                Conf conf = Conf.valueOf(args[1]);
+                map = conf.getMap().copy(); // the configurations are read-only.
+                queries.add(new Query(conf.getS(), conf.getG()));
+            } else {
+                map = loadMap(args[1], queries);
+            }
 
             String heuristic;
+            long deadlineMillis = ARAStar.DEFAULT_DEADLINE_MILLIS;
             // Check if heuristic is passed in.
             if (args.length >= 3) {
                 heuristic = args[2];
 
-                if (args.length == 4) {
+                if (args.length == 4 && args[0].equals("ARAStar")) {
+                    // For ARAStar, the fourth argument is the deadline in milliseconds instead of the number of tides.
+                    try {
+                        deadlineMillis = Long.parseLong(args[3]);
+                    } catch (NumberFormatException nfe) {
+                        System.out.println("Please enter a valid deadline in milliseconds. E.g. for 5 ms: java A1main ARAStar <Conf> <H> 5");
+                    }
+                } else if (args.length == 4) {
                     try {
                         int numTides = Integer.parseInt(args[3]);
-                        HighTides highTides = new HighTides(map, conf.getS(), conf.getG(), 'M');
+                        HighTides highTides = new HighTides(map, queries.get(0).getStart(), queries.get(0).getGoal(), 'M');
                         highTides.runAlgorithms(numTides);
                         System.exit(0);
 
@@ -38,12 +66,62 @@ public class A1main {
                 heuristic = "M";
             }
 
-            if (heuristic.charAt(0) == 'M' || heuristic.charAt(0) == 'E' || heuristic.charAt(0) == 'C' || heuristic.charAt(0) == 'T') {
+            LandmarkTable landmarks = null;
+            if (heuristic.charAt(0) == 'L') {
+                // Landmark tables: loaded from the file next to the map if it was saved, built otherwise.
+                try {
+                    landmarks = LandmarkTable.forMap(map, isConf(args[1]) ? null : args[1]);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.out.println("Could not load the landmarks of " + args[1] + ": " + e.getMessage());
+                    System.exit(-1);
+                }
+            }
+
+            ContractionHierarchy hierarchy = null;
+            if (args[0].equals("CH")) {
+                // Contraction hierarchy: loaded from the file next to the map if it was saved, built otherwise.
+                try {
+                    hierarchy = ContractionHierarchy.forMap(map, isConf(args[1]) ? null : args[1]);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.out.println("Could not load the contraction hierarchy of " + args[1] + ": " + e.getMessage());
+                    System.exit(-1);
+                }
+            }
+
+            ClusterGraph clusters = null;
+            if (args[0].equals("HPAStar")) {
+                // Abstract graph: built once for all the queries of the map, over clusters of -DHPAStar.clusterSize cells.
+                try {
+                    clusters = new ClusterGraph(map, Integer.getInteger("HPAStar.clusterSize", ClusterGraph.DEFAULT_CLUSTER_SIZE));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Could not build the clusters of " + args[1] + ": " + e.getMessage());
+                    System.exit(-1);
+                }
+            }
+
+            PathDatabase database = null;
+            if (args[0].equals("PathDB")) {
+                // Path database: built once for all the queries of the map.
+                try {
+                    database = new PathDatabase(map);
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Could not build the path database of " + args[1] + ": " + e.getMessage());
+                    System.exit(-1);
+                }
+            }
+
+            if (heuristic.charAt(0) == 'M' || heuristic.charAt(0) == 'E' || heuristic.charAt(0) == 'C' || heuristic.charAt(0) == 'T' || heuristic.charAt(0) == 'L') {
 //                printMap(map, conf.getS(), conf.getG());
-                // Run search algorithm.
-                runSearch(args[0], map, conf.getS(), conf.getG(), heuristic.charAt(0));
+                // Run search algorithm for every query, separating the outputs with an empty line.
+                for (int i = 0; i < queries.size(); i++) {
+                    if (i > 0) {
+                        System.out.println();
+                    }
+                    runSearch(args[0], map, queries.get(i).getStart(), queries.get(i).getGoal(), heuristic.charAt(0), landmarks, deadlineMillis, clusters, hierarchy, database);
+                }
+                System.exit(0);
             } else {
-                System.out.println("Accepted heuristics: M, T, E, C");
+                System.out.println("Accepted heuristics: M, T, E, C, L");
                 System.exit(-1);
             }
 
@@ -55,34 +133,107 @@ public class A1main {
 
     }
 
-    private static void runSearch(String algo, Map map, Coord start, Coord goal, char heuristic) {
-        Search uninformed = new UninformedSearch(map, start, goal);
-        Search informed = new InformedSearch(map, start, goal, heuristic);
-        BidirectionalSearch bidirectional = new BidirectionalSearch(map, start, goal);
+    /**
+     * Check if an argument is the ID of a configuration.
+     *
+     * @param arg the argument.
+     * @return true if there is a configuration with that ID, false otherwise.
+     */
+    public static boolean isConf(String arg) {
+        for (Conf conf : Conf.values()) {
+            if (conf.name().equals(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Load a map file, exiting with a message if it cannot be loaded or has no queries. Files ending in .tmap are
+     * memory-mapped binary maps (see MappedMap), any other file is a text map (see MapLoader).
+     *
+     * @param path    the path of the map file.
+     * @param queries the list the queries of the file are added to.
+     * @return the loaded map.
+     */
+    public static TidalGrid loadMap(String path, ArrayList<Query> queries) {
+        try {
+            TidalGrid map;
+            if (path.endsWith(".tmap")) {
+                MappedMap mapped = new MappedMap(Paths.get(path));
+                map = mapped;
+                queries.addAll(mapped.getQueries());
+            } else {
+                MapLoader loaded = MapLoader.load(Paths.get(path));
+                map = loaded.getMap();
+                queries.addAll(loaded.getQueries());
+            }
+            if (queries.isEmpty()) {
+                System.out.println("The map file has no queries. Add a line like: query <startRow> <startCol> <goalRow> <goalCol>");
+                System.exit(-1);
+            }
+            return map;
+        } catch (NoSuchFileException e) {
+            System.out.println("Could not load the map " + path + ": it is not a configuration ID or an existing file.");
+            System.exit(-1);
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Could not load the map " + path + ": " + e.getMessage());
+            System.exit(-1);
+            return null;
+        }
+    }
+
+    private static void runSearch(String algo, TidalGrid map, Coord start, Coord goal, char heuristic, LandmarkTable landmarks, long deadlineMillis, ClusterGraph clusters, ContractionHierarchy hierarchy, PathDatabase database) {
+        Search search;
 
         switch (algo) {
             case "BFS": //run BFS
-                uninformed.treeSearch("BFS", true);
-                break;
-            case "DFS": //run DFS
-                uninformed.treeSearch("DFS", true);
+            case "DFS": //run DFS, both over arrays of cells instead of nodes with -DA1main.compact=true
+                search = Boolean.getBoolean("A1main.compact") ? new CompactSearch(map, start, goal) : new UninformedSearch(map, start, goal);
                 break;
             case "BestF": //run BestF
-                informed.treeSearch("BestF", true);
-                break;
-            case "AStar": //run AStar
-                informed.treeSearch("AStar", true);
+            case "AStar": //run AStar, both over arrays of cells instead of nodes with -DA1main.compact=true
+                search = Boolean.getBoolean("A1main.compact") ? new CompactSearch(map, start, goal, heuristic) : new InformedSearch(map, start, goal, heuristic);
                 break;
             case "Bidirectional": //run Bidirectional
-                bidirectional.treeSearch("Bidirectional", true);
+                search = new BidirectionalSearch(map, start, goal);
+                break;
+            case "ParallelBidirectional": //run Bidirectional with each direction on its own thread
+                search = new ConcurrentBidirectionalSearch(map, start, goal);
+                break;
+            case "BiAStar": //run bidirectional AStar
+                search = new BidirectionalAStar(map, start, goal, heuristic);
+                break;
+            case "IDAStar": //run iterative deepening AStar, with a transposition table of -DIDAStar.tableBytes bytes
+                search = new IDAStar(map, start, goal, heuristic, Integer.getInteger("IDAStar.tableBytes", IDAStar.DEFAULT_TABLE_BYTES));
+                break;
+            case "SMAStar": //run memory-bounded AStar, keeping at most -DSMAStar.maxNodes nodes and -DSMAStar.maxExpansions expansions
+                search = new SMAStar(map, start, goal, heuristic, Integer.getInteger("SMAStar.maxNodes", SMAStar.DEFAULT_MAX_NODES),
+                        Integer.getInteger("SMAStar.maxExpansions", SMAStar.DEFAULT_MAX_EXPANSIONS));
+                break;
+            case "ARAStar": //run anytime AStar, improving the route until the deadline
+                search = new ARAStar(map, start, goal, heuristic, deadlineMillis);
+                break;
+            case "HPAStar": //run hierarchical AStar over the clusters of the map
+                search = new HPAStar(clusters, start, goal, heuristic);
+                break;
+            case "CH": //run a bidirectional search over the contraction hierarchy of the map
+                search = new CHSearch(hierarchy, map, start, goal);
+                break;
+            case "PathDB": //follow the first moves of the path database of the map
+                search = new PathDatabaseSearch(database, map, start, goal);
                 break;
+            default:
+                return;
         }
-        System.exit(0);
+        search.setLandmarks(landmarks); // the heuristic L reads the landmark table of this map.
+        search.treeSearch(algo, true);
 
     }
 
 
-    public static void printMap(Map m, Coord init, Coord goal) {
+    public static void printMap(Grid m, Coord init, Coord goal) {
 
         int[][] map = m.getMap();
 
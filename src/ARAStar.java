@@ -0,0 +1,328 @@
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The ARAStar class runs anytime repairing A* (ARA*, by Likhachev, Gordon and Thrun) for when a route is needed before
+ * a deadline and a near-optimal one will do. It first runs weighted A* (F_cost = path cost + weight * heuristic, with a
+ * weight above 1), which finds a route quickly, then keeps lowering the weight and searching again until the weight
+ * is 1 (so the route is optimal) or the deadline is reached. Each search reuses the path costs found by the previous
+ * ones: only the states whose path cost went down since they were last expanded (kept in a list of inconsistent
+ * states) are put back in the frontier, instead of starting from the start again.
+ *
+ * Each improved route is printed with its suboptimality bound: its cost is at most bound times the cost of the
+ * shortest route. The bound is the lower of the weight and the cost of the route divided by the lowest F_cost (with
+ * weight 1) of the states left to expand, so it can reach 1 before the weight does. The heuristics M, T, E and C are
+ * consistent, which the bound relies on.
+ *
+ * The deadline counts from the start of the search. The first search always runs to the end, so a route is found
+ * whenever there is one; the next searches stop at the deadline and keep the last route found. nodesExplored counts
+ * the expansions of every search, and is printed after the last route.
+ *
+ * @author 210017984.
+ */
+public class ARAStar extends Search {
+
+    /**
+     * The deadline used if none is given, in milliseconds.
+     */
+    public static final long DEFAULT_DEADLINE_MILLIS = 5;
+
+    /**
+     * The weight of the heuristic in the first search, if none is given.
+     */
+    public static final double DEFAULT_INITIAL_WEIGHT = 3.0;
+
+    /**
+     * How much the weight is lowered before every next search.
+     */
+    public static final double WEIGHT_STEP = 0.5;
+
+    private static final float INFINITY = Float.POSITIVE_INFINITY;
+    private static final int NONE = -1;
+    private static final int DEADLINE_CHECK = 63; // the deadline is checked every 64 expansions.
+
+    // Initialise variables.
+    private TriangleGraph graph;
+    private final long deadlineNanos;
+    private final double initialWeight;
+    private double weight;
+    private long deadline; // System.nanoTime() at which the searches stop.
+    private int goalCell;
+    private int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+
+    // Search state kept between the searches, indexed by cell.
+    private final float[] pathCosts;
+    private final int[] parents;
+    private final boolean[] closed; // expanded in the current search.
+    private final CellHeap open;
+    private final boolean[] inconsistent; // path cost went down after being expanded in the current search.
+    private int[] inconsistentCells = new int[64];
+    private int inconsistentCount = 0;
+
+    private int expandedCount = 0;
+    private int improvements = 0;
+    private double bound = Double.POSITIVE_INFINITY;
+
+    /**
+     * Create an ARA* search instance with the default deadline and initial weight.
+     *
+     * @param map       the map passed in.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     */
+    public ARAStar(Grid map, Coord start, Coord goal, char heuristic) {
+        this(map, start, goal, heuristic, DEFAULT_DEADLINE_MILLIS);
+    }
+
+    /**
+     * Create an ARA* search instance with the default initial weight.
+     *
+     * @param map            the map passed in.
+     * @param start          the starting coordinates.
+     * @param goal           the goal coordinates.
+     * @param heuristic      the chosen heuristic.
+     * @param deadlineMillis the time the searches may take, in milliseconds.
+     */
+    public ARAStar(Grid map, Coord start, Coord goal, char heuristic, long deadlineMillis) {
+        this(map, start, goal, heuristic, deadlineMillis, DEFAULT_INITIAL_WEIGHT);
+    }
+
+    /**
+     * Create an ARA* search instance.
+     *
+     * @param map            the map passed in.
+     * @param start          the starting coordinates.
+     * @param goal           the goal coordinates.
+     * @param heuristic      the chosen heuristic.
+     * @param deadlineMillis the time the searches may take, in milliseconds.
+     * @param initialWeight  the weight of the heuristic in the first search (at least 1).
+     */
+    public ARAStar(Grid map, Coord start, Coord goal, char heuristic, long deadlineMillis, double initialWeight) {
+        super(map, start, goal, heuristic);
+        if (deadlineMillis < 0) {
+            throw new IllegalArgumentException("The deadline cannot be negative: " + deadlineMillis);
+        }
+        if (!(initialWeight >= 1)) {
+            throw new IllegalArgumentException("The initial weight must be at least 1: " + initialWeight);
+        }
+        this.graph = getGraph();
+        this.deadlineNanos = deadlineMillis * 1_000_000;
+        this.initialWeight = initialWeight;
+        int cells = graph.getCells();
+        this.pathCosts = new float[cells];
+        this.parents = new int[cells];
+        this.closed = new boolean[cells];
+        this.inconsistent = new boolean[cells];
+        this.open = new CellHeap(cells);
+    }
+
+    /**
+     * Get the suboptimality bound of the last route found: its cost is at most bound times the shortest one.
+     *
+     * @return the bound, or infinity if no route was found.
+     */
+    public double getBound() {
+        return bound;
+    }
+
+    /**
+     * Get the weight of the heuristic in the last search that ran to the end.
+     *
+     * @return the weight.
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * Get the number of routes found, each better than the one before (in cost or bound).
+     *
+     * @return the number of improved routes.
+     */
+    public int getImprovements() {
+        return improvements;
+    }
+
+    /**
+     * Get the heuristic cost of a cell towards the goal.
+     *
+     * @param cell the cell.
+     * @return the heuristic cost of the cell.
+     */
+    private double h(int cell) {
+        return Node.heuristicScore(getHeuristic(), getLandmarks(), cell / graph.getColumns(), cell % graph.getColumns(), getGoal());
+    }
+
+    /**
+     * Get the key of a cell in the frontier with the current weight.
+     *
+     * @param cell the cell.
+     * @return the path cost plus weight times the heuristic cost.
+     */
+    private double key(int cell) {
+        return pathCosts[cell] + weight * h(cell);
+    }
+
+    /**
+     * Run weighted A* with a lower weight each time, reusing the previous search, until the route is optimal or the
+     * deadline is reached. Every improved route is printed with its bound, then the explored nodes.
+     *
+     * @param initialNode the initial node, only used for its state.
+     */
+    @Override
+    public void loopFrontier(Node initialNode) {
+        deadline = System.nanoTime() + deadlineNanos;
+        goalCell = cellIndex(getGoal());
+        int startCell = cellIndex(initialNode.getState());
+        Arrays.fill(pathCosts, INFINITY);
+        Arrays.fill(parents, NONE);
+        Arrays.fill(closed, false);
+        Arrays.fill(inconsistent, false);
+        inconsistentCount = 0;
+        open.clear();
+        expandedCount = 0;
+        improvements = 0;
+        bound = Double.POSITIVE_INFINITY;
+        getSolution().clear();
+
+        weight = initialWeight;
+        pathCosts[startCell] = 0;
+        open.push(startCell, key(startCell), -pathCosts[startCell]);
+        improvePath(false); // the first route is found whatever the deadline.
+        if (pathCosts[goalCell] == INFINITY) {
+            return; // the goal cannot be reached.
+        }
+        setFoundSolution(true);
+        report();
+
+        while (bound > 1 && System.nanoTime() < deadline) {
+            weight = Math.max(1, weight - WEIGHT_STEP);
+            // The inconsistent states go back in the frontier, and every key is recomputed with the new weight.
+            int[] frontier = new int[open.size() + inconsistentCount];
+            int size = 0;
+            for (int i = 0; i < open.size(); i++) {
+                frontier[size++] = open.cellAt(i);
+            }
+            for (int i = 0; i < inconsistentCount; i++) {
+                inconsistent[inconsistentCells[i]] = false;
+                frontier[size++] = inconsistentCells[i];
+            }
+            inconsistentCount = 0;
+            open.clear();
+            for (int i = 0; i < size; i++) {
+                open.push(frontier[i], key(frontier[i]), -pathCosts[frontier[i]]);
+            }
+            Arrays.fill(closed, false);
+
+            if (!improvePath(true)) {
+                break; // out of time: keep the last route.
+            }
+            report();
+        }
+
+        nodesExplored = expandedCount;
+        if (isPrint()) {
+            System.out.println(nodesExplored); // Print nodes explored.
+        }
+    }
+
+    /**
+     * Expand the states of the frontier in order of key until no state left could lead to a cheaper route to the goal
+     * with the current weight.
+     *
+     * @param stopAtDeadline true if the search stops when the deadline is reached.
+     * @return true if the search ran to the end, false if it stopped at the deadline.
+     */
+    private boolean improvePath(boolean stopAtDeadline) {
+        while (!open.isEmpty() && pathCosts[goalCell] > open.peekKey()) {
+            if (stopAtDeadline && (expandedCount & DEADLINE_CHECK) == 0 && System.nanoTime() >= deadline) {
+                return false;
+            }
+            int cell = open.pop();
+            closed[cell] = true;
+            expandedCount++;
+
+            float pathCost = pathCosts[cell] + 1;
+            int found = graph.neighbours(cell, neighbours);
+            for (int i = 0; i < found; i++) {
+                int next = neighbours[i];
+                if (pathCosts[next] <= pathCost) {
+                    continue;
+                }
+                pathCosts[next] = pathCost;
+                parents[next] = cell;
+                if (!closed[next]) {
+                    if (open.contains(next)) {
+                        open.update(next, key(next), -pathCost);
+                    } else {
+                        open.push(next, key(next), -pathCost); // the deepest first on equal keys.
+                    }
+                } else if (!inconsistent[next]) {
+                    // Expanded already in this search: it waits for the next one.
+                    inconsistent[next] = true;
+                    if (inconsistentCount == inconsistentCells.length) {
+                        inconsistentCells = Arrays.copyOf(inconsistentCells, inconsistentCount * 2);
+                    }
+                    inconsistentCells[inconsistentCount++] = next;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compute the bound of the route found, and record and print the route if it is better than the last one.
+     */
+    private void report() {
+        // The lowest F_cost with weight 1 of the states left to expand is a lower bound on the shortest route.
+        double lowest = pathCosts[goalCell];
+        for (int i = 0; i < open.size(); i++) {
+            int cell = open.cellAt(i);
+            lowest = Math.min(lowest, pathCosts[cell] + h(cell));
+        }
+        for (int i = 0; i < inconsistentCount; i++) {
+            int cell = inconsistentCells[i];
+            lowest = Math.min(lowest, pathCosts[cell] + h(cell));
+        }
+        double newBound = Math.max(1, Math.min(weight, pathCosts[goalCell] / lowest));
+        if (lowest == 0) {
+            newBound = 1; // the start is the goal.
+        }
+        if (improvements > 0 && pathCosts[goalCell] >= pathCost && newBound >= bound) {
+            return; // no better than the last route.
+        }
+        bound = newBound;
+        improvements++;
+
+        ArrayList<Coord> path = getSolution();
+        path.clear();
+        for (int cell = goalCell; cell != NONE; cell = parents[cell]) {
+            path.add(graph.coord(cell));
+        }
+        for (int i = 0, j = path.size() - 1; i < j; i++, j--) {
+            path.set(i, path.set(j, path.get(i)));
+        }
+        pathCost = path.size() - 1;
+
+        // if print flag is true, print the output.
+        if (isPrint()) {
+            for (Coord state : path) {
+                System.out.print(state);
+            }
+            System.out.println("\n" + pathCost); // Print path cost.
+            System.out.println(new DecimalFormat("0.00").format(bound)); // Print suboptimality bound.
+        }
+    }
+
+    /**
+     * If the search could not find a solution, print fail message and the number of explored states.
+     */
+    @Override
+    public void failure() {
+        nodesExplored = expandedCount;
+        super.failure();
+    }
+
+}
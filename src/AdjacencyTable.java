@@ -0,0 +1,86 @@
+import java.util.Arrays;
+
+/**
+ * The legal moves of every cell of a map held in the heap, built once per map in a compact (CSR) form: the neighbours
+ * of cell i are neighbours[offsets[i]] to neighbours[offsets[i + 1] - 1], stored in the tie breaking order of the
+ * successor function (right, down, left, up).
+ *
+ * @author 210017984.
+ */
+public class AdjacencyTable extends TriangleGraph {
+
+    // Initialise table variables.
+    private final int[][] map;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final Coord[] coords; // one shared Coord per cell, so that walking the graph does not allocate.
+
+    /**
+     * Build the table of legal moves of a map.
+     *
+     * @param map the grid of the map (0 for sea, 1 for island, 2 for tide).
+     */
+    public AdjacencyTable(int[][] map) {
+        super(map.length, map[0].length);
+        this.map = map;
+
+        int cells = getCells();
+        this.offsets = new int[cells + 1];
+        this.coords = new Coord[cells];
+        int[] edges = new int[cells * MAX_NEIGHBOURS];
+        int[] buffer = new int[MAX_NEIGHBOURS];
+        int count = 0;
+
+        for (int cell = 0; cell < cells; cell++) {
+            coords[cell] = super.coord(cell);
+            offsets[cell] = count;
+            // Compute the neighbours from the cells of the map once, then keep them in the table.
+            int found = super.neighbours(cell, buffer);
+            System.arraycopy(buffer, 0, edges, count, found);
+            count += found;
+        }
+        offsets[cells] = count;
+        this.neighbours = Arrays.copyOf(edges, count);
+    }
+
+    /**
+     * Get the value of a cell of the map (0 for sea, 1 for island, 2 for tide).
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return the value of the cell.
+     */
+    @Override
+    public int getCell(int row, int col) {
+        return map[row][col];
+    }
+
+    /**
+     * Copy the legal neighbours of a cell from the table, in the tie breaking order (right, down, left, up).
+     *
+     * @param cell the index of the cell.
+     * @param out  the array the neighbours are written to (at least MAX_NEIGHBOURS long).
+     * @return the number of neighbours written.
+     */
+    @Override
+    public int neighbours(int cell, int[] out) {
+        int first = offsets[cell];
+        int count = offsets[cell + 1] - first;
+        for (int i = 0; i < count; i++) {
+            out[i] = neighbours[first + i];
+        }
+        return count;
+    }
+
+    /**
+     * Get the shared coordinates of a cell.
+     *
+     * @param cell the index of the cell.
+     * @return the coordinates of the cell.
+     */
+    @Override
+    public Coord coord(int cell) {
+        return coords[cell];
+    }
+
+}
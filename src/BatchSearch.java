@@ -0,0 +1,292 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a batch of route queries on one map in parallel on a ForkJoinPool. The map (and its graph) is shared read-only
+ * by every worker, and each worker reuses one CompactSearch for all the queries it runs in a batch, so the arrays of
+ * the search are allocated once per worker and batch instead of once per query. The searches of a batch are held in
+ * an array indexed by the pool index of the worker, which is dropped when the batch ends, so that they do not stay
+ * with the pool's threads (e.g. those of the common pool). The results are returned in the order of the queries. The
+ * map must not be changed (e.g. with setTide) while a batch is running; to batch on a map whose tides keep changing,
+ * pass the snapshot of a VersionedMap.
+ *
+ * The bidirectional searches are not supported by CompactSearch, so a new search is created for each of their queries.
+ * Field answers the queries from the distance fields of their goals (see DistanceField), built once per goal and
+ * shared by the workers, which suits batches where many queries have the same destination. The fields are kept in a
+ * DistanceFieldCache of a given capacity; from the command line, it holds a field for every port of the batch.
+ * The heuristic L needs the landmark table of the map (see setLandmarks); from the command line, it is loaded from the
+ * file next to the map if it was saved, and built otherwise, like in A1main.
+ *
+ * run with
+ * java BatchSearch <Algo|Field> <ConfID|path/to/map> [H] [threads]
+ * to route every pair of ports (starts and goals of the queries) of a map.
+ *
+ * @author 210017984.
+ */
+public class BatchSearch {
+
+    // Queries run by one task before it stops splitting the batch.
+    private static final int LEAF_QUERIES = 16;
+
+    // Initialise variables.
+    private final Grid map;
+    private final String algo;
+    private final char heuristic;
+    private final ForkJoinPool pool;
+    private final DistanceFieldCache fields; // the distance fields of the goals, for Field.
+    private LandmarkTable landmarks; // only for L.
+
+    /**
+     * Create a batch engine for a map.
+     *
+     * @param map       the map the queries are run on.
+     * @param algo      the algorithm used (BFS, DFS, BestF, AStar, Bidirectional, ParallelBidirectional, BiAStar or
+     *                  Field).
+     * @param heuristic the chosen heuristic.
+     * @param pool      the pool that runs the queries.
+     */
+    public BatchSearch(Grid map, String algo, char heuristic, ForkJoinPool pool) {
+        this(map, algo, heuristic, pool, DistanceFieldCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a batch engine for a map.
+     *
+     * @param map            the map the queries are run on.
+     * @param algo           the algorithm used (BFS, DFS, BestF, AStar, Bidirectional, ParallelBidirectional, BiAStar
+     *                       or Field).
+     * @param heuristic      the chosen heuristic.
+     * @param pool           the pool that runs the queries.
+     * @param fieldCacheSize the most distance fields kept, for Field.
+     */
+    public BatchSearch(Grid map, String algo, char heuristic, ForkJoinPool pool, int fieldCacheSize) {
+        if (!algo.equals("Field") && !RouteServer.isSearchAlgo(algo)) {
+            throw new IllegalArgumentException("Accepted algorithms: DFS, BFS, AStar, BestF, Bidirectional, "
+                    + "ParallelBidirectional, BiAStar, Field");
+        }
+        if (heuristic != 'M' && heuristic != 'T' && heuristic != 'E' && heuristic != 'C' && heuristic != 'L') {
+            throw new IllegalArgumentException("Accepted heuristics: M, T, E, C, L");
+        }
+        this.map = map;
+        this.algo = algo;
+        this.heuristic = heuristic;
+        this.pool = pool;
+        this.fields = new DistanceFieldCache(map, fieldCacheSize);
+    }
+
+    public static void main(String[] args) {
+        //Example: java BatchSearch AStar ../maps/harbour.txt M 4
+
+        try {
+            Grid map;
+            ArrayList<Query> queries = new ArrayList<>();
+            if (A1main.isConf(args[1])) {
+                Conf conf = Conf.valueOf(args[1]);
+                map = conf.getMap();
+                queries.add(new Query(conf.getS(), conf.getG()));
+            } else {
+                map = A1main.loadMap(args[1], queries);
+            }
+            char heuristic = args.length >= 3 ? args[2].charAt(0) : 'M';
+            int threads = args.length >= 4 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            LandmarkTable landmarks = null;
+            if (heuristic == 'L') {
+                // Landmark tables: loaded from the file next to the map if it was saved, built otherwise.
+                try {
+                    landmarks = LandmarkTable.forMap(map, A1main.isConf(args[1]) ? null : args[1]);
+                } catch (IOException e) {
+                    System.out.println("Could not load the landmarks of " + args[1] + ": " + e.getMessage());
+                    return;
+                }
+            }
+
+            ArrayList<Query> batch = portPairs(queries);
+            int ports = (int) batch.stream().map(Query::getGoal).distinct().count();
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            BatchSearch batchSearch = new BatchSearch(map, args[0], heuristic, pool, Math.max(ports, 1));
+            batchSearch.setLandmarks(landmarks);
+            long startTime = System.nanoTime();
+            Route[] results = batchSearch.run(batch);
+            long elapsed = System.nanoTime() - startTime;
+            pool.shutdown();
+
+            for (Route result : results) {
+                System.out.println(result.getQuery() + " " + result);
+            }
+            System.out.println(results.length + " queries in " + elapsed / 1_000_000 + " ms on " + threads
+                    + " threads");
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.out.println("Please run the batch like this: java BatchSearch <Algo> <ConfID|path/to/map> [H] "
+                    + "[threads]");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Set the landmark table used by the heuristic L. It must have been built for the map as it is now.
+     *
+     * @param landmarks the landmark table of the map, or null if L is not used.
+     */
+    public void setLandmarks(LandmarkTable landmarks) {
+        this.landmarks = landmarks;
+    }
+
+    /**
+     * Create a query for every ordered pair of different ports, where the ports are the starts and goals of a list of
+     * queries.
+     *
+     * @param queries the queries giving the ports.
+     * @return the queries between every pair of ports.
+     */
+    public static ArrayList<Query> portPairs(List<Query> queries) {
+        LinkedHashSet<Coord> ports = new LinkedHashSet<>();
+        for (Query query : queries) {
+            ports.add(query.getStart());
+            ports.add(query.getGoal());
+        }
+        ArrayList<Query> pairs = new ArrayList<>();
+        for (Coord start : ports) {
+            for (Coord goal : ports) {
+                if (!start.equals(goal)) {
+                    pairs.add(new Query(start, goal));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Run a batch of queries in parallel.
+     *
+     * @param queries the queries to run.
+     * @return the route of every query, in the order of the queries.
+     * @throws IllegalStateException if the heuristic is L and there is no landmark table.
+     */
+    public Route[] run(List<Query> queries) {
+        if (heuristic == 'L' && landmarks == null) {
+            throw new IllegalStateException("The heuristic L needs the landmark table of the map, see "
+                    + "BatchSearch.setLandmarks.");
+        }
+        Route[] results = new Route[queries.size()];
+        map.getGraph(); // build the graph once, before it is shared by the workers.
+        CompactSearch[] searches = new CompactSearch[2 * pool.getParallelism()]; // the search of each pool index.
+        pool.invoke(new BatchTask(queries, results, searches, 0, queries.size()));
+        return results;
+    }
+
+    /**
+     * Get the search of the calling worker in a batch, created on its first query.
+     *
+     * @param searches the searches of the batch, indexed by the pool index of their worker.
+     * @return the search of the worker, or a new search if the calling thread has no slot in the array (e.g. it is not
+     * a worker of the pool).
+     */
+    private CompactSearch searchOf(CompactSearch[] searches) {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool) {
+            int index = ((ForkJoinWorkerThread) thread).getPoolIndex();
+            if (index < searches.length) {
+                if (searches[index] == null) {
+                    searches[index] = newCompactSearch();
+                }
+                return searches[index]; // only the worker with this index uses the slot.
+            }
+        }
+        return newCompactSearch();
+    }
+
+    /**
+     * Create a CompactSearch of the map, with the landmark table of the batch.
+     *
+     * @return the search.
+     */
+    private CompactSearch newCompactSearch() {
+        CompactSearch search = new CompactSearch(map, null, null, heuristic);
+        search.setLandmarks(landmarks);
+        return search;
+    }
+
+    /**
+     * Check if the queries are run on a reused CompactSearch, i.e. the algorithm is not Field or a bidirectional one.
+     *
+     * @return true if the algorithm runs on a CompactSearch.
+     */
+    private boolean usesCompactSearch() {
+        return !algo.equals("Field") && !algo.equals("Bidirectional") && !algo.equals("ParallelBidirectional")
+                && !algo.equals("BiAStar");
+    }
+
+    /**
+     * Run one query on the calling thread.
+     *
+     * @param query  the query to run.
+     * @param search the search reused for the query, or null if the algorithm does not run on a CompactSearch.
+     * @return the route of the query.
+     */
+    private Route runOne(Query query, CompactSearch search) {
+        if (algo.equals("Field")) {
+            DistanceField field = fields.get(query.getGoal());
+            ArrayList<Coord> path = field.route(query.getStart());
+            return new Route(query, path, field.getDistance(query.getStart()), path.size());
+        }
+        if (search == null) {
+            Search bidirectional = RouteServer.createSearch(algo, map, query.getStart(), query.getGoal(), heuristic);
+            bidirectional.setLandmarks(landmarks);
+            bidirectional.treeSearch(algo, false);
+            return new Route(query, bidirectional);
+        }
+        search.setQuery(query.getStart(), query.getGoal());
+        search.treeSearch(algo, false);
+        return new Route(query, search);
+    }
+
+    /**
+     * A task running a range of the queries, split in halves until it is small enough.
+     */
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<Query> queries;
+        private final Route[] results;
+        private final CompactSearch[] searches;
+        private final int from;
+        private final int to;
+
+        /**
+         * Create a task for the queries from index from (inclusive) to index to (exclusive).
+         *
+         * @param queries  the queries of the batch.
+         * @param results  the array the results are written to, at the index of their query.
+         * @param searches the searches of the batch, indexed by the pool index of their worker.
+         * @param from     the first query of the task.
+         * @param to       the end of the queries of the task.
+         */
+        private BatchTask(List<Query> queries, Route[] results, CompactSearch[] searches, int from, int to) {
+            this.queries = queries;
+            this.results = results;
+            this.searches = searches;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_QUERIES) {
+                CompactSearch search = usesCompactSearch() ? searchOf(searches) : null;
+                for (int i = from; i < to; i++) {
+                    results[i] = runOne(queries.get(i), search);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchTask(queries, results, searches, from, middle),
+                        new BatchTask(queries, results, searches, middle, to));
+            }
+        }
+    }
+
+}
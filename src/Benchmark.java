@@ -0,0 +1,188 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Benchmark class used to measure the performance of every algorithm, heuristic and search engine on all the
+ * configurations and on generated maps. For each case it reports the throughput, the average latency and the
+ * allocation rate, as a CSV table. The engine is Node for the searches that create a Node per state, Compact for
+ * CompactSearch, and Concurrent and BiAStar for ConcurrentBidirectionalSearch and BidirectionalAStar, which keep their
+ * search trees in arrays of their own. The allocations are those of every thread, so that the search from the goal of
+ * ConcurrentBidirectionalSearch, which runs on a pool thread, is counted too.
+ *
+ * run with
+ * java Benchmark [warmupMs] [measureMs] [size of generated maps ...]
+ *
+ * @author 210017984.
+ */
+public class Benchmark {
+
+    private static final String[] UNINFORMED = {"BFS", "DFS", "Bidirectional"};
+    private static final String[] INFORMED = {"BestF", "AStar"};
+    private static final char[] HEURISTICS = {'M', 'T', 'E', 'C'};
+
+    /**
+     * Creates a new search for every measured operation.
+     */
+    private interface SearchFactory {
+        Search create();
+    }
+
+    // Initialise variables.
+    private final long warmupNanos;
+    private final long measureNanos;
+    private final com.sun.management.ThreadMXBean threads;
+
+    /**
+     * Create a new benchmark.
+     *
+     * @param warmupMillis  the time each case runs before it is measured.
+     * @param measureMillis the time each case is measured for.
+     */
+    public Benchmark(long warmupMillis, long measureMillis) {
+        this.warmupNanos = warmupMillis * 1_000_000L;
+        this.measureNanos = measureMillis * 1_000_000L;
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    public static void main(String[] args) {
+        //Example: java Benchmark 200 500 64 256
+
+        try {
+            long warmup = args.length >= 1 ? Long.parseLong(args[0]) : 100;
+            long measure = args.length >= 2 ? Long.parseLong(args[1]) : 300;
+            ArrayList<Integer> sizes = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) {
+                sizes.add(Integer.parseInt(args[i]));
+            }
+            if (sizes.isEmpty()) {
+                sizes.add(32);
+                sizes.add(128);
+            }
+
+            Benchmark benchmark = new Benchmark(warmup, measure);
+            System.out.println("case,algorithm,heuristic,engine,ops/s,us/op,bytes/op,MB/s,nodesExplored,pathCost");
+
+            for (Conf conf : Conf.values()) {
+                benchmark.runCase(conf.name(), conf.getMap(), conf.getS(), conf.getG());
+            }
+            for (int size : sizes) {
+                benchmark.runCase("GEN" + size, generateMap(size, 0.1, size), new Coord(0, 0), new Coord(size - 1, size - 1));
+            }
+        } catch (NumberFormatException nfe) {
+            System.out.println("Please run the benchmark like this: java Benchmark <warmupMs> <measureMs> <size> ...");
+        }
+    }
+
+    /**
+     * Generate a square map with randomly placed islands. The corners are always sea, so they can be used as the
+     * start and goal.
+     *
+     * @param size           the number of rows and columns.
+     * @param islandFraction the fraction of cells that are islands.
+     * @param seed           the seed of the random generator, so the same map is generated on every run.
+     * @return the generated map.
+     */
+    public static GridMap generateMap(int size, double islandFraction, long seed) {
+        Random random = new Random(seed);
+        int[][] cells = new int[size][size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                cells[r][c] = random.nextDouble() < islandFraction ? 1 : 0;
+            }
+        }
+        cells[0][0] = 0;
+        cells[size - 1][size - 1] = 0;
+        return new GridMap(cells);
+    }
+
+    /**
+     * Run every algorithm, heuristic and engine on one problem.
+     *
+     * @param name  the name of the case.
+     * @param map   the map of the problem.
+     * @param start the starting coordinates.
+     * @param goal  the goal coordinates.
+     */
+    private void runCase(String name, Grid map, Coord start, Coord goal) {
+        for (String algo : UNINFORMED) {
+            measure(name, algo, '-', "Node", () -> algo.equals("Bidirectional") ? new BidirectionalSearch(map, start, goal) : new UninformedSearch(map, start, goal));
+            if (!algo.equals("Bidirectional")) {
+                measure(name, algo, '-', "Compact", () -> new CompactSearch(map, start, goal));
+            }
+        }
+        measure(name, "ParallelBidirectional", '-', "Concurrent", () -> new ConcurrentBidirectionalSearch(map, start, goal));
+        for (String algo : INFORMED) {
+            for (char heuristic : HEURISTICS) {
+                measure(name, algo, heuristic, "Node", () -> new InformedSearch(map, start, goal, heuristic));
+                measure(name, algo, heuristic, "Compact", () -> new CompactSearch(map, start, goal, heuristic));
+            }
+        }
+        for (char heuristic : HEURISTICS) {
+            measure(name, "BiAStar", heuristic, "BiAStar", () -> new BidirectionalAStar(map, start, goal, heuristic));
+        }
+    }
+
+    /**
+     * Run one search for the warm-up time and then for the measurement time, printing a row of results.
+     *
+     * @param name      the name of the case.
+     * @param algo      the algorithm used.
+     * @param heuristic the heuristic used ('-' for uninformed algorithms).
+     * @param engine    the engine used (Node, Compact, Concurrent or BiAStar).
+     * @param factory   creates the search of each operation.
+     */
+    private void measure(String name, String algo, char heuristic, String engine, SearchFactory factory) {
+        runFor(warmupNanos, algo, factory);
+
+        long bytesBefore = allocatedBytes();
+        long begin = System.nanoTime();
+        long ops = runFor(measureNanos, algo, factory);
+        long elapsed = System.nanoTime() - begin;
+        long bytes = allocatedBytes() - bytesBefore;
+
+        // Run once more to report what the search found.
+        Search search = factory.create();
+        search.treeSearch(algo, false);
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("%s,%s,%c,%s,%.1f,%.3f,%d,%.1f,%d,%.1f%n", name, algo, heuristic, engine, ops / seconds,
+                elapsed / 1e3 / ops, bytes / ops, bytes / seconds / (1024 * 1024), search.nodesExplored, search.pathCost);
+    }
+
+    /**
+     * Get the bytes allocated so far by every live thread. The threads of the JVM other than the ones of the searches
+     * allocate next to nothing while the benchmark runs.
+     *
+     * @return the bytes allocated.
+     */
+    private long allocatedBytes() {
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) { // -1 for a thread that ended meanwhile.
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Run a search repeatedly for at least the given time.
+     *
+     * @param nanos   the time to run for.
+     * @param algo    the algorithm used.
+     * @param factory creates the search of each operation.
+     * @return the number of searches run.
+     */
+    private long runFor(long nanos, String algo, SearchFactory factory) {
+        long ops = 0;
+        long end = System.nanoTime() + nanos;
+        do {
+            Search search = factory.create();
+            search.treeSearch(algo, false);
+            ops++;
+        } while (System.nanoTime() < end);
+        return ops;
+    }
+
+}
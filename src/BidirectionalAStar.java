@@ -0,0 +1,230 @@
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The BidirectionalAStar class runs A* from the start towards the goal and from the goal towards the start at the same
+ * time (NBA*, "new bidirectional A*" by Pijls and Post). Each side orders its frontier by its own F_cost, using the
+ * chosen heuristic towards its own target. The cost of the best route found so far (where the two sides met), L, is
+ * used to prune: a state removed from a frontier is not expanded if
+ * - its F_cost is at least L, or
+ * - its path cost plus the lowest F_cost of the other frontier minus its heuristic towards the other side's target is
+ *   at least L,
+ * as no route through it can then be shorter than L. A state removed from either frontier is never expanded again by
+ * either side. The search ends once one of the frontiers has no state that could improve on L, and L is then the cost
+ * of the shortest route. This needs a consistent heuristic, which M, T, E and C all are on the triangle grid (a move
+ * changes the row or the column by 1).
+ *
+ * Like CompactSearch, the search trees are kept in arrays indexed by cell instead of nodes. A goal on an island or
+ * tide is never reached (unless it is the start), as in the flat searches, although the search from it could leave it.
+ *
+ * @author 210017984.
+ */
+public class BidirectionalAStar extends Search {
+
+    private static final int FORWARD = 0;
+    private static final int BACKWARD = 1;
+
+    // Initialise variables. Index FORWARD is the search from the start, BACKWARD the search from the goal.
+    private TriangleGraph graph;
+    private float[][] pathCosts = new float[2][];
+    private int[][] parent = new int[2][];
+    private CellHeap[] frontier = new CellHeap[2];
+    private Coord[] target = new Coord[2]; // the state each side is heading to.
+    private HeuristicTable[] heuristics = new HeuristicTable[2]; // the heuristic cost of each cell towards each target.
+    private boolean[] removed; // states removed from either frontier, never expanded again.
+    private int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+    private float bestCost; // L, the cost of the best route found so far.
+    private int meeting; // the state where the best route goes from one search tree to the other.
+    private int[] explored = new int[2]; // states removed from each frontier.
+
+    /**
+     * Create a bidirectional A* search instance.
+     *
+     * @param map       the map passed in.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     */
+    public BidirectionalAStar(Grid map, Coord start, Coord goal, char heuristic) {
+        super(map, start, goal, heuristic);
+        this.graph = getGraph();
+    }
+
+    /**
+     * Get the heuristic cost of a cell towards the target of one side.
+     *
+     * @param side FORWARD or BACKWARD.
+     * @param cell the cell.
+     * @return the heuristic cost of the cell.
+     */
+    private double h(int side, int cell) {
+        return heuristics[side].get(cell);
+    }
+
+    /**
+     * Loop and explore the two frontiers. If a route is found, its path, cost, and explored nodes are printed.
+     *
+     * @param initialNode the initial node, only used for its state.
+     */
+    @Override
+    public void loopFrontier(Node initialNode) {
+        int cells = graph.getCells();
+        removed = new boolean[cells];
+        bestCost = Float.POSITIVE_INFINITY;
+        meeting = -1;
+        getSolution().clear();
+        target[FORWARD] = getGoal();
+        target[BACKWARD] = getStart();
+        heuristics[FORWARD] = HeuristicTable.of(graph, target[FORWARD], getHeuristic(), getLandmarks());
+        heuristics[BACKWARD] = HeuristicTable.of(graph, target[BACKWARD], getHeuristic(), getLandmarks());
+
+        int[] roots = {cellIndex(initialNode.getState()), cellIndex(getGoal())};
+        for (int side = FORWARD; side <= BACKWARD; side++) {
+            pathCosts[side] = new float[cells];
+            Arrays.fill(pathCosts[side], Float.POSITIVE_INFINITY);
+            parent[side] = new int[cells];
+            frontier[side] = new CellHeap(cells);
+            explored[side] = 0;
+
+            pathCosts[side][roots[side]] = 0;
+            parent[side][roots[side]] = -1;
+            frontier[side].push(roots[side], h(side, roots[side]));
+        }
+        if (roots[FORWARD] == roots[BACKWARD]) {
+            bestCost = 0;
+            meeting = roots[FORWARD];
+        } else if (!graph.isLegal(getGoal().getR(), getGoal().getC())) {
+            return; // like the flat searches, which never move to an illegal goal (but may start on one).
+        }
+
+        while (!frontier[FORWARD].isEmpty() && !frontier[BACKWARD].isEmpty()) {
+            printBothFrontiers();
+
+            // Expand the side with the smaller frontier, so that the two searches grow evenly.
+            int side = frontier[BACKWARD].size() < frontier[FORWARD].size() ? BACKWARD : FORWARD;
+            if (frontier[side].peekKey() >= bestCost) {
+                break; // every state left in this frontier would be pruned, so L cannot improve.
+            }
+
+            int current = frontier[side].pop();
+            if (removed[current]) {
+                continue; // already removed from the other frontier.
+            }
+            removed[current] = true;
+            explored[side]++;
+
+            int other = 1 - side;
+            double otherLowest = frontier[other].isEmpty() ? Double.POSITIVE_INFINITY : frontier[other].peekKey();
+            if (pathCosts[side][current] + otherLowest - h(other, current) >= bestCost) {
+                continue; // pruned: no route through this state can be shorter than L.
+            }
+            expand(side, current);
+        }
+
+        if (meeting != -1) {
+            setFoundSolution(true);
+            printOutput();
+        }
+    }
+
+    /**
+     * Expand a state of one side, updating the best route if a successor was reached by the other side.
+     *
+     * @param side the side expanding.
+     * @param cell the state expanded.
+     */
+    private void expand(int side, int cell) {
+        float pathCost = pathCosts[side][cell] + 1;
+        int found = graph.neighbours(cell, neighbours);
+        for (int i = 0; i < found; i++) {
+            int next = neighbours[i];
+            if (removed[next] || pathCosts[side][next] <= pathCost) {
+                continue;
+            }
+            boolean inFrontier = pathCosts[side][next] != Float.POSITIVE_INFINITY;
+            pathCosts[side][next] = pathCost;
+            parent[side][next] = cell;
+            double fCost = pathCost + h(side, next);
+            if (inFrontier) {
+                frontier[side].update(next, fCost);
+            } else {
+                frontier[side].push(next, fCost);
+            }
+
+            float routeCost = pathCost + pathCosts[1 - side][next];
+            if (routeCost < bestCost) {
+                bestCost = routeCost;
+                meeting = next;
+            }
+        }
+    }
+
+    /**
+     * Get the coordinates of a cell.
+     *
+     * @param cell the cell.
+     * @return the coordinates of the cell.
+     */
+    private Coord coordOf(int cell) {
+        return new Coord(cell / graph.getColumns(), cell % graph.getColumns());
+    }
+
+    /**
+     * Print the states of both frontiers with their F_cost, one line each, followed by an empty line.
+     */
+    private void printBothFrontiers() {
+        if (!isPrint()) {
+            return;
+        }
+        DecimalFormat df = new DecimalFormat("0.0");
+        for (CellHeap heap : frontier) {
+            StringBuilder line = new StringBuilder("[");
+            for (int i = 0; i < heap.size(); i++) {
+                line.append(i > 0 ? "," : "").append(coordOf(heap.cellAt(i))).append(":").append(df.format(heap.keyAt(i)));
+            }
+            System.out.println(line.append("]"));
+        }
+        System.out.println();
+    }
+
+    /**
+     * Record and print the final output: the route from the start to the meeting state (following the forward search
+     * tree back), then on to the goal (following the backward search tree).
+     */
+    private void printOutput() {
+        // Walk back to the start, then reverse that half in place.
+        ArrayList<Coord> path = getSolution();
+        for (int c = meeting; c != -1; c = parent[FORWARD][c]) {
+            path.add(coordOf(c));
+        }
+        for (int i = 0, j = path.size() - 1; i < j; i++, j--) {
+            path.set(i, path.set(j, path.get(i)));
+        }
+        for (int c = parent[BACKWARD][meeting]; c != -1; c = parent[BACKWARD][c]) {
+            path.add(coordOf(c));
+        }
+
+        pathCost = bestCost;
+        nodesExplored = explored[FORWARD] + explored[BACKWARD];
+
+        // if print flag is true, print the output.
+        if (isPrint()) {
+            for (Coord state : path) {
+                System.out.print(state);
+            }
+            System.out.println("\n" + pathCost); // Print path cost.
+            System.out.println(nodesExplored); // Print nodes explored.
+        }
+    }
+
+    /**
+     * If the search could not find a solution, print fail message and the number of explored states.
+     */
+    @Override
+    public void failure() {
+        nodesExplored = explored[FORWARD] + explored[BACKWARD];
+        super.failure();
+    }
+
+}
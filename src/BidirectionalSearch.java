@@ -1,7 +1,7 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
-import java.util.Stack;
 
 /**
  * The Bidirectional class extends UninformedSearch. This is because it has some unique characteristics
@@ -20,6 +20,10 @@ public class BidirectionalSearch extends UninformedSearch {
 
     private ArrayList<Node> explored2 = new ArrayList<>();
 
+    // The node explored at each cell by each sub-search (index 0 for the first, 1 for the second), null if the cell
+    // was not explored by it. Finds the intersection and its two nodes in constant time.
+    private Node[][] exploredAt = new Node[2][];
+
 
     /**
      * Create an uninformed search instance - BestF and AStar algorithms.
@@ -28,43 +32,11 @@ public class BidirectionalSearch extends UninformedSearch {
      * @param start the starting coordinates.
      * @param goal  the goal coordinates.
      */
-    public BidirectionalSearch(Map map, Coord start, Coord goal) {
+    public BidirectionalSearch(Grid map, Coord start, Coord goal) {
         super(map, start, goal);
         this.frontier2 = new LinkedList<>();
     }
 
-    /**
-     * Recursive function that adds states at the bottom of a stack.
-     *
-     * @param stack the stack to insert states at the bottom to.
-     * @param state the state to be added.
-     */
-    private static void insertAtBottom(Stack<Coord> stack, Coord state) {
-        if (stack.empty()) {
-            stack.push(state);
-            return;
-        }
-        Coord top = stack.pop();
-        insertAtBottom(stack, state); // recursive call.
-        stack.push(top);
-    }
-
-    /**
-     * A recursive function that reverses a given stack.
-     * Used to reverse the path from the second sub-tree.
-     *
-     * @param stack the stack to be reversed.
-     */
-    private static void reverse(Stack<Coord> stack) {
-        // if stack is empty, then the stack was reversed.
-        if (stack.empty()) {
-            return;
-        }
-        Coord state = stack.pop();
-        reverse(stack); // recursive call.
-        insertAtBottom(stack, state);
-    }
-
     /**
      * Loop and explore the frontier. If goal is found, its path, cost, and explored nodes are printed.
      * Otherwise, it continues exploring the frontier until its empty.
@@ -73,9 +45,11 @@ public class BidirectionalSearch extends UninformedSearch {
      */
     @Override
     public void loopFrontier(Node initialNode) {
-        insert(initialNode, getFrontier()); // Insert initial node to the original frontier.
+        exploredAt[0] = new Node[getGraph().getCells()];
+        exploredAt[1] = new Node[getGraph().getCells()];
+        insert(initialNode, getFrontier(), 1); // Insert initial node to the original frontier.
         Node endNode = new Node(null, getGoal()); // Create end node.
-        insert(endNode, frontier2); // insert end node to the inverse frontier.
+        insert(endNode, frontier2, 2); // insert end node to the inverse frontier.
 
         // While the frontier is not empty, loop through it.
         while (!getFrontier().isEmpty() && !frontier2.isEmpty() && !intersection) {
@@ -86,23 +60,26 @@ public class BidirectionalSearch extends UninformedSearch {
             }
 
 
-            Node currentNode = removeFromFrontier(getFrontier());
-            Node currentNode2 = removeFromFrontier(frontier2);
+            Node currentNode = removeFromFrontier(getFrontier(), 1);
+            Node currentNode2 = removeFromFrontier(frontier2, 2);
 
             // Add current node to explored.
-            addExplored(currentNode, getExplored());
-            addExplored(currentNode2, explored2);
+            addExplored(currentNode, getExplored(), 1);
+            addExplored(currentNode2, explored2, 2);
+            exploredAt[0][cellIndex(currentNode.getState())] = currentNode;
+            exploredAt[1][cellIndex(currentNode2.getState())] = currentNode2;
 
             if (intersect(currentNode.getState()) || intersect(currentNode2.getState())) {
-                // Get node of the intersection coordinates from each explored list (explored & explored2).
+                // Get node of the intersection coordinates from each sub-search.
                 setFoundSolution(true);
-                printOutput(getNodeInExplored(getExplored(), intersectionCoords), getNodeInExplored(explored2, intersectionCoords)); // print the final goal output.
+                int cell = cellIndex(intersectionCoords);
+                printOutput(exploredAt[0][cell], exploredAt[1][cell]); // print the final goal output.
                 break;
             } else {
                 // insert to the frontier all nodes returned from the expand function.
-                insertAll(expand(currentNode, getFrontier(), 1), getFrontier());
+                insertAll(expand(currentNode, getFrontier(), 1), getFrontier(), 1);
                 // insert to the second frontier the nodes returned from the second search.
-                insertAll(expand(currentNode2, frontier2, 2), frontier2);
+                insertAll(expand(currentNode2, frontier2, 2), frontier2, 2);
             }
         }
     }
@@ -120,10 +97,8 @@ public class BidirectionalSearch extends UninformedSearch {
      */
     @Override
     public void addSuitableSuccessors(Collection<Node> frontier, int frontierNo, Coord state, ArrayList<Node> successors, Node parent) {
-        ArrayList<Node> tempExplored = frontierNo == 1 ? getExplored() : explored2; // get appropriate explored arraylist.
-
-        // if state is not contained in a node of explored or frontier.
-        if (!getFrontierStates(frontier).contains(state) && !getExploredStates(tempExplored).contains(state)) {
+        // if state is not contained in a node of explored or frontier (of the appropriate sub-search).
+        if (!isInFrontier(state, frontierNo) && !isExplored(state, frontierNo)) {
             Node nd = new Node(parent, state);
             successors.add(nd);
         }
@@ -134,31 +109,34 @@ public class BidirectionalSearch extends UninformedSearch {
      *
      * @param successors the successors ArrayList containing all the suitable successors.
      * @param frontier   the frontier to which to add all the successors (from the 2 frontiers).
+     * @param frontierNo the number of the frontier passed in.
      */
-    public void insertAll(ArrayList<Node> successors, LinkedList<Node> frontier) {
+    public void insertAll(ArrayList<Node> successors, LinkedList<Node> frontier, int frontierNo) {
         for (Node node : successors) {
-            frontier.addLast(node);
+            insert(node, frontier, frontierNo);
         }
     }
 
     /**
      * Removes the first element of the frontier (the one with the lowest F_Cost currently in the frontier).
      *
-     * @param frontier the frontier from which to remove a state (from the 2 frontiers).
+     * @param frontier   the frontier from which to remove a state (from the 2 frontiers).
+     * @param frontierNo the number of the frontier passed in.
      * @return the node removed.
      */
-    public Node removeFromFrontier(LinkedList<Node> frontier) {
-        return frontier.poll();
+    public Node removeFromFrontier(LinkedList<Node> frontier, int frontierNo) {
+        return unmarkInFrontier(frontier.poll(), frontierNo);
     }
 
     /**
-     * Check if the state was explored by both sub-searches.
+     * Check in constant time if the state was explored by both sub-searches.
      *
      * @param state the coordinates of the state passed in.
      * @return true if explored by both, false otherwise.
      */
     public boolean intersect(Coord state) {
-        if (getExploredStates(getExplored()).contains(state) && getExploredStates(explored2).contains(state)) {
+        int cell = cellIndex(state);
+        if (exploredAt[0][cell] != null && exploredAt[1][cell] != null) {
             intersectionCoords = state; // store intersected state's coord.
             return true;
         }
@@ -166,29 +144,37 @@ public class BidirectionalSearch extends UninformedSearch {
     }
 
     /**
-     * Print final output (when goal node is reached).
+     * Print final output (when goal node is reached). The path is joined into one array without recursion: the first
+     * half is written backwards from the intersection to the start, then the second half forwards from the
+     * intersection to the goal, so it takes time linear in the length of the path.
      *
      * @param node1 the common node found from the first sub-tree.
      * @param node2 the common node found from the second sub-tree.
      */
     public void printOutput(Node node1, Node node2) {
-        Stack<Coord> pathStates = node1.getPath(getStart());
-        Stack<Coord> pathStates2 = node2.getPath(getGoal());
-        reverse(pathStates2);
-        pathStates2.pop(); // remove first element (as it is the intersection).
+        // The depth of a node is the number of states from the root of its sub-tree to it, both included.
+        Coord[] path = new Coord[node1.getDepth() + node2.getDepth() - 1];
+        int i = node1.getDepth() - 1;
+        for (Node node = node1; node != null; node = node.getParent()) {
+            path[i--] = node.getState();
+        }
+        i = node1.getDepth();
+        for (Node node = node2.getParent(); node != null; node = node.getParent()) {
+            path[i++] = node.getState(); // skip the intersection, which ends the first half.
+        }
+        getSolution().addAll(Arrays.asList(path));
 
         nodesExplored = getExplored().size() + explored2.size();
-        pathCost = node1.getPathCost(getStart()) + node2.getPathCost(getGoal());
+        pathCost = node1.getPathCost() + node2.getPathCost();
 
         // if print flag is true, then print the output.
         if (isPrint()) {
-            while (!pathStates.isEmpty()) {
-                System.out.print(pathStates.pop());
-            }
-            while (!pathStates2.isEmpty()) {
-                System.out.print(pathStates2.pop());
+            StringBuilder line = new StringBuilder();
+            for (Coord state : path) {
+                line.append(state);
             }
-            System.out.println("\n" + node1.getPathCost(getStart()) + " , " + node2.getPathCost(getGoal()));
+            System.out.println(line);
+            System.out.println(node1.getPathCost() + " , " + node2.getPathCost());
             System.out.println(getExplored().size() + " , " + explored2.size());
         }
     }
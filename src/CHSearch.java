@@ -0,0 +1,279 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The CHSearch class answers route queries with a contraction hierarchy (see ContractionHierarchy): Dijkstra's search
+ * runs up the hierarchy from the start and from the goal, alternating between the two, and the best route is the
+ * lowest sum of their path costs over the cells both reached. A side stops once its lowest path cost is at least the
+ * best route, so the routes are optimal like AStar's. The shortcuts of the route are then unpacked into moves.
+ *
+ * Only a few hundred cells are settled per query, even on large maps, and the search state is kept in arrays stamped
+ * per query, so a CHSearch can be reused for many queries (see setQuery, or distance for the cost only) without
+ * clearing or allocating. One instance must not be used by two threads at the same time. nodesExplored counts the
+ * cells settled by both sides.
+ *
+ * @author 210017984.
+ */
+public class CHSearch extends Search {
+
+    private static final int FORWARD = 0;
+    private static final int BACKWARD = 1;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int NONE = ContractionHierarchy.NONE;
+
+    // Initialise variables. Index FORWARD is the search from the start, BACKWARD the search from the goal.
+    private final ContractionHierarchy hierarchy;
+    private final int columns;
+    private final int[][] pathCosts = new int[2][];
+    private final int[][] parents = new int[2][];
+    private final int[][] skippedBy = new int[2][]; // the cell skipped by the edge from the parent.
+    private final int[][] stamp = new int[2][];
+    private final CellHeap[] frontier = new CellHeap[2];
+    private final int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+    private int queryNo = 0;
+    private int bestCost; // the cost of the best route found so far.
+    private int meeting; // the cell where the best route goes from one side to the other.
+    private int settled;
+
+    /**
+     * Create a contraction hierarchy search instance.
+     *
+     * @param hierarchy the hierarchy of the map.
+     * @param map       the map passed in.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     */
+    public CHSearch(ContractionHierarchy hierarchy, Grid map, Coord start, Coord goal) {
+        super(map, start, goal);
+        this.hierarchy = hierarchy;
+        this.columns = hierarchy.getColumns();
+        int cells = hierarchy.getCells();
+        for (int side = FORWARD; side <= BACKWARD; side++) {
+            pathCosts[side] = new int[cells];
+            parents[side] = new int[cells];
+            skippedBy[side] = new int[cells];
+            stamp[side] = new int[cells];
+            frontier[side] = new CellHeap(cells);
+        }
+    }
+
+    /**
+     * Search for a route and print it. If a route is found, its path, cost, and explored nodes are printed.
+     *
+     * @param initialNode the initial node, only used for its state.
+     */
+    @Override
+    public void loopFrontier(Node initialNode) {
+        ArrayList<Coord> path = getSolution();
+        path.clear();
+        int startCell = cellIndex(initialNode.getState());
+        int goalCell = cellIndex(getGoal());
+        search(startCell, goalCell);
+        nodesExplored = settled;
+        if (bestCost == INFINITY) {
+            return;
+        }
+        setFoundSolution(true);
+        pathCost = bestCost;
+        unpackRoute(startCell, goalCell, path);
+
+        // if print flag is true, print the output.
+        if (isPrint()) {
+            for (Coord state : path) {
+                System.out.print(state);
+            }
+            System.out.println("\n" + pathCost); // Print path cost.
+            System.out.println(nodesExplored); // Print nodes explored.
+        }
+    }
+
+    /**
+     * Get the cost of the shortest route between two states, without building the route.
+     *
+     * @param start the starting coordinates.
+     * @param goal  the goal coordinates.
+     * @return the cost of the shortest route, infinity if there is none.
+     */
+    public float distance(Coord start, Coord goal) {
+        search(cellIndex(start), cellIndex(goal));
+        return bestCost == INFINITY ? Float.POSITIVE_INFINITY : bestCost;
+    }
+
+    /**
+     * Search up the hierarchy from both ends, leaving the best route in bestCost and meeting.
+     *
+     * @param startCell the cell of the start.
+     * @param goalCell  the cell of the goal.
+     */
+    private void search(int startCell, int goalCell) {
+        newQuery();
+        bestCost = INFINITY;
+        meeting = NONE;
+        settled = 0;
+        if (startCell == goalCell) {
+            bestCost = 0;
+            meeting = startCell;
+            return;
+        }
+        if (!getGraph().isLegal(goalCell / columns, goalCell % columns)) {
+            return; // like the flat searches, which never move to an illegal goal (but may start on one).
+        }
+        reach(FORWARD, startCell, 0, NONE, NONE);
+        if (!getGraph().isLegal(startCell / columns, startCell % columns)) {
+            // A start on an island or tide has no edges in the hierarchy, so start from its legal neighbours.
+            frontier[FORWARD].clear();
+            int found = getGraph().neighbours(startCell, neighbours);
+            for (int i = 0; i < found; i++) {
+                reach(FORWARD, neighbours[i], 1, startCell, NONE);
+            }
+        }
+        reach(BACKWARD, goalCell, 0, NONE, NONE);
+
+        while (true) {
+            // Settle the lowest cell of the side whose lowest path cost is lower, while it can still lower the best.
+            int side = NONE;
+            for (int s = FORWARD; s <= BACKWARD; s++) {
+                if (!frontier[s].isEmpty() && frontier[s].peekKey() < bestCost
+                        && (side == NONE || frontier[s].peekKey() < frontier[side].peekKey())) {
+                    side = s;
+                }
+            }
+            if (side == NONE) {
+                break;
+            }
+            int cell = frontier[side].pop();
+            settled++;
+            int other = 1 - side;
+            int cost = pathCosts[side][cell];
+            if (stamp[other][cell] == queryNo && cost + pathCosts[other][cell] < bestCost) {
+                bestCost = cost + pathCosts[other][cell];
+                meeting = cell;
+            }
+            if (isStalled(side, cell, cost)) {
+                continue;
+            }
+            for (int edge = hierarchy.firstEdge(cell); edge < hierarchy.endEdge(cell); edge++) {
+                reach(side, hierarchy.target(edge), cost + hierarchy.cost(edge), cell, hierarchy.skipped(edge));
+            }
+        }
+    }
+
+    /**
+     * Check if a settled cell can be reached at a lower cost from a higher cell that its side reached (stall-on-demand).
+     * The route through the cell is then not the shortest, so its edges are not followed.
+     *
+     * @param side FORWARD or BACKWARD.
+     * @param cell the cell.
+     * @param cost the path cost of the cell.
+     * @return true if the cell is stalled.
+     */
+    private boolean isStalled(int side, int cell, int cost) {
+        for (int edge = hierarchy.firstEdge(cell); edge < hierarchy.endEdge(cell); edge++) {
+            int higher = hierarchy.target(edge);
+            if (stamp[side][higher] == queryNo && pathCosts[side][higher] + hierarchy.cost(edge) < cost) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Update the path cost of a cell on one side if the new one is lower, and put it in that side's frontier.
+     *
+     * @param side     FORWARD or BACKWARD.
+     * @param cell     the cell.
+     * @param cost     the path cost through the parent.
+     * @param parent   the cell it is reached from.
+     * @param skipping the cell skipped by the edge from the parent.
+     */
+    private void reach(int side, int cell, int cost, int parent, int skipping) {
+        if (stamp[side][cell] == queryNo) {
+            if (pathCosts[side][cell] <= cost) {
+                return;
+            }
+        } else {
+            stamp[side][cell] = queryNo;
+        }
+        pathCosts[side][cell] = cost;
+        parents[side][cell] = parent;
+        skippedBy[side][cell] = skipping;
+        if (frontier[side].contains(cell)) {
+            frontier[side].update(cell, cost);
+        } else {
+            frontier[side].push(cell, cost);
+        }
+    }
+
+    /**
+     * Start a new query, invalidating the search state of the previous one.
+     */
+    private void newQuery() {
+        queryNo++;
+        if (queryNo == 0) {
+            // The stamps wrapped around, so clear them once.
+            Arrays.fill(stamp[FORWARD], 0);
+            Arrays.fill(stamp[BACKWARD], 0);
+            queryNo = 1;
+        }
+        frontier[FORWARD].clear();
+        frontier[BACKWARD].clear();
+    }
+
+    /**
+     * Build the route of the last search, from the start up to the meeting cell and down to the goal, unpacking the
+     * shortcuts into moves.
+     *
+     * @param startCell the cell of the start.
+     * @param goalCell  the cell of the goal.
+     * @param path      the list the states of the route are added to.
+     */
+    private void unpackRoute(int startCell, int goalCell, ArrayList<Coord> path) {
+        ArrayList<Integer> cells = new ArrayList<>();
+        cells.add(startCell);
+        if (meeting != startCell) {
+            // The forward side's edges, from the meeting cell back to the start.
+            ArrayList<int[]> up = new ArrayList<>();
+            for (int cell = meeting; parents[FORWARD][cell] != NONE; cell = parents[FORWARD][cell]) {
+                up.add(new int[]{parents[FORWARD][cell], cell, skippedBy[FORWARD][cell]});
+            }
+            for (int i = up.size() - 1; i >= 0; i--) {
+                unpack(up.get(i)[0], up.get(i)[1], up.get(i)[2], cells);
+            }
+        }
+        if (meeting != goalCell) {
+            // The backward side's edges, from the meeting cell down to the goal.
+            for (int cell = meeting; parents[BACKWARD][cell] != NONE; cell = parents[BACKWARD][cell]) {
+                unpack(cell, parents[BACKWARD][cell], skippedBy[BACKWARD][cell], cells);
+            }
+        }
+        for (int cell : cells) {
+            path.add(new Coord(cell / columns, cell % columns));
+        }
+    }
+
+    /**
+     * Unpack an edge into moves, adding the cells after its first one to a list.
+     *
+     * @param from     the cell the edge is taken from.
+     * @param to       the cell the edge goes to.
+     * @param skipping the cell the edge skips, NONE for a move.
+     * @param cells    the list the cells are added to.
+     */
+    private void unpack(int from, int to, int skipping, ArrayList<Integer> cells) {
+        // Stack of the edges left to unpack, the next one on top.
+        ArrayList<int[]> stack = new ArrayList<>();
+        stack.add(new int[]{from, to, skipping});
+        while (!stack.isEmpty()) {
+            int[] edge = stack.remove(stack.size() - 1);
+            if (edge[2] == NONE) {
+                cells.add(edge[1]);
+                continue;
+            }
+            // The skipped cell was contracted before both ends, so its upward edges lead to them.
+            int middle = edge[2];
+            stack.add(new int[]{middle, edge[1], hierarchy.skipped(middle, edge[1])});
+            stack.add(new int[]{edge[0], middle, hierarchy.skipped(middle, edge[0])});
+        }
+    }
+
+}
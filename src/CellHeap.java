@@ -0,0 +1,272 @@
+/**
+ * Indexed binary min-heap of cells, ordered by a key given when a cell is inserted (and then by an optional second
+ * key, for keys that are compared in order like the ones of IncrementalPlanner). It follows the same sift rules as
+ * FrontierHeap (and java.util.PriorityQueue), so ties among equal keys are broken the same way. The slot of every cell
+ * in the heap is tracked, so updating the key of a cell or removing it is O(log n). Used by the searches that keep
+ * their search tree in arrays instead of nodes.
+ *
+ * @author 210017984.
+ */
+public class CellHeap {
+
+    // Initialise heap variables.
+    private final int[] heap;
+    private final double[] keys;
+    private final double[] secondKeys; // compared when the keys are equal, 0 if not given.
+    private final int[] slot; // heap slot of each cell, only valid while the cell is in the heap.
+    private int size = 0;
+
+    /**
+     * Create an empty heap.
+     *
+     * @param cells the number of cells of the map.
+     */
+    public CellHeap(int cells) {
+        this.heap = new int[cells];
+        this.keys = new double[cells];
+        this.secondKeys = new double[cells];
+        this.slot = new int[cells];
+    }
+
+    /**
+     * Remove every cell from the heap.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Get the number of cells in the heap.
+     *
+     * @return the size of the heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if the heap is empty.
+     *
+     * @return true if there are no cells in the heap, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Check if a cell is in the heap.
+     *
+     * @param cell the cell.
+     * @return true if the cell is in the heap, false otherwise.
+     */
+    public boolean contains(int cell) {
+        int at = slot[cell];
+        return at >= 0 && at < size && heap[at] == cell;
+    }
+
+    /**
+     * Insert a cell that is not in the heap.
+     *
+     * @param cell the cell.
+     * @param key  the key of the cell.
+     */
+    public void push(int cell, double key) {
+        push(cell, key, 0);
+    }
+
+    /**
+     * Insert a cell that is not in the heap, with a second key compared when the keys are equal.
+     *
+     * @param cell      the cell.
+     * @param key       the key of the cell.
+     * @param secondKey the second key of the cell.
+     */
+    public void push(int cell, double key, double secondKey) {
+        heap[size] = cell;
+        keys[size] = key;
+        secondKeys[size] = secondKey;
+        slot[cell] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Remove the cell with the lowest key.
+     *
+     * @return the cell removed.
+     */
+    public int pop() {
+        int cell = heap[0];
+        size--;
+        if (size > 0) {
+            moveSlot(size, 0);
+            siftDown(0);
+        }
+        return cell;
+    }
+
+    /**
+     * Remove a cell that is in the heap.
+     *
+     * @param cell the cell.
+     */
+    public void remove(int cell) {
+        int at = slot[cell];
+        size--;
+        if (at < size) {
+            int moved = heap[size]; // the last cell fills the slot, then moves to its place.
+            moveSlot(size, at);
+            siftUp(at);
+            siftDown(slot[moved]);
+        }
+    }
+
+    /**
+     * Get the cell with the lowest key, without removing it.
+     *
+     * @return the first cell.
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Get the lowest key in the heap.
+     *
+     * @return the key of the first cell.
+     */
+    public double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Get the second key of the cell with the lowest key.
+     *
+     * @return the second key of the first cell.
+     */
+    public double peekSecondKey() {
+        return secondKeys[0];
+    }
+
+    /**
+     * Change the key of a cell in the heap, moving it to its new place.
+     *
+     * @param cell the cell.
+     * @param key  the new key of the cell.
+     */
+    public void update(int cell, double key) {
+        update(cell, key, 0);
+    }
+
+    /**
+     * Change both keys of a cell in the heap, moving it to its new place.
+     *
+     * @param cell      the cell.
+     * @param key       the new key of the cell.
+     * @param secondKey the new second key of the cell.
+     */
+    public void update(int cell, double key, double secondKey) {
+        int at = slot[cell];
+        keys[at] = key;
+        secondKeys[at] = secondKey;
+        siftUp(at);
+        siftDown(slot[cell]);
+    }
+
+    /**
+     * Get the cell of a heap slot, e.g. to print the heap in its internal order.
+     *
+     * @param at the slot.
+     * @return the cell in the slot.
+     */
+    public int cellAt(int at) {
+        return heap[at];
+    }
+
+    /**
+     * Get the key of a heap slot.
+     *
+     * @param at the slot.
+     * @return the key of the cell in the slot.
+     */
+    public double keyAt(int at) {
+        return keys[at];
+    }
+
+    /**
+     * Check if the cell of a heap slot comes strictly before the cell of another slot.
+     *
+     * @param a the first slot.
+     * @param b the second slot.
+     * @return true if the keys of a are lower than the keys of b.
+     */
+    private boolean less(int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && secondKeys[a] < secondKeys[b]);
+    }
+
+    /**
+     * Move the cell of a heap slot up until its parent has a lower or equal key.
+     *
+     * @param at the slot to sift up.
+     */
+    private void siftUp(int at) {
+        while (at > 0) {
+            int up = (at - 1) >>> 1;
+            if (!less(at, up)) {
+                break;
+            }
+            swapSlots(at, up);
+            at = up;
+        }
+    }
+
+    /**
+     * Move the cell of a heap slot down until both of its children have a higher or equal key.
+     *
+     * @param at the slot to sift down.
+     */
+    private void siftDown(int at) {
+        int half = size >>> 1;
+        while (at < half) {
+            int child = 2 * at + 1;
+            if (child + 1 < size && less(child + 1, child)) {
+                child++;
+            }
+            if (!less(child, at)) {
+                break;
+            }
+            swapSlots(at, child);
+            at = child;
+        }
+    }
+
+    /**
+     * Swap the cells of two heap slots.
+     *
+     * @param a the first slot.
+     * @param b the second slot.
+     */
+    private void swapSlots(int a, int b) {
+        int cell = heap[a];
+        double key = keys[a];
+        double secondKey = secondKeys[a];
+        moveSlot(b, a);
+        heap[b] = cell;
+        keys[b] = key;
+        secondKeys[b] = secondKey;
+        slot[cell] = b;
+    }
+
+    /**
+     * Move the cell of one heap slot to another slot.
+     *
+     * @param from the slot to move from.
+     * @param to   the slot to move to.
+     */
+    private void moveSlot(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        secondKeys[to] = secondKeys[from];
+        slot[heap[to]] = to;
+    }
+
+}
@@ -0,0 +1,775 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * The abstract graph of hierarchical path-finding A* (HPA*, by Botea, Muller and Schaeffer), for maps too large for a
+ * flat search. The map is split into square clusters of clusterSize by clusterSize cells. Where two clusters touch,
+ * every run of legal moves across their border gets one entrance in its middle, or one at each end if the run is
+ * longer than LONG_RUN moves; the two cells of an entrance are the nodes of the abstract graph. A run only goes on
+ * while its moves start and end in connected areas of the two clusters, so no route is lost. The nodes of a cluster
+ * are joined by their shortest distance within the cluster (found with a breadth first search, using the same moves as
+ * TriangleGraph), and the two cells of an entrance by one move.
+ *
+ * A query joins the start and the goal to the nodes of their clusters, runs A* over the abstract graph, and then
+ * refines each step of the abstract route into moves with a breadth first search within its cluster. The routes found
+ * are close to the shortest, but not always the shortest, as they cross the borders at entrances only.
+ *
+ * The graph keeps its own copy of which cells are blocked, so tides must be set through setTide. A tide only rebuilds
+ * the cluster it is in, and a neighbouring cluster if the entrances on their shared border moved. Queries reuse the
+ * search state of the graph, so one graph must not be queried by two threads at the same time.
+ *
+ * @author 210017984.
+ */
+public class ClusterGraph {
+
+    /**
+     * The size of the clusters used if none is given, in cells per side.
+     */
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    /**
+     * The longest run of moves across a border that gets a single entrance.
+     */
+    public static final int LONG_RUN = 5;
+
+    private static final float INFINITY = Float.POSITIVE_INFINITY;
+    private static final int NO_ROUTE = -1;
+    private static final int NONE = -1;
+
+    // Initialise variables.
+    private final TidalGrid map;
+    private final int rows;
+    private final int columns;
+    private final int clusterSize;
+    private final int clusterRows;
+    private final int clusterColumns;
+    private final int maxEntrances; // the most nodes a cluster can have: clusterSize per side.
+    private final boolean[] blocked; // islands and tides.
+    private final IntPredicate isBlocked; // reads blocked, for TriangleGraph.adjacentCells.
+    private int rebuilt = 0; // clusters rebuilt by tides.
+
+    // Abstract graph, indexed by cluster.
+    private final int[][] east; // the cells whose move right crosses to the next cluster at an entrance.
+    private final int[][] south; // the cells whose move down crosses to the cluster below at an entrance.
+    private final int[][] entrances; // the nodes of each cluster, sorted by cell.
+    private final int[][] distances; // between the nodes of each cluster (entrances.length squared), or NO_ROUTE.
+
+    // Search state of the queries. A node is a cluster and the position of the entrance in it (cluster * maxEntrances
+    // + i), or the start or the goal. Its entries are only valid if its stamp equals the current query number.
+    private final int start;
+    private final int goal;
+    private final float[] pathCosts;
+    private final int[] parents;
+    private final int[] stamp;
+    private final CellHeap open;
+    private int queryNo = 0;
+    private LandmarkTable landmarks; // of the map, for the heuristic L of the current query.
+    private int[] goalDistances; // from the nodes of its cluster to the goal.
+    private int expanded = 0; // abstract nodes expanded by the last query.
+    private int localExpanded = 0; // cells expanded within clusters by the last query.
+    private float pathCost = INFINITY;
+
+    // Breadth first search within a cluster, indexed by the position of the cell in the cluster.
+    private final int[] localDistances;
+    private final int[] localParents;
+    private final int[] localQueue;
+    private final int[] insideAreas; // connected areas of the clusters on both sides of a border.
+    private final int[] outsideAreas;
+    private final int[] adjacent = new int[TriangleGraph.MAX_NEIGHBOURS];
+
+    /**
+     * Build the abstract graph of a map with clusters of the default size.
+     *
+     * @param map the map.
+     */
+    public ClusterGraph(TidalGrid map) {
+        this(map, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Build the abstract graph of a map.
+     *
+     * @param map         the map.
+     * @param clusterSize the size of the clusters, in cells per side.
+     */
+    public ClusterGraph(TidalGrid map, int clusterSize) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("The clusters must be at least 2 cells wide, not " + clusterSize + ".");
+        }
+        TriangleGraph graph = map.getGraph();
+        this.map = map;
+        this.rows = graph.getRows();
+        this.columns = graph.getColumns();
+        this.clusterSize = clusterSize;
+        this.clusterRows = (rows + clusterSize - 1) / clusterSize;
+        this.clusterColumns = (columns + clusterSize - 1) / clusterSize;
+        this.maxEntrances = 4 * clusterSize;
+
+        this.blocked = new boolean[rows * columns];
+        for (int cell = 0; cell < blocked.length; cell++) {
+            blocked[cell] = !graph.isLegal(cell / columns, cell % columns);
+        }
+        this.isBlocked = cell -> blocked[cell];
+
+        int local = clusterSize * clusterSize;
+        this.localDistances = new int[local];
+        this.localParents = new int[local];
+        this.localQueue = new int[local];
+        this.insideAreas = new int[local];
+        this.outsideAreas = new int[local];
+
+        int clusters = clusterRows * clusterColumns;
+        this.east = new int[clusters][];
+        this.south = new int[clusters][];
+        this.entrances = new int[clusters][];
+        this.distances = new int[clusters][];
+        for (int cluster = 0; cluster < clusters; cluster++) {
+            east[cluster] = eastEntrances(cluster);
+            south[cluster] = southEntrances(cluster);
+        }
+        for (int cluster = 0; cluster < clusters; cluster++) {
+            buildCluster(cluster);
+        }
+        rebuilt = 0;
+
+        int nodes = clusters * maxEntrances + 2;
+        this.start = nodes - 2;
+        this.goal = nodes - 1;
+        this.pathCosts = new float[nodes];
+        this.parents = new int[nodes];
+        this.stamp = new int[nodes];
+        this.open = new CellHeap(nodes);
+    }
+
+    /**
+     * Set a tide on the map, and rebuild the clusters whose nodes or distances it changed.
+     *
+     * @param row the row that the tide will be added.
+     * @param col the column that the tide will be added.
+     */
+    public void setTide(int row, int col) {
+        map.setTide(row, col);
+        int cell = row * columns + col;
+        if (blocked[cell]) {
+            return;
+        }
+        blocked[cell] = true;
+
+        int cluster = clusterOf(cell);
+        int clusterRow = cluster / clusterColumns;
+        int clusterCol = cluster % clusterColumns;
+
+        // The tide may split an area of the cluster, and so move the entrances on any of its borders and the nodes of
+        // the clusters on the other side.
+        boolean left = clusterCol > 0 && updateEast(cluster - 1);
+        boolean right = updateEast(cluster) && clusterCol + 1 < clusterColumns;
+        boolean above = clusterRow > 0 && updateSouth(cluster - clusterColumns);
+        boolean below = updateSouth(cluster) && clusterRow + 1 < clusterRows;
+        buildCluster(cluster);
+        if (left) {
+            buildCluster(cluster - 1);
+        }
+        if (right) {
+            buildCluster(cluster + 1);
+        }
+        if (above) {
+            buildCluster(cluster - clusterColumns);
+        }
+        if (below) {
+            buildCluster(cluster + clusterColumns);
+        }
+    }
+
+    /**
+     * Find a route from the start to the goal over the abstract graph, and refine it into moves.
+     *
+     * @param from      the starting coordinates.
+     * @param to        the goal coordinates.
+     * @param heuristic the chosen heuristic towards the goal (M, T, E, C or L).
+     * @param landmarks the landmark table of the map for the heuristic L, null otherwise.
+     * @return the states of the route from the start to the goal, empty if none was found.
+     */
+    public ArrayList<Coord> findRoute(Coord from, Coord to, char heuristic, LandmarkTable landmarks) {
+        this.landmarks = landmarks;
+        expanded = 0;
+        localExpanded = 0;
+        pathCost = INFINITY;
+        ArrayList<Coord> path = new ArrayList<>();
+        int startCell = from.getR() * columns + from.getC();
+        int goalCell = to.getR() * columns + to.getC();
+        if (startCell == goalCell) {
+            path.add(from);
+            pathCost = 0;
+            return path;
+        }
+        if (blocked[goalCell]) {
+            return path; // like the flat searches, which never move to an illegal goal (but may start on one).
+        }
+        int goalCluster = clusterOf(goalCell);
+
+        // Join the goal to the nodes of its cluster (the start is joined when it is expanded).
+        localSearch(goalCluster, goalCell, NONE);
+        goalDistances = nodeDistances(goalCluster); // the moves are the same both ways.
+
+        // A* over the abstract graph.
+        newQuery();
+        open.clear();
+        reach(start, NONE, 0, startCell, to, heuristic);
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            if (node == goal) {
+                break;
+            }
+            expanded++;
+            float g = pathCosts[node];
+            if (node == start) {
+                joinStart(startCell, goalCell, to, heuristic);
+                continue;
+            }
+            int cluster = node / maxEntrances;
+            int i = node % maxEntrances;
+            int[] nodes = entrances[cluster];
+            int[] distance = distances[cluster];
+            for (int j = 0; j < nodes.length; j++) {
+                if (j != i && distance[i * nodes.length + j] != NO_ROUTE) {
+                    reach(cluster * maxEntrances + j, node, g + distance[i * nodes.length + j], nodes[j], to, heuristic);
+                }
+            }
+            if (cluster == goalCluster && goalDistances[i] != NO_ROUTE) {
+                reach(goal, node, g + goalDistances[i], goalCell, to, heuristic);
+            }
+            // Cross to the nodes of the neighbouring clusters.
+            int found = legalNeighbours(nodes[i], adjacent);
+            for (int k = 0; k < found; k++) {
+                int next = adjacent[k];
+                int nextCluster = clusterOf(next);
+                int j = nextCluster == cluster ? -1 : Arrays.binarySearch(entrances[nextCluster], next);
+                if (j >= 0) {
+                    reach(nextCluster * maxEntrances + j, node, g + 1, next, to, heuristic);
+                }
+            }
+        }
+        if (!isReached(goal)) {
+            return path;
+        }
+
+        // Refine each step of the abstract route into moves.
+        ArrayList<Integer> nodes = new ArrayList<>();
+        for (int node = goal; node != NONE; node = parents[node]) {
+            nodes.add(node);
+        }
+        int previous = startCell;
+        path.add(from);
+        if (blocked[startCell]) {
+            // The route leaves a start on an island or tide through the legal neighbour closest to the next node.
+            previous = closestNeighbour(startCell, cellOf(nodes.get(nodes.size() - 2), goalCell));
+            path.add(new Coord(previous / columns, previous % columns));
+        }
+        for (int k = nodes.size() - 2; k >= 0; k--) {
+            int cell = cellOf(nodes.get(k), goalCell);
+            if (cell == previous) {
+                continue;
+            }
+            if (clusterOf(cell) != clusterOf(previous)) {
+                path.add(new Coord(cell / columns, cell % columns)); // one move across a border.
+            } else {
+                localSearch(clusterOf(cell), previous, cell);
+                addLocalPath(path, cell);
+            }
+            previous = cell;
+        }
+        pathCost = pathCosts[goal];
+        return path;
+    }
+
+    /**
+     * Get the cost of the route found by the last query.
+     *
+     * @return the path cost, infinity if no route was found.
+     */
+    public float getPathCost() {
+        return pathCost;
+    }
+
+    /**
+     * Get the number of abstract nodes expanded by the last query.
+     *
+     * @return the nodes expanded.
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Get the number of cells expanded within clusters by the last query, to join the start and goal to the graph and
+     * to refine the route.
+     *
+     * @return the cells expanded.
+     */
+    public int getLocalExpanded() {
+        return localExpanded;
+    }
+
+    /**
+     * Get the number of clusters rebuilt because of tides.
+     *
+     * @return the clusters rebuilt.
+     */
+    public int getRebuilt() {
+        return rebuilt;
+    }
+
+    /**
+     * Get the number of nodes of the abstract graph.
+     *
+     * @return the number of nodes.
+     */
+    public int getNodes() {
+        int nodes = 0;
+        for (int[] cluster : entrances) {
+            nodes += cluster.length;
+        }
+        return nodes;
+    }
+
+    /**
+     * Get the map of the graph.
+     *
+     * @return the map.
+     */
+    public TidalGrid getMap() {
+        return map;
+    }
+
+    /**
+     * Get the size of the clusters.
+     *
+     * @return the size of the clusters, in cells per side.
+     */
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Join the start to the nodes of its cluster, and to the goal if it is in the same cluster. A start on an island
+     * or tide (which the flat searches allow) is joined through its legal neighbours instead, one move away.
+     *
+     * @param startCell the cell of the start.
+     * @param goalCell  the cell of the goal.
+     * @param to        the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     */
+    private void joinStart(int startCell, int goalCell, Coord to, char heuristic) {
+        if (!blocked[startCell]) {
+            joinFrom(startCell, 0, goalCell, to, heuristic);
+            return;
+        }
+        int[] around = Arrays.copyOf(adjacent, legalNeighbours(startCell, adjacent)); // adjacent is reused.
+        for (int cell : around) {
+            joinFrom(cell, 1, goalCell, to, heuristic);
+        }
+    }
+
+    /**
+     * Reach the nodes of a cluster (and the goal, if it is in the cluster) from the start through one of its cells.
+     *
+     * @param cell      the cell of the cluster.
+     * @param cost      the path cost of the cell.
+     * @param goalCell  the cell of the goal.
+     * @param to        the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     */
+    private void joinFrom(int cell, float cost, int goalCell, Coord to, char heuristic) {
+        int cluster = clusterOf(cell);
+        localSearch(cluster, cell, NONE);
+        int[] nodes = entrances[cluster];
+        for (int i = 0; i < nodes.length; i++) {
+            int distance = localDistances[localIndex(nodes[i])];
+            if (distance != NO_ROUTE) {
+                reach(cluster * maxEntrances + i, start, cost + distance, nodes[i], to, heuristic);
+            }
+        }
+        if (clusterOf(goalCell) == cluster && localDistances[localIndex(goalCell)] != NO_ROUTE) {
+            reach(goal, start, cost + localDistances[localIndex(goalCell)], goalCell, to, heuristic);
+        }
+    }
+
+    /**
+     * Find the legal neighbour of a cell that is closest to another cell within the other cell's cluster.
+     *
+     * @param cell   the cell.
+     * @param target the other cell.
+     * @return the closest neighbour.
+     */
+    private int closestNeighbour(int cell, int target) {
+        int[] around = Arrays.copyOf(adjacent, legalNeighbours(cell, adjacent)); // adjacent is reused.
+        int closest = NONE;
+        int shortest = Integer.MAX_VALUE;
+        for (int next : around) {
+            if (clusterOf(next) == clusterOf(target)) {
+                int distance = localSearch(clusterOf(next), next, target);
+                if (distance != NO_ROUTE && distance < shortest) {
+                    closest = next;
+                    shortest = distance;
+                }
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Update the path cost of a node if the new one is lower, and put it in the frontier.
+     *
+     * @param node      the node.
+     * @param parent    the node it is reached from.
+     * @param pathCost  the path cost through the parent.
+     * @param cell      the cell of the node.
+     * @param to        the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     */
+    private void reach(int node, int parent, float pathCost, int cell, Coord to, char heuristic) {
+        if (isReached(node) && pathCosts[node] <= pathCost) {
+            return;
+        }
+        stamp[node] = queryNo;
+        pathCosts[node] = pathCost;
+        parents[node] = parent;
+        double f = pathCost + Node.heuristicScore(heuristic, landmarks, cell / columns, cell % columns, to);
+        if (open.contains(node)) {
+            open.update(node, f, -pathCost);
+        } else {
+            open.push(node, f, -pathCost); // ties go to the node further from the start.
+        }
+    }
+
+    /**
+     * Check if a node was reached by the current query.
+     *
+     * @param node the node.
+     * @return true if it has a path cost.
+     */
+    private boolean isReached(int node) {
+        return stamp[node] == queryNo;
+    }
+
+    /**
+     * Start a new query, invalidating the search state of the previous one.
+     */
+    private void newQuery() {
+        queryNo++;
+        if (queryNo == 0) {
+            // The stamps wrapped around, so clear them once.
+            Arrays.fill(stamp, 0);
+            queryNo = 1;
+        }
+    }
+
+    /**
+     * Get the cell of an abstract node.
+     *
+     * @param node     the node.
+     * @param goalCell the cell of the goal.
+     * @return the cell.
+     */
+    private int cellOf(int node, int goalCell) {
+        if (node == goal) {
+            return goalCell;
+        }
+        return entrances[node / maxEntrances][node % maxEntrances];
+    }
+
+    /**
+     * Find the entrances on the border between a cluster and the next one to its right.
+     *
+     * @param cluster the cluster.
+     * @return the cells of the cluster that cross the border, from the top.
+     */
+    private int[] eastEntrances(int cluster) {
+        int col = (cluster % clusterColumns + 1) * clusterSize - 1;
+        if (col + 1 >= columns) {
+            return new int[0];
+        }
+        int top = cluster / clusterColumns * clusterSize;
+        int bottom = Math.min(top + clusterSize, rows);
+        int[] crossings = new int[bottom - top];
+        int count = 0;
+        for (int r = top; r < bottom; r++) {
+            int cell = r * columns + col;
+            crossings[count++] = blocked[cell] || blocked[cell + 1] ? NONE : cell;
+        }
+        return pickEntrances(cluster, cluster + 1, 1, crossings, count);
+    }
+
+    /**
+     * Find the entrances on the border between a cluster and the one below it. Only upwards triangles move down, so
+     * the moves across the border are every other cell of the bottom row.
+     *
+     * @param cluster the cluster.
+     * @return the cells of the cluster that cross the border, from the left.
+     */
+    private int[] southEntrances(int cluster) {
+        int row = (cluster / clusterColumns + 1) * clusterSize - 1;
+        if (row + 1 >= rows) {
+            return new int[0];
+        }
+        int left = cluster % clusterColumns * clusterSize;
+        int right = Math.min(left + clusterSize, columns);
+        int[] crossings = new int[right - left];
+        int count = 0;
+        for (int c = left; c < right; c++) {
+            if (((row + c) & 1) == 0) { // an upwards triangle, whose vertical neighbour is below.
+                int cell = row * columns + c;
+                crossings[count++] = blocked[cell] || blocked[cell + columns] ? NONE : cell;
+            }
+        }
+        return pickEntrances(cluster, cluster + clusterColumns, columns, crossings, count);
+    }
+
+    /**
+     * Pick the entrances of a border from its possible crossings. Two crossings next to each other are in the same
+     * run only if their cells are connected within the clusters on both sides (on the triangle grid, cells next to each
+     * other along a border are not always neighbours), so that every crossing can be replaced by the entrance of its
+     * run without losing a route.
+     *
+     * @param inside    the cluster the crossings start from.
+     * @param outside   the cluster the crossings move to.
+     * @param move      what the crossings add to the cell index (1 to the right, columns down).
+     * @param crossings the cells crossing the border in order, NONE where the move is not legal.
+     * @param count     the number of possible crossings.
+     * @return the cells picked as entrances.
+     */
+    private int[] pickEntrances(int inside, int outside, int move, int[] crossings, int count) {
+        label(inside, insideAreas);
+        label(outside, outsideAreas);
+        int[] picked = new int[count];
+        int found = 0;
+        int first = 0;
+        while (first < count) {
+            if (crossings[first] == NONE) {
+                first++;
+                continue;
+            }
+            int last = first;
+            while (last + 1 < count && crossings[last + 1] != NONE
+                    && insideAreas[localIndex(crossings[last])] == insideAreas[localIndex(crossings[last + 1])]
+                    && outsideAreas[localIndex(crossings[last] + move)] == outsideAreas[localIndex(crossings[last + 1] + move)]) {
+                last++;
+            }
+            if (last - first + 1 > LONG_RUN) {
+                picked[found++] = crossings[first];
+                picked[found++] = crossings[last];
+            } else {
+                picked[found++] = crossings[(first + last) / 2];
+            }
+            first = last + 1;
+        }
+        return Arrays.copyOf(picked, found);
+    }
+
+    /**
+     * Label the connected areas of sea within a cluster.
+     *
+     * @param cluster the cluster.
+     * @param areas   the array the area of every cell is written to, by position in the cluster.
+     */
+    private void label(int cluster, int[] areas) {
+        Arrays.fill(areas, NONE);
+        int top = cluster / clusterColumns * clusterSize;
+        int left = cluster % clusterColumns * clusterSize;
+        int bottom = Math.min(top + clusterSize, rows);
+        int right = Math.min(left + clusterSize, columns);
+        for (int r = top; r < bottom; r++) {
+            for (int c = left; c < right; c++) {
+                int cell = r * columns + c;
+                if (blocked[cell] || areas[localIndex(cell)] != NONE) {
+                    continue;
+                }
+                // Flood the area of the cell.
+                int head = 0;
+                int tail = 0;
+                areas[localIndex(cell)] = cell;
+                localQueue[tail++] = cell;
+                while (head < tail) {
+                    int found = legalNeighbours(localQueue[head++], adjacent);
+                    for (int i = 0; i < found; i++) {
+                        int next = adjacent[i];
+                        if (clusterOf(next) == cluster && areas[localIndex(next)] == NONE) {
+                            areas[localIndex(next)] = cell;
+                            localQueue[tail++] = next;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the entrances on the east border of a cluster again.
+     *
+     * @param cluster the cluster.
+     * @return true if they moved.
+     */
+    private boolean updateEast(int cluster) {
+        int[] updated = eastEntrances(cluster);
+        boolean moved = !Arrays.equals(updated, east[cluster]);
+        east[cluster] = updated;
+        return moved;
+    }
+
+    /**
+     * Find the entrances on the south border of a cluster again.
+     *
+     * @param cluster the cluster.
+     * @return true if they moved.
+     */
+    private boolean updateSouth(int cluster) {
+        int[] updated = southEntrances(cluster);
+        boolean moved = !Arrays.equals(updated, south[cluster]);
+        south[cluster] = updated;
+        return moved;
+    }
+
+    /**
+     * Collect the nodes of a cluster from the entrances on its four borders, and find the distances between them.
+     *
+     * @param cluster the cluster.
+     */
+    private void buildCluster(int cluster) {
+        int clusterRow = cluster / clusterColumns;
+        int clusterCol = cluster % clusterColumns;
+        int[] nodes = new int[maxEntrances];
+        int count = 0;
+        for (int cell : east[cluster]) {
+            nodes[count++] = cell;
+        }
+        for (int cell : south[cluster]) {
+            nodes[count++] = cell;
+        }
+        if (clusterCol > 0) {
+            for (int cell : east[cluster - 1]) {
+                nodes[count++] = cell + 1;
+            }
+        }
+        if (clusterRow > 0) {
+            for (int cell : south[cluster - clusterColumns]) {
+                nodes[count++] = cell + columns;
+            }
+        }
+        // Sort and drop the cells that are entrances of two borders (the corners).
+        Arrays.sort(nodes, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || nodes[i] != nodes[unique - 1]) {
+                nodes[unique++] = nodes[i];
+            }
+        }
+        nodes = Arrays.copyOf(nodes, unique);
+
+        int[] distance = new int[unique * unique];
+        for (int i = 0; i < unique; i++) {
+            localSearch(cluster, nodes[i], NONE);
+            for (int j = 0; j < unique; j++) {
+                distance[i * unique + j] = localDistances[localIndex(nodes[j])];
+            }
+        }
+        entrances[cluster] = nodes;
+        distances[cluster] = distance;
+        rebuilt++;
+    }
+
+    /**
+     * Get the distances from the cell of the last local search to the nodes of its cluster.
+     *
+     * @param cluster the cluster searched.
+     * @return the distances, NO_ROUTE if a node was not reached.
+     */
+    private int[] nodeDistances(int cluster) {
+        int[] nodes = entrances[cluster];
+        int[] found = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            found[i] = localDistances[localIndex(nodes[i])];
+        }
+        return found;
+    }
+
+    /**
+     * Breadth first search from a cell, using only the moves within its cluster.
+     *
+     * @param cluster the cluster of the cell.
+     * @param from    the cell searched from.
+     * @param target  the cell at which the search stops, or NONE to reach the whole cluster.
+     * @return the distance to the target, NO_ROUTE if it was not reached (or there is none).
+     */
+    private int localSearch(int cluster, int from, int target) {
+        Arrays.fill(localDistances, NO_ROUTE);
+        int head = 0;
+        int tail = 0;
+        localDistances[localIndex(from)] = 0;
+        localParents[localIndex(from)] = NONE;
+        localQueue[tail++] = from;
+        while (head < tail) {
+            int cell = localQueue[head++];
+            int distance = localDistances[localIndex(cell)];
+            if (cell == target) {
+                return distance;
+            }
+            localExpanded++;
+            int found = legalNeighbours(cell, adjacent);
+            for (int i = 0; i < found; i++) {
+                int next = adjacent[i];
+                if (clusterOf(next) == cluster && localDistances[localIndex(next)] == NO_ROUTE) {
+                    localDistances[localIndex(next)] = distance + 1;
+                    localParents[localIndex(next)] = cell;
+                    localQueue[tail++] = next;
+                }
+            }
+        }
+        return NO_ROUTE;
+    }
+
+    /**
+     * Add the route found by the last local search to a path, from after its first cell up to a cell.
+     *
+     * @param path the path to add the states to.
+     * @param to   the last cell of the route.
+     */
+    private void addLocalPath(ArrayList<Coord> path, int to) {
+        int at = path.size();
+        for (int cell = to; localParents[localIndex(cell)] != NONE; cell = localParents[localIndex(cell)]) {
+            path.add(at, new Coord(cell / columns, cell % columns));
+        }
+    }
+
+    /**
+     * Find the legal neighbours of a cell in the tie breaking order (right, down, left, up).
+     *
+     * @param cell the cell.
+     * @param out  the array the neighbours are written to.
+     * @return the number of neighbours written.
+     */
+    private int legalNeighbours(int cell, int[] out) {
+        return TriangleGraph.adjacentCells(rows, columns, cell, isBlocked, out);
+    }
+
+    /**
+     * Get the cluster of a cell.
+     *
+     * @param cell the cell.
+     * @return the cluster.
+     */
+    private int clusterOf(int cell) {
+        return cell / columns / clusterSize * clusterColumns + cell % columns / clusterSize;
+    }
+
+    /**
+     * Get the position of a cell within its cluster.
+     *
+     * @param cell the cell.
+     * @return the position of the cell, row by row within the cluster.
+     */
+    private int localIndex(int cell) {
+        return (cell / columns % clusterSize) * clusterSize + cell % columns % clusterSize;
+    }
+
+}
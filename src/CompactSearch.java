@@ -0,0 +1,327 @@
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Stack;
+
+/**
+ * The CompactSearch class runs BFS, DFS, BestF and AStar without creating a Node per state. The search tree is kept
+ * in primitive arrays indexed by cell (parent, path cost and status), and the frontier is an int queue (BFS/DFS) or an
+ * indexed int heap (BestF/AStar) following the same tie breaking rules as UninformedSearch and InformedSearch, so the
+ * output is the same. Coord objects are only created when the final path is printed.
+ *
+ * @author 210017984.
+ */
+public class CompactSearch extends Search {
+
+    // Status of a cell in the current search.
+    private static final byte UNSEEN = 0;
+    private static final byte IN_FRONTIER = 1;
+    private static final byte EXPLORED = 2;
+
+    // Search tree, indexed by cell. A cell's entries are only valid if its stamp equals the current search number,
+    // so that the arrays do not need clearing between searches.
+    private TriangleGraph graph;
+    private int[] parent;
+    private float[] pathCosts;
+    private byte[] status;
+    private int[] stamp;
+    private int searchNo = 0;
+    private int exploredCount = 0;
+
+    // Frontier of BFS/DFS: a ring buffer of cells.
+    private int[] queue;
+    private int queueHead = 0;
+    private int queueSize = 0;
+
+    // Frontier of BestF/AStar: a binary heap of cells ordered by F_cost.
+    private FloatCellHeap heap;
+    private HeuristicTable heuristics;
+
+    // Neighbours of the state being expanded, and its successors inserted to the frontier once the expansion is over.
+    private int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+    private int[] successors = new int[TriangleGraph.MAX_NEIGHBOURS];
+
+    /**
+     * Create a compact search instance - BFS and DFS algorithms.
+     *
+     * @param map   the map passed in.
+     * @param start the starting coordinates.
+     * @param goal  the goal coordinates.
+     */
+    public CompactSearch(Grid map, Coord start, Coord goal) {
+        this(map, start, goal, 'M');
+    }
+
+    /**
+     * Create a compact search instance - BFS, DFS, BestF and AStar algorithms.
+     *
+     * @param map       the map passed in.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     */
+    public CompactSearch(Grid map, Coord start, Coord goal, char heuristic) {
+        super(map, start, goal, heuristic);
+        this.graph = getGraph();
+        int cells = graph.getCells();
+        this.parent = new int[cells];
+        this.pathCosts = new float[cells];
+        this.status = new byte[cells];
+        this.stamp = new int[cells];
+    }
+
+    /**
+     * Check if BestF or AStar is used.
+     *
+     * @return true if the algorithm is informed, false otherwise.
+     */
+    private boolean isInformed() {
+        return getAlgo().equals("BestF") || getAlgo().equals("AStar");
+    }
+
+    /**
+     * Loop and explore the frontier. If goal is found, its path, cost, and explored nodes are printed.
+     * Otherwise, it continues exploring the frontier until its empty.
+     *
+     * @param initialNode the initial node, only used for its state.
+     */
+    @Override
+    public void loopFrontier(Node initialNode) {
+        if (!isInformed() && !getAlgo().equals("BFS") && !getAlgo().equals("DFS")) {
+            throw new IllegalArgumentException("CompactSearch supports BFS, DFS, BestF and AStar, not " + getAlgo());
+        }
+        startNewSearch();
+
+        int goalCell = cellIndex(getGoal());
+        int startCell = cellIndex(initialNode.getState());
+        reach(startCell, -1, 0);
+        push(startCell);
+
+        // While the frontier is not empty, loop through it.
+        while (frontierSize() > 0) {
+            printCompactFrontier(); // print frontier.
+
+            int current = pop(); // Remove first cell from frontier.
+            status[current] = EXPLORED; // Add current cell to explored.
+            exploredCount++;
+
+            if (current == goalCell) {
+                setFoundSolution(true);
+                printOutput(current); // print the final goal output.
+                break;
+            } else {
+                expand(current);
+            }
+        }
+    }
+
+    /**
+     * Start a new search, invalidating the entries of the previous one.
+     */
+    private void startNewSearch() {
+        searchNo++;
+        if (searchNo == 0) {
+            // The stamps wrapped around, so clear them once.
+            Arrays.fill(stamp, 0);
+            searchNo = 1;
+        }
+        graph = getGraph(); // the graph of the map after the tides set before setQuery.
+        exploredCount = 0;
+        getSolution().clear();
+        queueHead = 0;
+        queueSize = 0;
+        if (isInformed()) {
+            heuristics = HeuristicTable.of(graph, getGoal(), getHeuristic(), getLandmarks());
+        }
+        if (isInformed() && heap == null) {
+            heap = new FloatCellHeap(graph.getCells());
+        } else if (isInformed()) {
+            heap.clear();
+        } else if (queue == null) {
+            queue = new int[graph.getCells()];
+        }
+    }
+
+    /**
+     * Get the status of a cell in the current search.
+     *
+     * @param cell the cell.
+     * @return UNSEEN, IN_FRONTIER or EXPLORED.
+     */
+    private byte statusOf(int cell) {
+        return stamp[cell] == searchNo ? status[cell] : UNSEEN;
+    }
+
+    /**
+     * Record how a cell was reached in the current search.
+     *
+     * @param cell     the cell reached.
+     * @param from     the parent cell (-1 for the start).
+     * @param pathCost the cost of the path to the cell.
+     */
+    private void reach(int cell, int from, float pathCost) {
+        stamp[cell] = searchNo;
+        parent[cell] = from;
+        pathCosts[cell] = pathCost;
+        status[cell] = IN_FRONTIER;
+    }
+
+    /**
+     * Get the F_cost of a cell depending on the algorithm used.
+     *
+     * @param cell the cell.
+     * @return the F_cost of the cell.
+     */
+    private float fCost(int cell) {
+        float h = heuristics.get(cell);
+        return getAlgo().equals("AStar") ? h + pathCosts[cell] : h;
+    }
+
+    /**
+     * Expand a cell, adding its suitable successors to the frontier. Mirrors addSuitableSuccessors and insertAll of
+     * UninformedSearch and InformedSearch.
+     *
+     * @param cell the cell to be expanded.
+     */
+    private void expand(int cell) {
+        int count = 0;
+        float pathCost = pathCosts[cell] + 1;
+
+        int found = graph.neighbours(cell, neighbours);
+        for (int i = 0; i < found; i++) {
+            int next = neighbours[i];
+            byte nextStatus = statusOf(next);
+
+            if (nextStatus == UNSEEN) {
+                successors[count++] = next;
+            } else if (nextStatus == IN_FRONTIER && getAlgo().equals("AStar") && pathCosts[next] > pathCost) {
+                // replace the cell in the frontier with the new path with the lower path cost.
+                reach(next, cell, pathCost);
+                heap.update(next, fCost(next));
+            }
+        }
+
+        if (getAlgo().equals("DFS")) {
+            // Add the successors first, in reverse, so that they are removed in the tie breaking order.
+            for (int i = count - 1; i >= 0; i--) {
+                reach(successors[i], cell, pathCost);
+                queueHead = (queueHead + queue.length - 1) % queue.length;
+                queue[queueHead] = successors[i];
+                queueSize++;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                reach(successors[i], cell, pathCost);
+                push(successors[i]);
+            }
+        }
+    }
+
+    /**
+     * Get the number of cells in the frontier.
+     *
+     * @return the size of the frontier.
+     */
+    private int frontierSize() {
+        return isInformed() ? heap.size() : queueSize;
+    }
+
+    /**
+     * Insert a cell last in the queue, or in the heap depending on the algorithm.
+     *
+     * @param cell the cell to be inserted.
+     */
+    private void push(int cell) {
+        if (isInformed()) {
+            heap.push(cell, fCost(cell));
+        } else {
+            queue[(queueHead + queueSize) % queue.length] = cell;
+            queueSize++;
+        }
+    }
+
+    /**
+     * Remove the first cell of the frontier.
+     *
+     * @return the cell removed.
+     */
+    private int pop() {
+        if (!isInformed()) {
+            int cell = queue[queueHead];
+            queueHead = (queueHead + 1) % queue.length;
+            queueSize--;
+            return cell;
+        }
+        return heap.pop();
+    }
+
+    /**
+     * Get the coordinates of a cell as printed, e.g. (1,2).
+     *
+     * @param cell the cell.
+     * @return the coordinates of the cell.
+     */
+    private String cellToString(int cell) {
+        return "(" + cell / graph.getColumns() + "," + cell % graph.getColumns() + ")";
+    }
+
+    /**
+     * Print all the states currently in the frontier, in the same format as UninformedSearch and InformedSearch.
+     */
+    private void printCompactFrontier() {
+        if (!isPrint()) {
+            return;
+        }
+        StringBuilder line = new StringBuilder("[");
+        if (isInformed()) {
+            DecimalFormat df = new DecimalFormat("0.0");
+            for (int i = 0; i < heap.size(); i++) {
+                line.append(i > 0 ? "," : "").append(cellToString(heap.cellAt(i))).append(":").append(df.format(heap.keyAt(i)));
+            }
+        } else {
+            for (int i = 0; i < queueSize; i++) {
+                line.append(i > 0 ? "," : "").append(cellToString(queue[(queueHead + i) % queue.length]));
+            }
+        }
+        System.out.println(line.append("]"));
+    }
+
+    /**
+     * Print final output (when goal cell is reached). The Coord objects of the path are only created here.
+     *
+     * @param cell the goal cell from which we get the path to the start.
+     */
+    private void printOutput(int cell) {
+        pathCost = pathCosts[cell];
+        nodesExplored = exploredCount;
+
+        Stack<Coord> pathStates = new Stack<>();
+        for (int c = cell; c != -1; c = parent[c]) {
+            pathStates.push(new Coord(c / graph.getColumns(), c % graph.getColumns()));
+        }
+        // The start is at the top of the stack, so the path from start to goal is the stack in reverse.
+        for (int i = pathStates.size() - 1; i >= 0; i--) {
+            getSolution().add(pathStates.get(i));
+        }
+
+        // if print flag is true, print the output.
+        if (isPrint()) {
+            // Print path, path cost, and number of nodes explored.
+            while (!pathStates.isEmpty()) {
+                System.out.print(pathStates.pop());
+            }
+            System.out.println("\n" + pathCost); // Print path cost.
+            System.out.println(nodesExplored); // Print nodes explored.
+        }
+    }
+
+    /**
+     * If the search could not find a solution, print fail message and the number of explored cells.
+     */
+    @Override
+    public void failure() {
+        nodesExplored = exploredCount;
+        super.failure();
+    }
+
+}
@@ -0,0 +1,196 @@
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The ConcurrentBidirectionalSearch class runs the two breadth first searches of BIDIRECTIONAL at the same time, the
+ * search from the start on the calling thread and the search from the goal on a thread of a pool shared by every query,
+ * so that no thread is created per query. The searches share one lock-free array giving the owner of every cell: a
+ * search claims a cell with a compare-and-set before adding it to its frontier, so every cell belongs to at most one
+ * search. As soon as a search finds that a neighbour of the state it is expanding is owned by the other search, the two
+ * search trees are joined there and both searches stop. A search that runs out of states does not stop the other one,
+ * which may still meet its cells (a start on an island or tide is never a neighbour of a legal cell, so only the search
+ * from the start can see the meeting), so there is no route only once both searches ran out of states.
+ *
+ * Like BidirectionalSearch, the search stops on the first meeting, so the route found is legal but is not always the
+ * shortest. As the two threads are not synchronised, the route and the number of nodes explored can change from one
+ * run to the next; BidirectionalSearch remains the deterministic version.
+ *
+ * @author 210017984.
+ */
+public class ConcurrentBidirectionalSearch extends Search {
+
+    // Owner of a cell in the shared array. 0 means the cell was not claimed yet.
+    private static final int[] OWNER = {1, 2};
+
+    // Runs the searches from the goal. Its threads are daemons, so they do not keep the program running, and are
+    // dropped after a minute without a query.
+    private static final ExecutorService BACKWARD = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "bidirectional-backward");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Initialise variables. Index 0 is the search from the start, index 1 the search from the goal.
+    private TriangleGraph graph;
+    private AtomicIntegerArray owners;
+    private int[][] parent = new int[2][]; // only written by the thread of each search.
+    private int[] explored = new int[2];
+    private volatile boolean stop; // set once the searches met.
+    private final AtomicBoolean met = new AtomicBoolean();
+    private int[] meeting = new int[2]; // the two neighbouring cells where the searches met, one per search.
+
+    /**
+     * Create a concurrent bidirectional search instance.
+     *
+     * @param map   the map passed in.
+     * @param start the starting coordinates.
+     * @param goal  the goal coordinates.
+     */
+    public ConcurrentBidirectionalSearch(Grid map, Coord start, Coord goal) {
+        super(map, start, goal);
+        this.graph = getGraph();
+    }
+
+    /**
+     * Run the two searches, the second one on the shared pool, and join their search trees if they met.
+     *
+     * @param initialNode the initial node, only used for its state.
+     */
+    @Override
+    public void loopFrontier(Node initialNode) {
+        int cells = graph.getCells();
+        owners = new AtomicIntegerArray(cells);
+        parent[0] = new int[cells];
+        parent[1] = new int[cells];
+        stop = false;
+        met.set(false);
+        getSolution().clear();
+
+        // Claim the roots before the threads start, so that neither search can take the root of the other.
+        int startCell = cellIndex(initialNode.getState());
+        int goalCell = cellIndex(getGoal());
+        owners.set(startCell, OWNER[0]);
+        parent[0][startCell] = -1;
+        if (startCell == goalCell) {
+            meeting[0] = startCell;
+            meeting[1] = -1;
+            explored[0] = 1;
+            explored[1] = 0;
+            met.set(true);
+        } else {
+            owners.set(goalCell, OWNER[1]);
+            parent[1][goalCell] = -1;
+            Future<?> backward = BACKWARD.submit(() -> search(1, goalCell));
+            search(0, startCell);
+            try {
+                backward.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop = true;
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("The search from the goal failed.", e.getCause());
+            }
+        }
+
+        if (met.get()) {
+            setFoundSolution(true);
+            printOutput();
+        }
+    }
+
+    /**
+     * Run the breadth first search of one side until the searches meet or it runs out of states. Running out of states
+     * does not stop the other side.
+     *
+     * @param side the side searching (0 from the start, 1 from the goal).
+     * @param root the cell the side starts from, already claimed by it.
+     */
+    private void search(int side, int root) {
+        int other = OWNER[1 - side];
+        int[] tree = parent[side];
+        int[] queue = new int[graph.getCells()]; // every cell is queued at most once.
+        int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+        int head = 0;
+        int tail = 0;
+        int count = 0;
+
+        queue[tail++] = root;
+
+        while (head < tail && !stop) {
+            int cell = queue[head++];
+            count++;
+            int found = graph.neighbours(cell, neighbours);
+            for (int i = 0; i < found; i++) {
+                int next = neighbours[i];
+                if (owners.compareAndSet(next, 0, OWNER[side])) {
+                    tree[next] = cell;
+                    queue[tail++] = next;
+                } else if (owners.get(next) == other) {
+                    // The other search owns the neighbour: join the two search trees through this edge.
+                    if (met.compareAndSet(false, true)) {
+                        meeting[side] = cell;
+                        meeting[1 - side] = next;
+                    }
+                    stop = true;
+                    break;
+                }
+            }
+        }
+        explored[side] = count;
+    }
+
+    /**
+     * Record and print the final output: the route from the start to the meeting cell of the first search (following
+     * its tree back), then from the meeting cell of the second search on to the goal.
+     */
+    private void printOutput() {
+        ArrayList<Coord> path = getSolution();
+        for (int c = meeting[0]; c != -1; c = parent[0][c]) {
+            path.add(coordOf(c));
+        }
+        for (int i = 0, j = path.size() - 1; i < j; i++, j--) {
+            path.set(i, path.set(j, path.get(i)));
+        }
+        for (int c = meeting[1]; c != -1; c = parent[1][c]) {
+            path.add(coordOf(c));
+        }
+
+        pathCost = path.size() - 1;
+        nodesExplored = explored[0] + explored[1];
+
+        // if print flag is true, print the output.
+        if (isPrint()) {
+            for (Coord state : path) {
+                System.out.print(state);
+            }
+            System.out.println("\n" + pathCost); // Print path cost.
+            System.out.println(nodesExplored); // Print nodes explored.
+        }
+    }
+
+    /**
+     * Get the coordinates of a cell.
+     *
+     * @param cell the cell.
+     * @return the coordinates of the cell.
+     */
+    private Coord coordOf(int cell) {
+        return new Coord(cell / graph.getColumns(), cell % graph.getColumns());
+    }
+
+    /**
+     * If the search could not find a solution, print fail message and the number of explored states.
+     */
+    @Override
+    public void failure() {
+        nodesExplored = explored[0] + explored[1];
+        super.failure();
+    }
+
+}
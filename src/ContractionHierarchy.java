@@ -0,0 +1,561 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A contraction hierarchy (by Geisberger, Sanders, Schultes and Delling) of the graph of legal moves of a map, for maps
+ * that rarely change but are queried many times (see CHSearch). The sea cells are contracted one by one, least
+ * important first: a contracted cell is taken out of the graph, and wherever the shortest route between two of its
+ * neighbours went through it, a shortcut joining them (with the cost of that route) is added. A route is kept if a
+ * short search between the neighbours (the witness search) finds no other route at most as long.
+ *
+ * The cell contracted next is the one with the lowest priority: twice the difference between the shortcuts its
+ * contraction adds and the edges it removes, plus how many of its neighbours were contracted already (so that
+ * contractions spread over the map). The priority is recomputed when a cell is picked, and the cell is put back if it
+ * is no longer the lowest.
+ *
+ * Only the upward edges are kept: from every cell, the moves and shortcuts to the cells contracted after it. A shortest
+ * route always goes up the hierarchy and then down, so a query searches up from both ends (every move can be made both
+ * ways). A shortcut keeps the cell it skips, so that routes can be unpacked into moves.
+ *
+ * File format (big-endian):
+ * int magic ("TCH "), int version (1), int rows, int columns, long fingerprint of the map, int number of edges, the
+ * index of the first edge of every cell and one past the last cell (int), then the target, cost and skipped cell (or
+ * -1) of every edge (int each).
+ *
+ * Build and save the hierarchy of a map with
+ * java ContractionHierarchy <ConfID|path/to/map> <path/to/file.ch>
+ *
+ * @author 210017984.
+ */
+public class ContractionHierarchy {
+
+    /**
+     * The file extension of saved hierarchies, added to the path of the map.
+     */
+    public static final String EXTENSION = ".ch";
+
+    /**
+     * The most cells settled by a witness search. Lower limits build faster but add more shortcuts.
+     */
+    public static final int WITNESS_LIMIT = 100;
+
+    /**
+     * The cell skipped by an edge that is a move, not a shortcut.
+     */
+    public static final int NONE = -1;
+
+    private static final int MAGIC = 0x54434820; // "TCH "
+    private static final int VERSION = 1;
+
+    // Initialise variables.
+    private final int rows;
+    private final int columns;
+    private final long fingerprint;
+    private final int[] firstEdge; // the upward edges of a cell are firstEdge[cell] to firstEdge[cell + 1] - 1.
+    private final int[] targets;
+    private final int[] costs;
+    private final int[] skipped; // the cell a shortcut skips, NONE for a move.
+
+    /**
+     * Create a hierarchy from its parts.
+     *
+     * @param rows        the rows of the map.
+     * @param columns     the columns of the map.
+     * @param fingerprint the fingerprint of the map.
+     * @param firstEdge   the index of the first upward edge of every cell, and the number of edges.
+     * @param targets     the cell every edge goes to.
+     * @param costs       the cost of every edge.
+     * @param skipped     the cell every edge skips.
+     */
+    private ContractionHierarchy(int rows, int columns, long fingerprint, int[] firstEdge, int[] targets, int[] costs,
+                                 int[] skipped) {
+        this.rows = rows;
+        this.columns = columns;
+        this.fingerprint = fingerprint;
+        this.firstEdge = firstEdge;
+        this.targets = targets;
+        this.costs = costs;
+        this.skipped = skipped;
+    }
+
+    /**
+     * The state of the graph while it is contracted.
+     */
+    private static class Contraction {
+        private final int[][] neighbour; // the edges of every cell to the cells not contracted yet.
+        private final int[][] cost;
+        private final int[][] skip;
+        private final int[] degree;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbours;
+
+        // Witness searches, indexed by cell. Distances are only valid if the stamp equals the current search number.
+        private final int[] distance;
+        private final int[] stamp;
+        private final CellHeap heap;
+        private int searchNo = 0;
+
+        // Upward edges, in the order the cells were contracted.
+        private int[] upTargets = new int[1024];
+        private int[] upCosts = new int[1024];
+        private int[] upSkipped = new int[1024];
+        private final int[] upFirst;
+        private final int[] upCount;
+        private int edges = 0;
+
+        /**
+         * Set up the contraction of a graph.
+         *
+         * @param graph the graph of the map.
+         */
+        private Contraction(TriangleGraph graph) {
+            int cells = graph.getCells();
+            neighbour = new int[cells][];
+            cost = new int[cells][];
+            skip = new int[cells][];
+            degree = new int[cells];
+            contracted = new boolean[cells];
+            contractedNeighbours = new int[cells];
+            distance = new int[cells];
+            stamp = new int[cells];
+            heap = new CellHeap(cells);
+            upFirst = new int[cells];
+            upCount = new int[cells];
+
+            int[] out = new int[TriangleGraph.MAX_NEIGHBOURS];
+            for (int cell = 0; cell < cells; cell++) {
+                int found = graph.isLegal(cell / graph.getColumns(), cell % graph.getColumns()) ? graph.neighbours(cell, out) : 0;
+                neighbour[cell] = Arrays.copyOf(out, Math.max(found, 4));
+                cost[cell] = new int[neighbour[cell].length];
+                skip[cell] = new int[neighbour[cell].length];
+                Arrays.fill(cost[cell], 0, found, 1);
+                Arrays.fill(skip[cell], 0, found, NONE);
+                degree[cell] = found;
+            }
+        }
+
+        /**
+         * Get the priority of a cell: twice (the shortcuts its contraction would add minus the edges it removes), plus
+         * its contracted neighbours.
+         *
+         * @param cell the cell.
+         * @return the priority.
+         */
+        private int priority(int cell) {
+            return 2 * (contract(cell, false) - degree[cell]) + contractedNeighbours[cell];
+        }
+
+        /**
+         * Find the shortcuts needed to contract a cell, and add them and contract it if asked to.
+         *
+         * @param cell   the cell.
+         * @param really true to contract the cell, false to only count the shortcuts.
+         * @return the number of shortcuts needed.
+         */
+        private int contract(int cell, boolean really) {
+            int count = degree[cell];
+            int[] around = Arrays.copyOf(neighbour[cell], count); // the lists change as shortcuts are added.
+            int[] through = Arrays.copyOf(cost[cell], count);
+            int added = 0;
+            for (int i = 0; i < count; i++) {
+                int highest = 0;
+                for (int j = i + 1; j < count; j++) {
+                    highest = Math.max(highest, through[i] + through[j]);
+                }
+                if (highest == 0) {
+                    continue;
+                }
+                witnessSearch(around[i], cell, highest);
+                for (int j = i + 1; j < count; j++) {
+                    int shortcut = through[i] + through[j];
+                    if (stamp[around[j]] != searchNo || distance[around[j]] > shortcut) {
+                        added++;
+                        if (really) {
+                            addEdge(around[i], around[j], shortcut, cell);
+                            addEdge(around[j], around[i], shortcut, cell);
+                        }
+                    }
+                }
+            }
+            if (really) {
+                // The edges left are the upward edges of the cell.
+                upFirst[cell] = edges;
+                upCount[cell] = count;
+                for (int i = 0; i < count; i++) {
+                    addUpward(around[i], through[i], skip[cell][i]);
+                    removeEdge(around[i], cell);
+                    contractedNeighbours[around[i]]++;
+                }
+                contracted[cell] = true;
+                degree[cell] = 0;
+            }
+            return added;
+        }
+
+        /**
+         * Find the distances from a cell to the cells around it without going through the cell being contracted,
+         * up to a cost and WITNESS_LIMIT settled cells.
+         *
+         * @param source   the cell searched from.
+         * @param excluded the cell being contracted.
+         * @param limit    the highest distance that matters.
+         */
+        private void witnessSearch(int source, int excluded, int limit) {
+            searchNo++;
+            if (searchNo == 0) {
+                // The stamps wrapped around, so clear them once.
+                Arrays.fill(stamp, 0);
+                searchNo = 1;
+            }
+            heap.clear();
+            stamp[source] = searchNo;
+            distance[source] = 0;
+            heap.push(source, 0);
+            int settled = 0;
+            while (!heap.isEmpty() && settled < WITNESS_LIMIT) {
+                int cell = heap.pop();
+                settled++;
+                if (distance[cell] >= limit) {
+                    break;
+                }
+                for (int i = 0; i < degree[cell]; i++) {
+                    int next = neighbour[cell][i];
+                    int reached = distance[cell] + cost[cell][i];
+                    if (next == excluded || reached > limit) {
+                        continue;
+                    }
+                    if (stamp[next] != searchNo) {
+                        stamp[next] = searchNo;
+                        distance[next] = reached;
+                        heap.push(next, reached);
+                    } else if (reached < distance[next] && heap.contains(next)) {
+                        distance[next] = reached;
+                        heap.update(next, reached);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Add an edge, or lower the cost of the edge if it is there already with a higher cost.
+         *
+         * @param from     the cell the edge starts from.
+         * @param to       the cell the edge goes to.
+         * @param edgeCost the cost of the edge.
+         * @param skipping the cell the edge skips.
+         */
+        private void addEdge(int from, int to, int edgeCost, int skipping) {
+            for (int i = 0; i < degree[from]; i++) {
+                if (neighbour[from][i] == to) {
+                    if (edgeCost < cost[from][i]) {
+                        cost[from][i] = edgeCost;
+                        skip[from][i] = skipping;
+                    }
+                    return;
+                }
+            }
+            if (degree[from] == neighbour[from].length) {
+                int grown = degree[from] * 2;
+                neighbour[from] = Arrays.copyOf(neighbour[from], grown);
+                cost[from] = Arrays.copyOf(cost[from], grown);
+                skip[from] = Arrays.copyOf(skip[from], grown);
+            }
+            neighbour[from][degree[from]] = to;
+            cost[from][degree[from]] = edgeCost;
+            skip[from][degree[from]] = skipping;
+            degree[from]++;
+        }
+
+        /**
+         * Remove the edge of a cell to a contracted cell.
+         *
+         * @param from the cell the edge starts from.
+         * @param to   the contracted cell.
+         */
+        private void removeEdge(int from, int to) {
+            for (int i = 0; i < degree[from]; i++) {
+                if (neighbour[from][i] == to) {
+                    int last = --degree[from];
+                    neighbour[from][i] = neighbour[from][last];
+                    cost[from][i] = cost[from][last];
+                    skip[from][i] = skip[from][last];
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Keep an upward edge of the cell being contracted.
+         *
+         * @param target   the cell the edge goes to.
+         * @param edgeCost the cost of the edge.
+         * @param skipping the cell the edge skips.
+         */
+        private void addUpward(int target, int edgeCost, int skipping) {
+            if (edges == upTargets.length) {
+                upTargets = Arrays.copyOf(upTargets, edges * 2);
+                upCosts = Arrays.copyOf(upCosts, edges * 2);
+                upSkipped = Arrays.copyOf(upSkipped, edges * 2);
+            }
+            upTargets[edges] = target;
+            upCosts[edges] = edgeCost;
+            upSkipped[edges] = skipping;
+            edges++;
+        }
+    }
+
+    /**
+     * Build the contraction hierarchy of a map.
+     *
+     * @param map the map.
+     * @return the hierarchy.
+     */
+    public static ContractionHierarchy build(Grid map) {
+        TriangleGraph graph = map.getGraph();
+        int cells = graph.getCells();
+        Contraction contraction = new Contraction(graph);
+
+        // Order the sea cells by priority, and contract the lowest one until all are contracted.
+        CellHeap order = new CellHeap(cells);
+        for (int cell = 0; cell < cells; cell++) {
+            if (graph.isLegal(cell / graph.getColumns(), cell % graph.getColumns())) {
+                order.push(cell, contraction.priority(cell));
+            }
+        }
+        while (!order.isEmpty()) {
+            int cell = order.pop();
+            int priority = contraction.priority(cell);
+            if (!order.isEmpty() && priority > order.peekKey()) {
+                order.push(cell, priority); // its neighbours changed since it was queued.
+                continue;
+            }
+            contraction.contract(cell, true);
+        }
+
+        // Lay the upward edges out cell by cell.
+        int[] firstEdge = new int[cells + 1];
+        for (int cell = 0; cell < cells; cell++) {
+            firstEdge[cell + 1] = firstEdge[cell] + contraction.upCount[cell];
+        }
+        int edges = firstEdge[cells];
+        int[] targets = new int[edges];
+        int[] costs = new int[edges];
+        int[] skipped = new int[edges];
+        for (int cell = 0; cell < cells; cell++) {
+            System.arraycopy(contraction.upTargets, contraction.upFirst[cell], targets, firstEdge[cell], contraction.upCount[cell]);
+            System.arraycopy(contraction.upCosts, contraction.upFirst[cell], costs, firstEdge[cell], contraction.upCount[cell]);
+            System.arraycopy(contraction.upSkipped, contraction.upFirst[cell], skipped, firstEdge[cell], contraction.upCount[cell]);
+        }
+        return new ContractionHierarchy(graph.getRows(), graph.getColumns(), LandmarkTable.fingerprint(graph), firstEdge,
+                targets, costs, skipped);
+    }
+
+    /**
+     * Get the index of the first upward edge of a cell.
+     *
+     * @param cell the cell.
+     * @return the index of its first edge.
+     */
+    public int firstEdge(int cell) {
+        return firstEdge[cell];
+    }
+
+    /**
+     * Get the index one past the last upward edge of a cell.
+     *
+     * @param cell the cell.
+     * @return the index after its last edge.
+     */
+    public int endEdge(int cell) {
+        return firstEdge[cell + 1];
+    }
+
+    /**
+     * Get the cell an edge goes to.
+     *
+     * @param edge the index of the edge.
+     * @return the target cell.
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Get the cost of an edge.
+     *
+     * @param edge the index of the edge.
+     * @return the cost.
+     */
+    public int cost(int edge) {
+        return costs[edge];
+    }
+
+    /**
+     * Get the cell a shortcut skips.
+     *
+     * @param edge the index of the edge.
+     * @return the skipped cell, NONE if the edge is a move.
+     */
+    public int skipped(int edge) {
+        return skipped[edge];
+    }
+
+    /**
+     * Get the cell a shortcut between two cells skips. The skipped cell was contracted before both.
+     *
+     * @param lower the cell contracted first.
+     * @param upper the other cell.
+     * @return the skipped cell, NONE if the edge is a move.
+     */
+    public int skipped(int lower, int upper) {
+        for (int edge = firstEdge[lower]; edge < firstEdge[lower + 1]; edge++) {
+            if (targets[edge] == upper) {
+                return skipped[edge];
+            }
+        }
+        throw new IllegalStateException("No edge from " + lower + " up to " + upper + ".");
+    }
+
+    /**
+     * Get the number of cells of the map.
+     *
+     * @return the number of cells.
+     */
+    public int getCells() {
+        return rows * columns;
+    }
+
+    /**
+     * Get the number of columns of the map.
+     *
+     * @return the number of columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the number of upward edges (moves and shortcuts).
+     *
+     * @return the number of edges.
+     */
+    public int getEdges() {
+        return targets.length;
+    }
+
+    /**
+     * Save the hierarchy to a file.
+     *
+     * @param file the path of the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            out.writeInt(columns);
+            out.writeLong(fingerprint);
+            out.writeInt(targets.length);
+            for (int first : firstEdge) {
+                out.writeInt(first);
+            }
+            for (int edge = 0; edge < targets.length; edge++) {
+                out.writeInt(targets[edge]);
+                out.writeInt(costs[edge]);
+                out.writeInt(skipped[edge]);
+            }
+        }
+    }
+
+    /**
+     * Load a hierarchy saved for a map.
+     *
+     * @param file the path of the file.
+     * @param map  the map the hierarchy was saved for.
+     * @return the hierarchy.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a hierarchy file, or was saved for another map.
+     */
+    public static ContractionHierarchy load(Path file, Grid map) throws IOException {
+        TriangleGraph graph = map.getGraph();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalArgumentException(file + ": not a contraction hierarchy file");
+            }
+            int rows = in.readInt();
+            int columns = in.readInt();
+            long fingerprint = in.readLong();
+            if (rows != graph.getRows() || columns != graph.getColumns() || fingerprint != LandmarkTable.fingerprint(graph)) {
+                throw new IllegalArgumentException(file + ": the hierarchy was saved for another map");
+            }
+            int edges = in.readInt();
+            int[] firstEdge = new int[rows * columns + 1];
+            for (int i = 0; i < firstEdge.length; i++) {
+                firstEdge[i] = in.readInt();
+            }
+            int[] targets = new int[edges];
+            int[] costs = new int[edges];
+            int[] skipped = new int[edges];
+            for (int edge = 0; edge < edges; edge++) {
+                targets[edge] = in.readInt();
+                costs[edge] = in.readInt();
+                skipped[edge] = in.readInt();
+            }
+            return new ContractionHierarchy(rows, columns, fingerprint, firstEdge, targets, costs, skipped);
+        }
+    }
+
+    /**
+     * Get the hierarchy of a map: loaded from the hierarchy file next to the map file if there is one, otherwise built.
+     *
+     * @param map     the map.
+     * @param mapPath the path of the map file, or null for a configuration.
+     * @return the hierarchy.
+     * @throws IOException if the hierarchy file exists but cannot be read.
+     */
+    public static ContractionHierarchy forMap(Grid map, String mapPath) throws IOException {
+        if (mapPath != null) {
+            Path file = Paths.get(mapPath + EXTENSION);
+            if (Files.exists(file)) {
+                return load(file, map);
+            }
+        }
+        return build(map);
+    }
+
+    /**
+     * Build the contraction hierarchy of a map and save it.
+     *
+     * @param args the map (configuration ID or path) and the file to save to.
+     */
+    public static void main(String[] args) {
+        //Example: java ContractionHierarchy ../maps/harbour.txt ../maps/harbour.txt.ch
+
+        if (args.length != 2) {
+            System.out.println("Please run the builder like this: java ContractionHierarchy <ConfID|map> <file.ch>");
+            System.exit(-1);
+        }
+        try {
+            Grid map;
+            if (A1main.isConf(args[0])) {
+                map = Conf.valueOf(args[0]).getMap();
+            } else {
+                map = A1main.loadMap(args[0], new ArrayList<>());
+            }
+            build(map).save(Paths.get(args[1]));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Could not build the contraction hierarchy: " + e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+}
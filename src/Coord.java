@@ -40,6 +40,11 @@ public class Coord {
 
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * r + c;
+    }
+
 
     /**
      * Get if a triangle is upwards or downwards facing.
@@ -47,6 +52,17 @@ public class Coord {
      * @return 1 if triangle is downwards pointing, 0 otherwise.
      */
     public int getTriangleDirection() {
+        return getTriangleDirection(r, c);
+    }
+
+    /**
+     * Get if the triangle of a cell is upwards or downwards facing, without creating a Coord.
+     *
+     * @param r the row of the cell.
+     * @param c the column of the cell.
+     * @return 1 if triangle is downwards pointing, 0 otherwise.
+     */
+    public static int getTriangleDirection(int r, int c) {
         int downwards; // flag to determine if triangle faces upwards or downwards.
 
         // if row and column have modulo of 0 with 2, then the arrow is upwards facing.
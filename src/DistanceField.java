@@ -0,0 +1,192 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The distance of every cell of a map to one goal, with the next move of a shortest route from each cell. It is built
+ * by a single breadth first search from the goal (every move costs 1, and a cell can move to a neighbour exactly when
+ * the neighbour can move back, so searching from the goal gives the distances to the goal). Afterwards, the route from
+ * any start is answered by following the next moves, in time proportional to the length of the route.
+ *
+ * Like the flat searches, a route never moves to a goal on an island or tide (only a start on the goal reaches it), but
+ * a start on one can move to its legal neighbours.
+ *
+ * The field is only valid for the version of the map it was built on (see Grid.getVersion).
+ *
+ * @author 210017984.
+ */
+public class DistanceField {
+
+    // Next move of a cell towards the goal.
+    private static final byte NONE = 0; // the goal, or a cell that cannot reach it.
+    private static final byte RIGHT = 1;
+    private static final byte LEFT = 2;
+    private static final byte VERTICAL = 3; // up from a downwards triangle, down from an upwards one.
+
+    // Initialise variables.
+    private final int version;
+    private final TriangleGraph graph;
+    private final int columns;
+    private final int goal;
+    private final int[] distance; // distance of every cell to the goal, -1 if it cannot reach it.
+    private final byte[] moves; // next move of every cell towards the goal.
+    private final int reached;
+
+    /**
+     * Build the distance field of a goal.
+     *
+     * @param map  the map.
+     * @param goal the goal coordinates.
+     */
+    public DistanceField(Grid map, Coord goal) {
+        this.version = map.getVersion(); // read first, so that a tide set while building makes the field stale.
+        this.graph = map.getGraph();
+        this.columns = graph.getColumns();
+        this.goal = graph.cellIndex(goal);
+        this.distance = new int[graph.getCells()];
+        this.moves = new byte[graph.getCells()];
+        Arrays.fill(distance, -1);
+
+        // Breadth first search from the goal. The queue holds each cell once, so an array of cells is enough.
+        int[] queue = new int[graph.getCells()];
+        int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+        int head = 0;
+        int tail = 0;
+        distance[this.goal] = 0;
+        queue[tail++] = this.goal;
+
+        // The search only leaves a goal that is not on an island or tide.
+        boolean legalGoal = graph.isLegal(goal.getR(), goal.getC());
+        while (legalGoal && head < tail) {
+            int cell = queue[head++];
+            int found = graph.neighbours(cell, neighbours);
+            for (int i = 0; i < found; i++) {
+                int next = neighbours[i];
+                if (distance[next] == -1) {
+                    distance[next] = distance[cell] + 1;
+                    moves[next] = moveBetween(next, cell);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        this.reached = tail;
+    }
+
+    /**
+     * Get the move from a cell to one of its neighbours.
+     *
+     * @param from the cell moving.
+     * @param to   the neighbour it moves to.
+     * @return RIGHT, LEFT or VERTICAL.
+     */
+    private static byte moveBetween(int from, int to) {
+        if (to == from + 1) {
+            return RIGHT;
+        }
+        return to == from - 1 ? LEFT : VERTICAL;
+    }
+
+    /**
+     * Get the cell reached by following the next move of a cell.
+     *
+     * @param cell the cell.
+     * @return the next cell towards the goal.
+     */
+    private int nextCell(int cell) {
+        switch (moves[cell]) {
+            case RIGHT:
+                return cell + 1;
+            case LEFT:
+                return cell - 1;
+            default:
+                int r = cell / columns;
+                int c = cell % columns;
+                return Coord.getTriangleDirection(r, c) == 1 ? cell - columns : cell + columns;
+        }
+    }
+
+    /**
+     * Get the version of the map the field was built on.
+     *
+     * @return the version of the map.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the number of cells that can reach the goal (including the goal), i.e. the cells explored to build the field.
+     *
+     * @return the number of cells reached.
+     */
+    public int getReached() {
+        return reached;
+    }
+
+    /**
+     * Get the distance from a start to the goal.
+     *
+     * @param start the starting coordinates.
+     * @return the cost of the shortest route, -1 if the goal cannot be reached.
+     */
+    public int getDistance(Coord start) {
+        int cell = start.getR() * columns + start.getC();
+        if (distance[cell] != -1) {
+            return distance[cell];
+        }
+        int exit = islandExit(cell);
+        return exit == -1 ? -1 : distance[exit] + 1;
+    }
+
+    /**
+     * Get the first move of a start that the search from the goal did not reach because it is on an island or tide,
+     * as legal cells never move onto one. Like in the flat searches, such a start can still move to its legal
+     * neighbours.
+     *
+     * @param cell the start cell.
+     * @return the neighbour closest to the goal (the first one in the tie breaking order), -1 if none reaches it.
+     */
+    private int islandExit(int cell) {
+        if (graph.isLegal(cell / columns, cell % columns)) {
+            return -1;
+        }
+        int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+        int found = graph.neighbours(cell, neighbours);
+        int best = -1;
+        for (int i = 0; i < found; i++) {
+            int next = neighbours[i];
+            if (distance[next] != -1 && (best == -1 || distance[next] < distance[best])) {
+                best = next;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get a shortest route from a start to the goal by following the next moves.
+     *
+     * @param start the starting coordinates.
+     * @return the states of the route from the start to the goal, empty if the goal cannot be reached.
+     */
+    public ArrayList<Coord> route(Coord start) {
+        int cell = start.getR() * columns + start.getC();
+        ArrayList<Coord> path = new ArrayList<>();
+        if (distance[cell] == -1) {
+            int exit = islandExit(cell);
+            if (exit == -1) {
+                return path;
+            }
+            path.add(start);
+            cell = exit;
+            path.add(new Coord(cell / columns, cell % columns));
+        } else {
+            path.add(start);
+        }
+        path.ensureCapacity(path.size() + distance[cell]);
+        while (cell != goal) {
+            cell = nextCell(cell);
+            path.add(new Coord(cell / columns, cell % columns));
+        }
+        return path;
+    }
+
+}
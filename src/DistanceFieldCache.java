@@ -0,0 +1,128 @@
+import java.util.LinkedHashMap;
+
+/**
+ * Keeps the distance fields of the goals of one map, so that every query to the same goal after the first one is
+ * answered without searching. A field is built the first time its goal is asked for, and all the fields are dropped
+ * once the map changes version (i.e. a tide is set). As every field holds 5 bytes per cell, the cache keeps a bounded
+ * number of them: when it is full, the field of the least recently used goal is dropped (the queries still following
+ * it keep it).
+ *
+ * The cache can be used by many threads. A field that misses is built without holding the lock, so two threads missing
+ * the same goal at the same time both build it, and the second one gets the field kept by the first (they are equal).
+ *
+ * @author 210017984.
+ */
+public class DistanceFieldCache {
+
+    /**
+     * The most fields kept if no capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    // Initialise variables.
+    private final Grid map;
+    private final int capacity;
+    // By version and goal, iterated in access order, so the first entry is the least recently used.
+    private final LinkedHashMap<Long, DistanceField> fields = new LinkedHashMap<>(16, 0.75f, true);
+    private int version;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Create an empty cache for a map, keeping at most DEFAULT_CAPACITY fields.
+     *
+     * @param map the map.
+     */
+    public DistanceFieldCache(Grid map) {
+        this(map, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an empty cache for a map.
+     *
+     * @param map      the map.
+     * @param capacity the most fields kept.
+     */
+    public DistanceFieldCache(Grid map, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of the cache must be positive: " + capacity);
+        }
+        this.map = map;
+        this.capacity = capacity;
+        this.version = map.getVersion();
+    }
+
+    /**
+     * Get the distance field of a goal on the current version of the map, building it if it is not cached.
+     *
+     * @param goal the goal coordinates.
+     * @return the distance field of the goal.
+     */
+    public DistanceField get(Coord goal) {
+        Grid snapshot = map.snapshot(); // the field is built and keyed on one version, even if a tide is set meanwhile.
+        int current = snapshot.getVersion();
+        long key = ((long) current << 32) | snapshot.getGraph().cellIndex(goal);
+        synchronized (fields) {
+            if (current != version) {
+                // A tide was set, so the fields of the older versions are no longer valid.
+                version = current;
+                fields.keySet().removeIf(k -> (int) (k >>> 32) != current);
+            }
+            DistanceField field = fields.get(key);
+            if (field != null) {
+                hits++;
+                return field;
+            }
+            misses++;
+        }
+
+        DistanceField field = new DistanceField(snapshot, goal);
+        synchronized (fields) {
+            DistanceField kept = fields.get(key);
+            if (kept != null) {
+                return kept;
+            }
+            if (current == version) { // the field is not kept if a tide was set while it was built.
+                fields.put(key, field);
+                while (fields.size() > capacity) {
+                    fields.remove(fields.keySet().iterator().next());
+                }
+            }
+            return field;
+        }
+    }
+
+    /**
+     * Get the number of goals answered from a cached field.
+     *
+     * @return the number of hits.
+     */
+    public long getHits() {
+        synchronized (fields) {
+            return hits;
+        }
+    }
+
+    /**
+     * Get the number of goals whose field had to be built.
+     *
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        synchronized (fields) {
+            return misses;
+        }
+    }
+
+    /**
+     * Get the number of distance fields cached.
+     *
+     * @return the number of fields.
+     */
+    public int size() {
+        synchronized (fields) {
+            return fields.size();
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+/**
+ * Indexed binary min-heap of cells with float keys, for the searches that keep one entry per cell of a large map and
+ * need no second key (CompactSearch). It takes 12 bytes per cell (the heap, the keys and the slot of every cell),
+ * instead of the 24 of CellHeap. It follows the same sift rules as FrontierHeap (and java.util.PriorityQueue), so ties
+ * among equal keys are broken the same way, and updating the key of a cell is O(log n).
+ *
+ * @author 210017984.
+ */
+public class FloatCellHeap {
+
+    // Initialise heap variables.
+    private final int[] heap;
+    private final float[] keys;
+    private final int[] slot; // heap slot of each cell, only valid while the cell is in the heap.
+    private int size = 0;
+
+    /**
+     * Create an empty heap.
+     *
+     * @param cells the number of cells of the map.
+     */
+    public FloatCellHeap(int cells) {
+        this.heap = new int[cells];
+        this.keys = new float[cells];
+        this.slot = new int[cells];
+    }
+
+    /**
+     * Remove every cell from the heap.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Get the number of cells in the heap.
+     *
+     * @return the size of the heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if the heap is empty.
+     *
+     * @return true if there are no cells in the heap, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Insert a cell that is not in the heap.
+     *
+     * @param cell the cell.
+     * @param key  the key of the cell.
+     */
+    public void push(int cell, float key) {
+        heap[size] = cell;
+        keys[size] = key;
+        slot[cell] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Remove the cell with the lowest key.
+     *
+     * @return the cell removed.
+     */
+    public int pop() {
+        int cell = heap[0];
+        size--;
+        if (size > 0) {
+            moveSlot(size, 0);
+            siftDown(0);
+        }
+        return cell;
+    }
+
+    /**
+     * Change the key of a cell in the heap, moving it to its new place.
+     *
+     * @param cell the cell.
+     * @param key  the new key of the cell.
+     */
+    public void update(int cell, float key) {
+        int at = slot[cell];
+        keys[at] = key;
+        siftUp(at);
+        siftDown(slot[cell]);
+    }
+
+    /**
+     * Get the cell of a heap slot, e.g. to print the heap in its internal order.
+     *
+     * @param at the slot.
+     * @return the cell in the slot.
+     */
+    public int cellAt(int at) {
+        return heap[at];
+    }
+
+    /**
+     * Get the key of a heap slot.
+     *
+     * @param at the slot.
+     * @return the key of the cell in the slot.
+     */
+    public float keyAt(int at) {
+        return keys[at];
+    }
+
+    /**
+     * Move the cell of a heap slot up until its parent has a lower or equal key.
+     *
+     * @param at the slot to sift up.
+     */
+    private void siftUp(int at) {
+        while (at > 0) {
+            int up = (at - 1) >>> 1;
+            if (!(keys[at] < keys[up])) {
+                break;
+            }
+            swapSlots(at, up);
+            at = up;
+        }
+    }
+
+    /**
+     * Move the cell of a heap slot down until both of its children have a higher or equal key.
+     *
+     * @param at the slot to sift down.
+     */
+    private void siftDown(int at) {
+        int half = size >>> 1;
+        while (at < half) {
+            int child = 2 * at + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (!(keys[child] < keys[at])) {
+                break;
+            }
+            swapSlots(at, child);
+            at = child;
+        }
+    }
+
+    /**
+     * Swap the cells of two heap slots.
+     *
+     * @param a the first slot.
+     * @param b the second slot.
+     */
+    private void swapSlots(int a, int b) {
+        int cell = heap[a];
+        float key = keys[a];
+        moveSlot(b, a);
+        heap[b] = cell;
+        keys[b] = key;
+        slot[cell] = b;
+    }
+
+    /**
+     * Move the cell of one heap slot to another slot.
+     *
+     * @param from the slot to move from.
+     * @param to   the slot to move to.
+     */
+    private void moveSlot(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        slot[heap[to]] = to;
+    }
+
+}
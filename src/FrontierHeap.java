@@ -0,0 +1,235 @@
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Indexed binary min-heap used as the frontier of the informed searches. Nodes are ordered by their F_cost, and the
+ * sift rules are the same as java.util.PriorityQueue so ties among equal F_costs are broken as before. The position of
+ * every node in the heap is tracked by the cell index of its state, so lookup is O(1) and insert, poll and
+ * decrease-key are O(log n).
+ *
+ * @author 210017984.
+ */
+public class FrontierHeap extends AbstractQueue<Node> {
+
+    // Initialise heap variables.
+    private Node[] heap = new Node[16];
+    private int[] position = new int[0]; // heap slot of each cell index, -1 if the cell is not in the heap.
+    private int size = 0;
+    private ToIntFunction<Node> indexer;
+
+    /**
+     * Create a new frontier heap.
+     *
+     * @param indexer the function giving the cell index of a node's state.
+     */
+    public FrontierHeap(ToIntFunction<Node> indexer) {
+        this.indexer = indexer;
+    }
+
+    /**
+     * Get the number of nodes in the heap.
+     *
+     * @return the size of the heap.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Insert a node to the heap. Only one node per state can be in the heap at a time.
+     *
+     * @param node the node to be inserted.
+     * @return true once the node is inserted.
+     */
+    @Override
+    public boolean offer(Node node) {
+        int index = indexer.applyAsInt(node);
+        ensureIndexCapacity(index);
+        if (position[index] != -1) {
+            throw new IllegalStateException("State " + node.getState() + " is already in the frontier.");
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = node;
+        position[index] = size;
+        siftUp(size++);
+        return true;
+    }
+
+    /**
+     * Get the node with the lowest F_cost without removing it.
+     *
+     * @return the first node of the heap, null if the heap is empty.
+     */
+    @Override
+    public Node peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    /**
+     * Remove the node with the lowest F_cost.
+     *
+     * @return the node removed, null if the heap is empty.
+     */
+    @Override
+    public Node poll() {
+        if (size == 0) {
+            return null;
+        }
+        Node first = heap[0];
+        position[indexer.applyAsInt(first)] = -1;
+        size--;
+        if (size > 0) {
+            move(size, 0);
+            siftDown(0);
+        }
+        heap[size] = null;
+        return first;
+    }
+
+    /**
+     * Get the node in the heap that has the state with the given cell index.
+     *
+     * @param index the cell index of the state.
+     * @return the node with that state, null if the state is not in the heap.
+     */
+    public Node get(int index) {
+        return (index < position.length && position[index] != -1) ? heap[position[index]] : null;
+    }
+
+    /**
+     * Replace the node with the same state as the one passed in by the node passed in, which has a lower F_cost, and
+     * sift it to its new place in O(log n). Insert and poll break ties exactly like PriorityQueue; only here can the
+     * order differ from the old frontier, which removed the node with removeIf (rebuilding the heap in O(n)) and added
+     * the new one.
+     *
+     * @param node the new node with the lower F_cost.
+     * @return true if a node with the same state was in the heap and was replaced, false otherwise.
+     */
+    public boolean decreaseKey(Node node) {
+        int index = indexer.applyAsInt(node);
+        if (index >= position.length || position[index] == -1) {
+            return false;
+        }
+        int slot = position[index];
+        heap[slot] = node;
+        siftUp(slot);
+        siftDown(position[index]);
+        return true;
+    }
+
+    /**
+     * Iterate through the nodes in heap order (not sorted).
+     *
+     * @return an iterator over the nodes of the heap.
+     */
+    @Override
+    public Iterator<Node> iterator() {
+        return new Iterator<Node>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Node next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return heap[next++];
+            }
+        };
+    }
+
+    /**
+     * Check if the node in slot a should be before the node in slot b.
+     *
+     * @param a the first slot.
+     * @param b the second slot.
+     * @return true if slot a has a strictly lower F_cost (equal nodes are never swapped).
+     */
+    private boolean before(int a, int b) {
+        return heap[a].getF_Cost() < heap[b].getF_Cost();
+    }
+
+    /**
+     * Move the node of a slot up until its parent is before it.
+     *
+     * @param slot the slot to sift up.
+     */
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!before(slot, parent)) {
+                break;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    /**
+     * Move the node of a slot down until it is before both of its children.
+     *
+     * @param slot the slot to sift down.
+     */
+    private void siftDown(int slot) {
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && before(child + 1, child)) {
+                child++;
+            }
+            if (!before(child, slot)) {
+                break;
+            }
+            swap(slot, child);
+            slot = child;
+        }
+    }
+
+    /**
+     * Swap the nodes of two slots, updating their positions.
+     *
+     * @param a the first slot.
+     * @param b the second slot.
+     */
+    private void swap(int a, int b) {
+        Node node = heap[a];
+        move(b, a);
+        heap[b] = node;
+        position[indexer.applyAsInt(node)] = b;
+    }
+
+    /**
+     * Move the node of one slot to another slot, updating its position.
+     *
+     * @param from the slot to move from.
+     * @param to   the slot to move to.
+     */
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        position[indexer.applyAsInt(heap[to])] = to;
+    }
+
+    /**
+     * Grow the position array so that it covers the given cell index.
+     *
+     * @param index the cell index to be covered.
+     */
+    private void ensureIndexCapacity(int index) {
+        if (index >= position.length) {
+            int oldLength = position.length;
+            position = Arrays.copyOf(position, Math.max(index + 1, oldLength * 2));
+            Arrays.fill(position, oldLength, position.length, -1);
+        }
+    }
+
+}
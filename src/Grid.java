@@ -0,0 +1,49 @@
+/**
+ * A grid of sea (0), islands (1) and tides (2) that can be searched. Implemented by the Map configurations and by
+ * GridMap for maps that are not part of the Map enum (e.g. generated maps). The grids whose tides can be set implement
+ * TidalGrid; a MapSnapshot is only read.
+ *
+ * @author 210017984.
+ */
+public interface Grid {
+
+    /**
+     * Get the cells of the grid.
+     *
+     * @return the cells of the grid, indexed by row and column.
+     */
+    int[][] getMap();
+
+    /**
+     * Get the graph of legal moves of the grid.
+     *
+     * @return the graph of legal moves.
+     */
+    TriangleGraph getGraph();
+
+    /**
+     * Get the version of the grid, which changes every time a tide is set. Results computed on the grid (e.g. cached
+     * distance fields) are only valid for the version they were computed on.
+     *
+     * @return the version of the grid.
+     */
+    int getVersion();
+
+    /**
+     * Get a version of the grid that does not change while it is read, e.g. by searches on other threads while tides
+     * are set (see VersionedMap). Grids that are only changed by the thread searching them return themselves.
+     *
+     * @return a consistent version of the grid.
+     */
+    default Grid snapshot() {
+        return this;
+    }
+
+    /**
+     * Count number of islands in the grid. Number of 1's.
+     *
+     * @return the number of islands.
+     */
+    int countIslands();
+
+}
@@ -0,0 +1,88 @@
+/**
+ * A searchable grid that is not one of the Map configurations, e.g. a generated or loaded map.
+ * The Map configurations also use it to hold their graph of legal moves.
+ *
+ * @author 210017984.
+ */
+public class GridMap implements TidalGrid {
+
+    // Initialise variables.
+    private final int[][] map;
+    private TriangleGraph graph; // legal moves of every cell, built on first use.
+    private volatile int version = 0; // incremented by every tide.
+
+    /**
+     * Create a new grid map.
+     *
+     * @param map the cells of the map (0 for sea, 1 for island, 2 for tide).
+     */
+    public GridMap(int[][] map) {
+        this.map = map;
+    }
+
+    /**
+     * Get the cells of the map.
+     *
+     * @return the cells of the map.
+     */
+    @Override
+    public int[][] getMap() {
+        return map;
+    }
+
+    /**
+     * Get the graph of legal moves of the map. It is built once and reused by every search on the map until
+     * a tide is set.
+     *
+     * @return the graph of legal moves.
+     */
+    @Override
+    public TriangleGraph getGraph() {
+        if (graph == null) {
+            graph = new AdjacencyTable(map);
+        }
+        return graph;
+    }
+
+    /**
+     * Set a tide on the map (value 2) at the given coordinates.
+     *
+     * @param row the row that the tide will be added.
+     * @param col the column that the tide will be added.
+     */
+    @Override
+    public void setTide(int row, int col) {
+        map[row][col] = 2;
+        graph = null; // the legal moves changed, so the graph is built again on next use.
+        version++;
+    }
+
+    /**
+     * Get the version of the map, which changes every time a tide is set.
+     *
+     * @return the version of the map.
+     */
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Count number of islands in the map. Number of 1's.
+     *
+     * @return the number of islands.
+     */
+    @Override
+    public int countIslands() {
+        int count = 0;
+        for (int[] row : map) {
+            for (int cell : row) {
+                if (cell == 1) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,83 @@
+import java.util.ArrayList;
+
+/**
+ * The HPAStar class runs hierarchical path-finding A* (HPA*) over the abstract graph of a map (see ClusterGraph): A*
+ * over the entrances between clusters, then a breadth first search within each cluster to refine the route. It
+ * expands far fewer nodes than a flat search on large maps, but the route found may be a little longer than the
+ * shortest.
+ *
+ * The abstract graph can be built once and shared by the searches of many queries on the map; set tides through
+ * ClusterGraph.setTide so that it stays up to date. nodesExplored counts the abstract nodes expanded plus the cells
+ * expanded within clusters.
+ *
+ * @author 210017984.
+ */
+public class HPAStar extends Search {
+
+    // Initialise variables.
+    private final ClusterGraph clusters;
+
+    /**
+     * Create an HPA* search instance, building the abstract graph of the map.
+     *
+     * @param map         the map passed in.
+     * @param start       the starting coordinates.
+     * @param goal        the goal coordinates.
+     * @param heuristic   the chosen heuristic.
+     * @param clusterSize the size of the clusters, in cells per side.
+     */
+    public HPAStar(TidalGrid map, Coord start, Coord goal, char heuristic, int clusterSize) {
+        this(new ClusterGraph(map, clusterSize), start, goal, heuristic);
+    }
+
+    /**
+     * Create an HPA* search instance over an abstract graph that was already built.
+     *
+     * @param clusters  the abstract graph of the map.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     */
+    public HPAStar(ClusterGraph clusters, Coord start, Coord goal, char heuristic) {
+        super(clusters.getMap(), start, goal, heuristic);
+        this.clusters = clusters;
+    }
+
+    /**
+     * Find the route over the abstract graph and refine it. If a route is found, its path, cost, and explored nodes
+     * are printed.
+     *
+     * @param initialNode the initial node, only used for its state.
+     */
+    @Override
+    public void loopFrontier(Node initialNode) {
+        ArrayList<Coord> path = getSolution();
+        path.clear();
+        path.addAll(clusters.findRoute(initialNode.getState(), getGoal(), getHeuristic(), getLandmarks()));
+        nodesExplored = clusters.getExpanded() + clusters.getLocalExpanded();
+        if (path.isEmpty()) {
+            return;
+        }
+        setFoundSolution(true);
+        pathCost = clusters.getPathCost();
+
+        // if print flag is true, print the output.
+        if (isPrint()) {
+            for (Coord state : path) {
+                System.out.print(state);
+            }
+            System.out.println("\n" + pathCost); // Print path cost.
+            System.out.println(nodesExplored); // Print nodes explored.
+        }
+    }
+
+    /**
+     * Get the abstract graph searched.
+     *
+     * @return the abstract graph.
+     */
+    public ClusterGraph getClusters() {
+        return clusters;
+    }
+
+}
@@ -0,0 +1,158 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * The heuristic cost of every cell of a map towards one goal, computed the first time a cell asks for it and kept in a
+ * float array, so that the searches read it with one array load instead of computing it for every node. The tables
+ * are shared by every search (on any thread) with the same map size, goal and heuristic: M, T, E and C only depend on
+ * the coordinates, so they stay valid when tides are set, and L is kept per landmark table.
+ *
+ * A cell whose heuristic is not computed yet holds NaN, which no heuristic returns (0 cannot be used: besides the
+ * goal, many cells have a landmark bound of 0 with L). Two threads may compute the same cell at the same time, which
+ * is harmless: they write the same value, and a float is written at once.
+ *
+ * The tables are kept in a bounded cache: when they hold more than MAX_VALUES values, the least recently used ones are
+ * dropped (the searches still using them keep them).
+ *
+ * @author 210017984.
+ */
+public class HeuristicTable {
+
+    /**
+     * The most values (4 bytes each) kept in all the cached tables.
+     */
+    public static final int MAX_VALUES = 1 << 24;
+
+    /**
+     * The key of a table.
+     */
+    private static class Key {
+        private final int rows;
+        private final int columns;
+        private final int goalCell;
+        private final char heuristic;
+        private final LandmarkTable landmarks; // only for L.
+
+        private Key(int rows, int columns, int goalCell, char heuristic, LandmarkTable landmarks) {
+            this.rows = rows;
+            this.columns = columns;
+            this.goalCell = goalCell;
+            this.heuristic = heuristic;
+            this.landmarks = landmarks;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return rows == key.rows && columns == key.columns && goalCell == key.goalCell
+                    && heuristic == key.heuristic && landmarks == key.landmarks;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rows, columns, goalCell, heuristic, System.identityHashCode(landmarks));
+        }
+    }
+
+    // Iterated in access order, so the first entry is the least recently used.
+    private static final LinkedHashMap<Key, HeuristicTable> TABLES = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedValues = 0;
+
+    // Initialise variables.
+    private final int columns;
+    private final Coord goal;
+    private final char heuristic;
+    private final LandmarkTable landmarks;
+    private final float[] values; // NaN until computed.
+
+    /**
+     * Create an empty table.
+     *
+     * @param cells     the number of cells of the map.
+     * @param columns   the columns of the map.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     * @param landmarks the landmark table used for L, null otherwise.
+     */
+    private HeuristicTable(int cells, int columns, Coord goal, char heuristic, LandmarkTable landmarks) {
+        this.columns = columns;
+        this.goal = goal;
+        this.heuristic = heuristic;
+        this.landmarks = landmarks;
+        this.values = new float[cells];
+        Arrays.fill(values, Float.NaN);
+    }
+
+    /**
+     * Get the shared table of a goal and heuristic on a map, creating it if it is not cached.
+     *
+     * @param graph     the graph of the map.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     * @param landmarks the landmark table of the map for the heuristic L (ignored for the others).
+     * @return the heuristic table.
+     * @throws IllegalStateException if the heuristic is L and there is no landmark table.
+     */
+    public static HeuristicTable of(TriangleGraph graph, Coord goal, char heuristic, LandmarkTable landmarks) {
+        if (heuristic == 'L' && landmarks == null) {
+            throw new IllegalStateException("The heuristic L needs the landmark table of the map, see Search.setLandmarks.");
+        }
+        LandmarkTable used = heuristic == 'L' ? landmarks : null; // the other heuristics do not depend on the map.
+        Key key = new Key(graph.getRows(), graph.getColumns(), graph.cellIndex(goal), heuristic, used);
+        synchronized (TABLES) {
+            HeuristicTable table = TABLES.get(key);
+            if (table == null) {
+                table = new HeuristicTable(graph.getCells(), graph.getColumns(), goal, heuristic, used);
+                TABLES.put(key, table);
+                cachedValues += graph.getCells();
+                while (cachedValues > MAX_VALUES && TABLES.size() > 1) {
+                    HeuristicTable eldest = TABLES.remove(TABLES.keySet().iterator().next());
+                    cachedValues -= eldest.values.length;
+                }
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Get the heuristic cost of a cell towards the goal, computing it the first time.
+     *
+     * @param cell the cell.
+     * @return the heuristic cost of the cell.
+     */
+    public float get(int cell) {
+        float h = values[cell];
+        if (Float.isNaN(h)) {
+            int row = cell / columns;
+            int col = cell % columns;
+            h = (float) (landmarks != null ? landmarks.lowerBound(row, col, goal) : Node.heuristicScore(heuristic, row, col, goal));
+            values[cell] = h;
+        }
+        return h;
+    }
+
+    /**
+     * Get the heuristic cost of a cell towards the goal, computing it the first time.
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return the heuristic cost of the cell.
+     */
+    public float get(int row, int col) {
+        return get(row * columns + col);
+    }
+
+    /**
+     * Get the goal of the table.
+     *
+     * @return the goal coordinates.
+     */
+    public Coord getGoal() {
+        return goal;
+    }
+
+}
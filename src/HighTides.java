@@ -8,10 +8,11 @@ import java.util.Random;
 public class HighTides {
 
     // Initialise variables.
-    Map map;
+    Grid map;
     Coord start;
     Coord goal;
     char heuristic;
+    Random random;
 
     /**
      * Initialise a high tides instance.
@@ -20,19 +21,33 @@ public class HighTides {
      * @param goal the goal coordinates.
      * @param heuristic the chosen heuristic.
      */
-    public HighTides(Map map, Coord start, Coord goal, char heuristic) {
+    public HighTides(Grid map, Coord start, Coord goal, char heuristic) {
+        this(map, start, goal, heuristic, new Random());
+    }
+
+    /**
+     * Initialise a high tides instance whose tides come from the given random generator, e.g. a seeded one so that
+     * the same tides are set on every run.
+     * @param map the configuration's map.
+     * @param start the starting coordinates.
+     * @param goal the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     * @param random the random generator picking the tides.
+     */
+    public HighTides(Grid map, Coord start, Coord goal, char heuristic, Random random) {
         this.map = map;
         this.start = start;
         this.goal = goal;
         this.heuristic = heuristic;
-
+        this.random = random;
     }
 
     /**
      * Initialise algorithms and run them with the same heuristic.
      */
     public void runAlgorithms(int maxTides) {
-        Map tempMap = map;
+        // The tides are set on snapshots, so the map itself (e.g. a Map configuration shared by the JVM) never changes.
+        MapSnapshot tempMap = MapSnapshot.of(map);
         int tides = 1;
         while(tides <= maxTides) {
             tempMap = generateHighTides(tempMap,1);
@@ -53,7 +68,7 @@ public class HighTides {
      *
      * @param map the configuration's map.
      */
-    private void runSearches(Map map) {
+    private void runSearches(Grid map) {
         Search bfs = new UninformedSearch(map, start, goal);
         Search dfs = new UninformedSearch(map, start, goal);
         Search bestF = new InformedSearch(map, start, goal, heuristic);
@@ -78,24 +93,21 @@ public class HighTides {
      *
      * @param map the specified map to generate tides to.
      * @param numberOfTides the number of tides to add.
-     * @return the updated map.
+     * @return the next version of the map, with the tides.
      */
-    private Map generateHighTides(Map map, int numberOfTides) {
+    private MapSnapshot generateHighTides(MapSnapshot map, int numberOfTides) {
         // Get rows and columns of the map.
-        int rows = map.getMap().length;
-        int columns = map.getMap()[0].length;
+        int rows = map.getGraph().getRows();
+        int columns = map.getGraph().getColumns();
 
         int tidesAssigned = 0;
         // if the number of tides is less than the grid area minus the islands, then add tides.
         if (numberOfTides < ((rows * columns)-map.countIslands())) {
             while(tidesAssigned < numberOfTides) {
-                int randomRow = new Random().nextInt(rows-1);
-                int randomColumn = new Random().nextInt(columns-1);
                 // Set a tide to a free cell.
-                if (map.getMap()[randomRow][randomColumn] != 1 && map.getMap()[randomRow][randomColumn] != 2 && !A1main.isCoord(start, randomRow, randomColumn) && !A1main.isCoord(goal,randomRow, randomColumn)) {
-                    map.setTide(randomRow, randomColumn);
-                    tidesAssigned++;
-                }
+                Coord tide = nextTide(map);
+                map = map.withTide(tide.getR(), tide.getC());
+                tidesAssigned++;
             }
         } else {
             System.out.println("Please select smaller number of tides, between 0 and "+ ((rows * columns)-map.countIslands()-2));
@@ -105,6 +117,26 @@ public class HighTides {
         return map;
     }
 
+    /**
+     * Randomly pick the cell of the next tide: a cell that is not an island, a tide, the start or the goal. The map
+     * must have such a cell.
+     *
+     * @param map the specified map to pick the tide from.
+     * @return the coordinates of the next tide.
+     */
+    public Coord nextTide(Grid map) {
+        TriangleGraph graph = map.getGraph();
+        int rows = graph.getRows();
+        int columns = graph.getColumns();
+        while (true) {
+            int randomRow = random.nextInt(rows-1);
+            int randomColumn = random.nextInt(columns-1);
+            int cell = graph.getCell(randomRow, randomColumn);
+            if (cell != 1 && cell != 2 && !A1main.isCoord(start, randomRow, randomColumn) && !A1main.isCoord(goal,randomRow, randomColumn)) {
+                return new Coord(randomRow, randomColumn);
+            }
+        }
+    }
 
 
 }
@@ -0,0 +1,314 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The IDAStar class runs iterative deepening A* for controllers with little memory. Instead of a frontier and an
+ * explored list, it runs depth first searches from the start, cutting every path whose F_cost (path cost plus the
+ * chosen heuristic towards the goal) is above a bound. The first bound is the F_cost of the start, and every next
+ * bound is the lowest F_cost that was cut, so the first route found is the shortest one. As every move costs 1, the
+ * cost of the shortest route is a whole number, so the bounds are rounded up to whole numbers: this skips no route,
+ * and avoids one iteration per distinct F_cost with heuristics like E that are not whole numbers. Only the current
+ * path is kept, so its memory grows with the depth of the path instead of the number of states.
+ *
+ * A state can be reached by many paths, which plain IDA* searches again and again. A transposition table with a fixed
+ * memory budget keeps the lowest path cost each state was reached with in the current iteration, and a path reaching a
+ * state with a cost at least as high is pruned. When the bucket of a state is full, an older state is replaced (see
+ * record), and once a state was replaced in an iteration the current path is scanned to avoid cycles, as the table may
+ * no longer hold every state of the path.
+ *
+ * nodesExplored counts the states expanded over all the iterations, and the peak memory of the path and the table is
+ * printed after it.
+ *
+ * @author 210017984.
+ */
+public class IDAStar extends Search {
+
+    /**
+     * The memory budget of the transposition table used if none is given, in bytes.
+     */
+    public static final int DEFAULT_TABLE_BYTES = 1 << 16;
+
+    private static final int ENTRY_BYTES = 8; // a cell and its path cost.
+    private static final int EMPTY = -1;
+
+    // Initialise variables.
+    private TriangleGraph graph;
+    private int goalCell;
+    private int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+
+    // The current path: the cell at every depth and the index of the next neighbour to try (the path cost is the depth).
+    private int[] pathCells = new int[64];
+    private byte[] nextNeighbour = new byte[64];
+
+    // Transposition table: a cell and the lowest path cost it was reached with in this iteration, in buckets of 2.
+    private final int[] tableCells;
+    private final int[] tableCosts;
+    private boolean replaced = false; // an entry was replaced in this iteration, so the table may miss path states.
+
+    private int expandedCount = 0;
+    private long peakMemory = 0;
+
+    /**
+     * Create an IDA* search instance with the default memory budget for its transposition table.
+     *
+     * @param map       the map passed in.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     */
+    public IDAStar(Grid map, Coord start, Coord goal, char heuristic) {
+        this(map, start, goal, heuristic, DEFAULT_TABLE_BYTES);
+    }
+
+    /**
+     * Create an IDA* search instance.
+     *
+     * @param map        the map passed in.
+     * @param start      the starting coordinates.
+     * @param goal       the goal coordinates.
+     * @param heuristic  the chosen heuristic.
+     * @param tableBytes the memory budget of the transposition table in bytes (0 for plain IDA*).
+     */
+    public IDAStar(Grid map, Coord start, Coord goal, char heuristic, int tableBytes) {
+        super(map, start, goal, heuristic);
+        if (tableBytes < 0) {
+            throw new IllegalArgumentException("The memory budget of the transposition table cannot be negative: " + tableBytes);
+        }
+        this.graph = getGraph();
+        // The largest power of two number of entries that fits the budget, at least one bucket.
+        int capacity = tableBytes < 2 * ENTRY_BYTES ? 0 : Integer.highestOneBit(tableBytes / ENTRY_BYTES);
+        this.tableCells = new int[capacity];
+        this.tableCosts = new int[capacity];
+    }
+
+    /**
+     * Get the peak memory used by the search for its path and transposition table.
+     *
+     * @return the peak memory in bytes.
+     */
+    public long getPeakMemory() {
+        return peakMemory;
+    }
+
+    /**
+     * Get the heuristic cost of a cell towards the goal.
+     *
+     * @param cell the cell.
+     * @return the heuristic cost of the cell.
+     */
+    private double h(int cell) {
+        return Node.heuristicScore(getHeuristic(), getLandmarks(), cell / graph.getColumns(), cell % graph.getColumns(), getGoal());
+    }
+
+    /**
+     * Run depth first searches with a growing bound until the goal is found, or no path was cut (so the goal cannot
+     * be reached). If goal is found, its path, cost, explored nodes and peak memory are printed.
+     *
+     * @param initialNode the initial node, only used for its state.
+     */
+    @Override
+    public void loopFrontier(Node initialNode) {
+        int startCell = cellIndex(initialNode.getState());
+        goalCell = cellIndex(getGoal());
+        expandedCount = 0;
+        getSolution().clear();
+
+        double bound = Math.ceil(h(startCell));
+        while (true) {
+            double nextBound = search(startCell, bound);
+            if (isFoundSolution()) {
+                printOutput();
+                return;
+            }
+            if (nextBound == Double.POSITIVE_INFINITY) {
+                return; // no path was cut, so every state that can be reached was searched.
+            }
+            bound = Math.ceil(nextBound);
+        }
+    }
+
+    /**
+     * Run one depth first search, cutting the paths whose F_cost is above the bound.
+     *
+     * @param startCell the cell of the start.
+     * @param bound     the highest F_cost searched.
+     * @return the lowest F_cost that was cut, or infinity if none was.
+     */
+    private double search(int startCell, double bound) {
+        double nextBound = Double.POSITIVE_INFINITY;
+        clearTable();
+        int depth = 0;
+        pathCells[0] = startCell;
+        nextNeighbour[0] = 0;
+        record(startCell, 0);
+        if (startCell == goalCell) {
+            setFoundSolution(true);
+            return bound;
+        }
+        expandedCount++;
+        updatePeakMemory();
+
+        while (depth >= 0) {
+            int cell = pathCells[depth];
+            int found = graph.neighbours(cell, neighbours);
+            if (nextNeighbour[depth] >= found) {
+                depth--; // every successor was tried, so backtrack.
+                continue;
+            }
+            int next = neighbours[nextNeighbour[depth]++];
+            int cost = depth + 1;
+            if (depth > 0 && next == pathCells[depth - 1]) {
+                continue; // going straight back is never shorter.
+            }
+
+            double fCost = cost + h(next);
+            if (fCost > bound) {
+                nextBound = Math.min(nextBound, fCost);
+                continue;
+            }
+            if (!record(next, cost) || (replaced && isOnPath(next, depth))) {
+                continue; // reached before at no higher cost, or a cycle.
+            }
+
+            // Go one state deeper.
+            depth++;
+            if (depth == pathCells.length) {
+                pathCells = Arrays.copyOf(pathCells, depth * 2);
+                nextNeighbour = Arrays.copyOf(nextNeighbour, depth * 2);
+                updatePeakMemory();
+            }
+            pathCells[depth] = next;
+            nextNeighbour[depth] = 0;
+            if (next == goalCell) {
+                setFoundSolution(true);
+                recordSolution(depth);
+                return bound;
+            }
+            expandedCount++;
+        }
+        return nextBound;
+    }
+
+    /**
+     * Check if a cell is on the current path, above the given depth.
+     *
+     * @param cell  the cell.
+     * @param depth the depth of the last state of the path.
+     * @return true if the cell is on the path, false otherwise.
+     */
+    private boolean isOnPath(int cell, int depth) {
+        for (int i = depth; i >= 0; i--) {
+            if (pathCells[i] == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove every entry of the transposition table, at the start of an iteration.
+     */
+    private void clearTable() {
+        Arrays.fill(tableCells, EMPTY);
+        replaced = tableCells.length == 0; // without a table, cycles are always found by scanning the path.
+    }
+
+    /**
+     * Record that a cell was reached with a path cost in this iteration. Each cell has a bucket of two entries: the
+     * first keeps the state with the lowest path cost (whose subtree is the largest to prune), the second the state
+     * reached most recently (which a depth first search is likely to reach again soon).
+     *
+     * @param cell     the cell.
+     * @param pathCost the cost of the path to the cell.
+     * @return false if the cell was already reached at no higher cost (so the path can be pruned), true otherwise.
+     */
+    private boolean record(int cell, int pathCost) {
+        if (tableCells.length == 0) {
+            return true;
+        }
+        int first = ((cell * 0x9E3779B9) >>> 1) & (tableCells.length - 2);
+        int second = first + 1;
+        for (int slot = first; slot <= second; slot++) {
+            if (tableCells[slot] == cell) {
+                if (tableCosts[slot] <= pathCost) {
+                    return false;
+                }
+                tableCosts[slot] = pathCost;
+                return true;
+            }
+        }
+
+        if (tableCells[first] == EMPTY) {
+            tableCells[first] = cell;
+            tableCosts[first] = pathCost;
+        } else if (pathCost < tableCosts[first]) {
+            // Move the state of the first entry to the second, replacing the state there.
+            replaced |= tableCells[second] != EMPTY;
+            tableCells[second] = tableCells[first];
+            tableCosts[second] = tableCosts[first];
+            tableCells[first] = cell;
+            tableCosts[first] = pathCost;
+        } else {
+            replaced |= tableCells[second] != EMPTY;
+            tableCells[second] = cell;
+            tableCosts[second] = pathCost;
+        }
+        return true;
+    }
+
+    /**
+     * Update the peak memory with the current size of the path arrays and the table.
+     */
+    private void updatePeakMemory() {
+        long memory = (long) pathCells.length * Integer.BYTES + nextNeighbour.length
+                + (long) tableCells.length * ENTRY_BYTES;
+        peakMemory = Math.max(peakMemory, memory);
+    }
+
+    /**
+     * Record the path found, from the start to the goal.
+     *
+     * @param depth the depth of the goal.
+     */
+    private void recordSolution(int depth) {
+        for (int i = 0; i <= depth; i++) {
+            getSolution().add(graph.coord(pathCells[i]));
+        }
+        pathCost = depth;
+    }
+
+    /**
+     * Print final output: the path, its cost, the number of nodes explored and the peak memory in bytes.
+     */
+    private void printOutput() {
+        if (getSolution().isEmpty()) {
+            getSolution().add(getGoal()); // the start is the goal.
+            pathCost = 0;
+        }
+        nodesExplored = expandedCount;
+
+        // if print flag is true, print the output.
+        if (isPrint()) {
+            for (Coord state : getSolution()) {
+                System.out.print(state);
+            }
+            System.out.println("\n" + pathCost); // Print path cost.
+            System.out.println(nodesExplored); // Print nodes explored.
+            System.out.println(peakMemory); // Print peak memory.
+        }
+    }
+
+    /**
+     * If the search could not find a solution, print fail message, the number of explored states and the peak memory.
+     */
+    @Override
+    public void failure() {
+        nodesExplored = expandedCount;
+        if (isPrint()) {
+            System.out.println("fail");
+            System.out.println(nodesExplored);
+            System.out.println(peakMemory);
+        }
+    }
+
+}
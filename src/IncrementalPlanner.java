@@ -0,0 +1,320 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * An incremental route planner (D* Lite, by Koenig and Likhachev) for maps where tides keep appearing. It searches
+ * from the goal towards the start and keeps its search state (g, rhs and its priority queue) between calls, so after a
+ * tide is set only the states whose distance to the goal changed are searched again, instead of the whole map. The
+ * start may also move (e.g. as the ferry sails along its route) without losing the search state.
+ *
+ * g is the distance to the goal found so far and rhs the one implied by the neighbours (0 for the goal, otherwise 1
+ * plus the lowest g of the legal neighbours). A state is consistent when both are equal, and the queue holds the
+ * inconsistent states ordered by [min(g, rhs) + h + km, min(g, rhs)], where h is the chosen heuristic towards the start
+ * and km adds up how far the start moved. The planner keeps its own copy of which cells are blocked, so tides must be
+ * set through setTide for it to repair its route. Like the other searches, a start on an island or tide may still move
+ * out of it, but no move may go into a blocked cell.
+ *
+ * @author 210017984.
+ */
+public class IncrementalPlanner {
+
+    private static final float INFINITY = Float.POSITIVE_INFINITY;
+
+    // Initialise variables.
+    private final TidalGrid map;
+    private final int rows;
+    private final int columns;
+    private final char heuristic;
+    private final int goal;
+    private final boolean[] blocked; // islands and tides.
+    private final float[] g;
+    private final float[] rhs;
+    private final CellHeap open; // the inconsistent states.
+    private final int[] adjacent = new int[TriangleGraph.MAX_NEIGHBOURS];
+    private int start;
+    private Coord startCoord;
+    private int lastStart; // the start when km was last updated.
+    private double km = 0;
+    private int expanded = 0; // states expanded by the last call to plan.
+    private long totalExpanded = 0;
+
+    /**
+     * Create a planner and set up its first search (the search itself runs on the first call to plan).
+     *
+     * @param map       the map to plan on.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic (M, T, E or C, which are all consistent).
+     */
+    public IncrementalPlanner(TidalGrid map, Coord start, Coord goal, char heuristic) {
+        TriangleGraph graph = map.getGraph();
+        this.map = map;
+        this.rows = graph.getRows();
+        this.columns = graph.getColumns();
+        this.heuristic = heuristic;
+        this.goal = graph.cellIndex(goal);
+        this.start = graph.cellIndex(start);
+        this.startCoord = start;
+        this.lastStart = this.start;
+
+        int cells = graph.getCells();
+        this.blocked = new boolean[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            blocked[cell] = !graph.isLegal(cell / columns, cell % columns);
+        }
+        this.g = new float[cells];
+        this.rhs = new float[cells];
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        this.open = new CellHeap(cells);
+
+        rhs[this.goal] = 0;
+        open.push(this.goal, firstKey(this.goal), secondKey(this.goal));
+    }
+
+    /**
+     * Set a tide on the map and repair the search state around it. Call plan afterwards to get the new route.
+     *
+     * @param row the row that the tide will be added.
+     * @param col the column that the tide will be added.
+     */
+    public void setTide(int row, int col) {
+        map.setTide(row, col);
+        int cell = row * columns + col;
+        if (blocked[cell]) {
+            return;
+        }
+        updateKm();
+        blocked[cell] = true;
+
+        // The moves into the cell (and out of it, unless it is the start) now cost infinity, so recompute rhs of the
+        // cell and of its neighbours.
+        int found = adjacentCells(cell, adjacent);
+        int[] around = Arrays.copyOf(adjacent, found); // adjacent is reused by updateRhs.
+        updateRhs(cell);
+        for (int neighbour : around) {
+            updateRhs(neighbour);
+        }
+    }
+
+    /**
+     * Move the start, e.g. as the ferry sails along the route. The search state is kept.
+     *
+     * @param newStart the new starting coordinates.
+     */
+    public void moveStart(Coord newStart) {
+        int previous = start;
+        start = newStart.getR() * columns + newStart.getC();
+        startCoord = newStart;
+        if (start != previous && (blocked[previous] || blocked[start])) {
+            // Only the start may move out of a blocked cell, so rhs of the old and the new start changed.
+            updateKm();
+            updateRhs(previous);
+            updateRhs(start);
+        }
+    }
+
+    /**
+     * Bring the search state up to date with the tides set since the last call, and get the shortest route from the
+     * start to the goal.
+     *
+     * @return the states of the route from the start to the goal, empty if the goal cannot be reached.
+     */
+    public ArrayList<Coord> plan() {
+        updateKm(); // the keys in the queue may have been computed for an older start.
+        computeShortestPath();
+
+        ArrayList<Coord> path = new ArrayList<>();
+        if (g[start] == INFINITY) {
+            return path;
+        }
+        // Follow the neighbour with the lowest g down to the goal (g falls by 1 on every move).
+        int cell = start;
+        path.add(startCoord);
+        while (cell != goal) {
+            int found = adjacentCells(cell, adjacent);
+            int next = -1;
+            for (int i = 0; i < found; i++) {
+                int neighbour = adjacent[i];
+                if (cost(cell, neighbour) + g[neighbour] == g[cell] && (next == -1 || g[neighbour] < g[next])) {
+                    next = neighbour;
+                }
+            }
+            cell = next;
+            path.add(new Coord(cell / columns, cell % columns));
+        }
+        return path;
+    }
+
+    /**
+     * Get the cost of the route found by the last call to plan.
+     *
+     * @return the path cost, infinity if the goal cannot be reached.
+     */
+    public float getPathCost() {
+        return g[start];
+    }
+
+    /**
+     * Get the number of states expanded by the last call to plan.
+     *
+     * @return the states expanded.
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Get the number of states expanded by every call to plan.
+     *
+     * @return the states expanded.
+     */
+    public long getTotalExpanded() {
+        return totalExpanded;
+    }
+
+    /**
+     * Raise km by how far the start moved since it was last updated, before keys are computed for the new start.
+     */
+    private void updateKm() {
+        if (start != lastStart) {
+            // The keys in the queue were computed for an older start, so raise the new ones by how far it moved.
+            km += Node.heuristicScore(heuristic, lastStart / columns, lastStart % columns, startCoord);
+            lastStart = start;
+        }
+    }
+
+    /**
+     * Expand the inconsistent states in order until the start is consistent and no state in the queue could change
+     * its distance.
+     */
+    private void computeShortestPath() {
+        expanded = 0;
+        while (!open.isEmpty() && (keyBeforeStart() || rhs[start] != g[start])) {
+            int u = open.peek();
+            double oldFirst = open.peekKey();
+            double oldSecond = open.peekSecondKey();
+            double newFirst = firstKey(u);
+            double newSecond = secondKey(u);
+
+            if (oldFirst < newFirst || (oldFirst == newFirst && oldSecond < newSecond)) {
+                open.update(u, newFirst, newSecond); // the key was computed for an older start.
+                continue;
+            }
+            expanded++;
+            int found = adjacentCells(u, adjacent);
+            int[] around = Arrays.copyOf(adjacent, found);
+            if (g[u] > rhs[u]) {
+                // The state got closer to the goal: settle it and lower rhs of its neighbours.
+                g[u] = rhs[u];
+                open.remove(u);
+                for (int s : around) {
+                    if (s != goal && cost(s, u) + g[u] < rhs[s]) {
+                        rhs[s] = cost(s, u) + g[u];
+                        updateVertex(s);
+                    }
+                }
+            } else {
+                // The state got further from the goal: reset it and recompute the neighbours that went through it.
+                float oldG = g[u];
+                g[u] = INFINITY;
+                for (int s : around) {
+                    if (rhs[s] == cost(s, u) + oldG) {
+                        updateRhs(s);
+                    }
+                }
+                updateRhs(u);
+            }
+        }
+        totalExpanded += expanded;
+    }
+
+    /**
+     * Check if the first state of the queue comes before the start.
+     *
+     * @return true if the key of the first state is lower than the key of the start.
+     */
+    private boolean keyBeforeStart() {
+        double first = firstKey(start);
+        return open.peekKey() < first || (open.peekKey() == first && open.peekSecondKey() < secondKey(start));
+    }
+
+    /**
+     * Recompute rhs of a state from its neighbours, and put it in or take it out of the queue accordingly.
+     *
+     * @param cell the state.
+     */
+    private void updateRhs(int cell) {
+        if (cell == goal) {
+            return;
+        }
+        float lowest = INFINITY;
+        int found = adjacentCells(cell, adjacent);
+        for (int i = 0; i < found; i++) {
+            lowest = Math.min(lowest, cost(cell, adjacent[i]) + g[adjacent[i]]);
+        }
+        rhs[cell] = lowest;
+        updateVertex(cell);
+    }
+
+    /**
+     * Put an inconsistent state in the queue (or update its key), and take a consistent state out of it.
+     *
+     * @param cell the state.
+     */
+    private void updateVertex(int cell) {
+        boolean queued = open.contains(cell);
+        if (g[cell] != rhs[cell]) {
+            if (queued) {
+                open.update(cell, firstKey(cell), secondKey(cell));
+            } else {
+                open.push(cell, firstKey(cell), secondKey(cell));
+            }
+        } else if (queued) {
+            open.remove(cell);
+        }
+    }
+
+    /**
+     * Get the first part of the key of a state: min(g, rhs) + h + km.
+     *
+     * @param cell the state.
+     * @return the first key.
+     */
+    private double firstKey(int cell) {
+        return secondKey(cell) + Node.heuristicScore(heuristic, cell / columns, cell % columns, startCoord) + km;
+    }
+
+    /**
+     * Get the second part of the key of a state: min(g, rhs).
+     *
+     * @param cell the state.
+     * @return the second key.
+     */
+    private double secondKey(int cell) {
+        return Math.min(g[cell], rhs[cell]);
+    }
+
+    /**
+     * Get the cost of moving between two neighbouring cells.
+     *
+     * @param from the cell moving.
+     * @param to   the neighbour it moves to.
+     * @return 1, or infinity if the neighbour is an island or a tide, or the cell is one and is not the start.
+     */
+    private float cost(int from, int to) {
+        return blocked[to] || (blocked[from] && from != start) ? INFINITY : 1;
+    }
+
+    /**
+     * Find the cells next to a cell within the map, legal or not, in the tie breaking order (right, down, left, up).
+     *
+     * @param cell the cell.
+     * @param out  the array the cells are written to.
+     * @return the number of cells written.
+     */
+    private int adjacentCells(int cell, int[] out) {
+        return TriangleGraph.adjacentCells(rows, columns, cell, next -> false, out);
+    }
+
+}
@@ -7,10 +7,11 @@ import java.util.stream.Collectors;
  *
  * @author 210017984.
  */
-public class InformedSearch extends Search {
+public class InformedSearch extends NodeSearch {
 
     // Initialise frontier.
-    private PriorityQueue<Node> frontier;
+    private FrontierHeap frontier;
+    private HeuristicTable heuristics; // the heuristic cost of the cells towards the goal.
 
     /**
      * Create an uninformed search instance - BestF and AStar algorithms.
@@ -20,11 +21,10 @@ public class InformedSearch extends Search {
      * @param goal      the goal coordinates.
      * @param heuristic the chosen heuristic.
      */
-    public InformedSearch(Map map, Coord start, Coord goal, char heuristic) {
+    public InformedSearch(Grid map, Coord start, Coord goal, char heuristic) {
         super(map, start, goal, heuristic);
-        // Comparator to sort the nodes based on their F_cost.
-        Comparator<Node> comparator = Comparator.comparing(Node::getF_Cost);
-        this.frontier = new PriorityQueue<>(comparator);
+        // Indexed heap sorting the nodes based on their F_cost, keyed by the cell index of their state.
+        this.frontier = new FrontierHeap(node -> cellIndex(node.getState()));
     }
 
     /**
@@ -48,6 +48,8 @@ public class InformedSearch extends Search {
      */
     @Override
     public void loopFrontier(Node initialNode) {
+        // Shared with other searches to the goal.
+        heuristics = HeuristicTable.of(getGraph(), getGoal(), getHeuristic(), getLandmarks());
         insert(initialNode, frontier); // Insert initial node to the frontier.
 
         // While the frontier is not empty, loop through it.
@@ -80,12 +82,15 @@ public class InformedSearch extends Search {
      */
     @Override
     public void addSuitableSuccessors(Collection<Node> frontier, int frontierNo, Coord state, ArrayList<Node> successors, Node parent) {
-        Node nd = new Node(parent, state, getGoal(), getHeuristic(), getAlgo(), getStart());
+        Node nd = new Node(parent, state, heuristics, getAlgo());
         // if state is not contained in a node of explored or frontier.
-        if (!getFrontierStates(frontier).contains(state) && !getExploredStates(getExplored()).contains(state)) {
+        if (!isInFrontier(state, frontierNo) && !isExplored(state, frontierNo)) {
             successors.add(nd);
-        } else if ((getAlgo() == "AStar") && getFrontierStates(frontier).contains(state) && getNodeInFrontier(frontier, state) != null && (getNodeInFrontier(frontier, state).getPathCost(getStart()) > nd.getPathCost(getStart()))) {
-            replaceNodeInFrontier(state, nd); // replace old node with the new one with the lower path cost.
+        } else if (getAlgo().equals("AStar") && isInFrontier(state, frontierNo)) {
+            Node inFrontier = this.frontier.get(cellIndex(state)); // O(1) lookup of the node in the frontier.
+            if (inFrontier != null && inFrontier.getPathCost() > nd.getPathCost()) {
+                replaceNodeInFrontier(nd); // replace old node with the new one with the lower path cost.
+            }
         }
     }
 
@@ -97,7 +102,7 @@ public class InformedSearch extends Search {
     @Override
     public void insertAll(ArrayList<Node> successors) {
         for (Node node : successors) {
-            frontier.add(node);
+            insert(node, frontier);
         }
     }
 
@@ -108,19 +113,16 @@ public class InformedSearch extends Search {
      */
     @Override
     public Node removeFromFrontier() {
-        return frontier.poll();
+        return unmarkInFrontier(frontier.poll(), 0);
     }
 
     /**
-     * Replace node in the frontier with a new node with lower cost.
+     * Replace node in the frontier with a new node with lower cost (decrease-key on the frontier heap).
      *
-     * @param state   the state we are looking.
-     * @param newNode the new node that will replace the old.
+     * @param newNode the new node that will replace the old one with the same state.
      */
-    private void replaceNodeInFrontier(Coord state, Node newNode) {
-        if (frontier.removeIf(i -> i.getState().equals(state))) {
-            frontier.add(newNode);
-        }
+    private void replaceNodeInFrontier(Node newNode) {
+        frontier.decreaseKey(newNode);
     }
 
 }
@@ -0,0 +1,383 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Landmark (ALT) distance tables for the heuristic L. A few landmark cells are picked, and the exact distance from
+ * each landmark to every cell is found with a breadth first search. As every move can be made both ways, for any
+ * landmark the distance from a cell n to the goal g is at least |d(landmark, g) - d(landmark, n)| (triangle
+ * inequality), and the heuristic L is the highest of these bounds and of the triangle Manhattan distance T. Unlike M,
+ * T, E and C it sees the islands, so on cluttered maps A* expands far fewer states. It is consistent, and stays so
+ * after tides are set (tides only make routes longer), though it gets weaker.
+ *
+ * The landmarks are picked far apart in the largest area of sea: the first is the cell furthest from where the area
+ * was entered, and each next one is the cell furthest from the landmarks already picked. Cells outside that area
+ * fall back to T.
+ *
+ * The distances are kept in one char array (2 bytes per cell and landmark), and a distance that does not fit or a
+ * cell that cannot be reached is stored as UNREACHED and skipped. The tables can be saved next to the map and loaded
+ * back, which A1main does for map files (path of the map + ".landmarks").
+ *
+ * File format (big-endian):
+ * int magic ("TALT"), int version (1), int rows, int columns, int number of landmarks, long fingerprint of the map,
+ * the cell of every landmark (int), then the distances of every landmark to every cell (char), landmark by landmark.
+ *
+ * Build and save the tables of a map with
+ * java LandmarkTable <ConfID|path/to/map> <path/to/file.landmarks> [landmarks]
+ *
+ * The searches are given the table of their map with Search.setLandmarks, which refuses a table built for a map of
+ * another size or with other legal cells (see isFor), so the table must be built again after tides are set.
+ *
+ * @author 210017984.
+ */
+public class LandmarkTable {
+
+    /**
+     * The number of landmarks picked if none is given.
+     */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    /**
+     * The file extension of saved tables, added to the path of the map.
+     */
+    public static final String EXTENSION = ".landmarks";
+
+    private static final int MAGIC = 0x54414C54; // "TALT"
+    private static final int VERSION = 1;
+    private static final char UNREACHED = Character.MAX_VALUE;
+
+    // Initialise variables.
+    private final int rows;
+    private final int columns;
+    private final long fingerprint;
+    private final int[] landmarks;
+    private final char[] distances; // distance of every cell to every landmark, landmark by landmark.
+
+    /**
+     * Create a table from its parts.
+     *
+     * @param rows        the rows of the map.
+     * @param columns     the columns of the map.
+     * @param fingerprint the fingerprint of the map.
+     * @param landmarks   the cells of the landmarks.
+     * @param distances   the distances of every landmark to every cell.
+     */
+    private LandmarkTable(int rows, int columns, long fingerprint, int[] landmarks, char[] distances) {
+        this.rows = rows;
+        this.columns = columns;
+        this.fingerprint = fingerprint;
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    /**
+     * Pick landmarks on a map and compute their distance tables.
+     *
+     * @param map   the map.
+     * @param count the number of landmarks to pick (fewer if the map has fewer sea cells).
+     * @return the landmark tables.
+     */
+    public static LandmarkTable build(Grid map, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one landmark is needed: " + count);
+        }
+        TriangleGraph graph = map.getGraph();
+        int cells = graph.getCells();
+        char[] distance = new char[cells];
+        int[] queue = new int[cells];
+
+        // Find the largest area of sea, searching from every sea cell not reached yet.
+        boolean[] seen = new boolean[cells];
+        int largest = 0;
+        int next = -1;
+        for (int cell = 0; cell < cells; cell++) {
+            if (seen[cell] || !graph.isLegal(cell / graph.getColumns(), cell % graph.getColumns())) {
+                continue;
+            }
+            int found = flood(graph, cell, seen, queue);
+            if (found > largest) {
+                largest = found;
+                next = queue[found - 1]; // the first landmark is the cell furthest from where the area was entered.
+            }
+        }
+        if (next == -1) {
+            return new LandmarkTable(graph.getRows(), graph.getColumns(), fingerprint(graph), new int[0], new char[0]);
+        }
+        int reached = largest;
+
+        // Each next landmark is the cell furthest from the landmarks picked so far.
+        int[] nearest = new int[cells]; // distance of every cell to its nearest landmark.
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+        ArrayList<Integer> picked = new ArrayList<>();
+        char[] all = new char[Math.min(count, reached) * cells];
+        while (picked.size() < count && picked.size() < reached) {
+            int found = breadthFirst(graph, next, distance, queue);
+            System.arraycopy(distance, 0, all, picked.size() * cells, cells);
+            picked.add(next);
+
+            int furthest = -1;
+            for (int i = 0; i < found; i++) {
+                int cell = queue[i];
+                nearest[cell] = Math.min(nearest[cell], distance[cell]);
+                if (furthest == -1 || nearest[cell] > nearest[furthest]) {
+                    furthest = cell;
+                }
+            }
+            if (nearest[furthest] == 0) {
+                break; // every reached cell is a landmark.
+            }
+            next = furthest;
+        }
+
+        int[] landmarks = picked.stream().mapToInt(Integer::intValue).toArray();
+        return new LandmarkTable(graph.getRows(), graph.getColumns(), fingerprint(graph), landmarks,
+                Arrays.copyOf(all, landmarks.length * cells));
+    }
+
+    /**
+     * Run a breadth first search from a cell over the cells not seen yet, marking them as seen.
+     *
+     * @param graph  the graph of the map.
+     * @param source the cell searched from.
+     * @param seen   the cells seen by the previous searches.
+     * @param queue  an array of the size of the map, holding the cells reached in order of distance afterwards.
+     * @return the number of cells reached.
+     */
+    private static int flood(TriangleGraph graph, int source, boolean[] seen, int[] queue) {
+        int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+        int head = 0;
+        int tail = 0;
+        seen[source] = true;
+        queue[tail++] = source;
+        while (head < tail) {
+            int found = graph.neighbours(queue[head++], neighbours);
+            for (int i = 0; i < found; i++) {
+                if (!seen[neighbours[i]]) {
+                    seen[neighbours[i]] = true;
+                    queue[tail++] = neighbours[i];
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Run a breadth first search from a cell, writing the distance of every cell to it.
+     *
+     * @param graph    the graph of the map.
+     * @param source   the cell searched from.
+     * @param distance the array the distances are written to (UNREACHED for the cells that cannot be reached).
+     * @param queue    an array of the size of the map, holding the cells reached in order of distance afterwards.
+     * @return the number of cells reached.
+     */
+    private static int breadthFirst(TriangleGraph graph, int source, char[] distance, int[] queue) {
+        Arrays.fill(distance, UNREACHED);
+        int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+        int head = 0;
+        int tail = 0;
+        distance[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int cell = queue[head++];
+            if (distance[cell] == UNREACHED - 1) {
+                continue; // the next distance would not fit, so the cells further away stay UNREACHED.
+            }
+            int found = graph.neighbours(cell, neighbours);
+            for (int i = 0; i < found; i++) {
+                int next = neighbours[i];
+                if (distance[next] == UNREACHED) {
+                    distance[next] = (char) (distance[cell] + 1);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Compute a fingerprint of the legal cells of a map, to check that saved tables (or hierarchies, see
+     * ContractionHierarchy) belong to the map they are loaded with.
+     *
+     * @param graph the graph of the map.
+     * @return the fingerprint.
+     */
+    static long fingerprint(TriangleGraph graph) {
+        long hash = 0xCBF29CE484222325L; // FNV-1a, one bit per cell.
+        for (int r = 0; r < graph.getRows(); r++) {
+            for (int c = 0; c < graph.getColumns(); c++) {
+                hash = (hash ^ (graph.isLegal(r, c) ? 1 : 0)) * 0x100000001B3L;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Check if the table belongs to a map: the map has the same size and the same legal cells (fingerprint) as the
+     * one the table was built for.
+     *
+     * @param graph the graph of the map.
+     * @return true if the table was built for the map, false otherwise.
+     */
+    public boolean isFor(TriangleGraph graph) {
+        return graph.getRows() == rows && graph.getColumns() == columns && fingerprint(graph) == fingerprint;
+    }
+
+    /**
+     * Get a lower bound on the distance from a cell to the goal: the highest landmark bound, or T if higher.
+     *
+     * @param row  the row of the cell.
+     * @param col  the column of the cell.
+     * @param goal the coordinates of the goal state.
+     * @return the lower bound.
+     */
+    public double lowerBound(int row, int col, Coord goal) {
+        int cells = rows * columns;
+        int cell = row * columns + col;
+        int goalCell = goal.getR() * columns + goal.getC();
+        int best = 0;
+        for (int i = 0, offset = 0; i < landmarks.length; i++, offset += cells) {
+            char fromCell = distances[offset + cell];
+            char fromGoal = distances[offset + goalCell];
+            if (fromCell != UNREACHED && fromGoal != UNREACHED) {
+                best = Math.max(best, Math.abs(fromGoal - fromCell));
+            }
+        }
+        return Math.max(best, Node.heuristicScore('T', row, col, goal));
+    }
+
+    /**
+     * Get the number of landmarks.
+     *
+     * @return the number of landmarks.
+     */
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * Get the coordinates of a landmark.
+     *
+     * @param i the index of the landmark.
+     * @return the coordinates of the landmark.
+     */
+    public Coord getLandmark(int i) {
+        return new Coord(landmarks[i] / columns, landmarks[i] % columns);
+    }
+
+    /**
+     * Save the tables to a file.
+     *
+     * @param file the path of the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            out.writeInt(columns);
+            out.writeInt(landmarks.length);
+            out.writeLong(fingerprint);
+            for (int landmark : landmarks) {
+                out.writeInt(landmark);
+            }
+            for (char distance : distances) {
+                out.writeChar(distance);
+            }
+        }
+    }
+
+    /**
+     * Load tables saved for a map.
+     *
+     * @param file the path of the file.
+     * @param map  the map the tables were saved for.
+     * @return the landmark tables.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a landmark file, was saved for another map, or is cut short.
+     */
+    public static LandmarkTable load(Path file, Grid map) throws IOException {
+        TriangleGraph graph = map.getGraph();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalArgumentException(file + ": not a landmark file");
+            }
+            int rows = in.readInt();
+            int columns = in.readInt();
+            int count = in.readInt();
+            long fingerprint = in.readLong();
+            if (rows != graph.getRows() || columns != graph.getColumns() || fingerprint != fingerprint(graph)) {
+                throw new IllegalArgumentException(file + ": the landmarks were saved for another map");
+            }
+            if (count <= 0 || (long) count * rows * columns > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(file + ": the number of landmarks does not match the file");
+            }
+            int[] landmarks = new int[count];
+            for (int i = 0; i < count; i++) {
+                landmarks[i] = in.readInt();
+            }
+            char[] distances = new char[count * rows * columns];
+            for (int i = 0; i < distances.length; i++) {
+                distances[i] = in.readChar();
+            }
+            return new LandmarkTable(rows, columns, fingerprint, landmarks, distances);
+        } catch (EOFException e) {
+            throw new IllegalArgumentException(file + ": the file is shorter than the landmarks it holds");
+        }
+    }
+
+    /**
+     * Get the tables of a map: loaded from the landmark file next to the map file if there is one, otherwise built
+     * with the number of landmarks set by -DLandmarkTable.count.
+     *
+     * @param map     the map.
+     * @param mapPath the path of the map file, or null for a configuration.
+     * @return the landmark tables.
+     * @throws IOException if the landmark file exists but cannot be read.
+     */
+    public static LandmarkTable forMap(Grid map, String mapPath) throws IOException {
+        if (mapPath != null) {
+            Path file = Paths.get(mapPath + EXTENSION);
+            if (Files.exists(file)) {
+                return load(file, map);
+            }
+        }
+        return build(map, Integer.getInteger("LandmarkTable.count", DEFAULT_LANDMARKS));
+    }
+
+    /**
+     * Build the landmark tables of a map and save them.
+     *
+     * @param args the map (configuration ID or path), the file to save to and the number of landmarks (optional).
+     */
+    public static void main(String[] args) {
+        //Example: java LandmarkTable ../maps/harbour.txt ../maps/harbour.txt.landmarks 8
+
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Please run the builder like this: java LandmarkTable <ConfID|map> <file.landmarks> [landmarks]");
+            System.exit(-1);
+        }
+        try {
+            Grid map;
+            if (A1main.isConf(args[0])) {
+                map = Conf.valueOf(args[0]).getMap();
+            } else {
+                map = A1main.loadMap(args[0], new ArrayList<>());
+            }
+            int count = args.length == 3 ? Integer.parseInt(args[2]) : DEFAULT_LANDMARKS;
+            build(map, count).save(Paths.get(args[1]));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Could not build the landmarks: " + e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+}
@@ -2,11 +2,14 @@
  *
  * This class contains the maps to be used for evaluation
  *
+ * The maps are shared by the whole JVM, so they are read-only: getMap returns a copy of the cells, and tides are set
+ * on a copy (see copy) or on snapshots of a map (see MapSnapshot and VersionedMap), never on the map itself.
+ *
  * @author at258
  *
  */
 
-public enum Map {
+public enum Map implements Grid {
 
 
     //************************TEST MAPS as discussed in lectures ********************
@@ -83,21 +86,41 @@ public enum Map {
             {0, 0, 0, 0, 0, 0, 0, 0}
     });
 
-    public final int[][] map;
+    private final int[][] map; // never changed, only copied.
+    private final GridMap grid; // holds the graph of legal moves of the map.
 
     Map(int[][] map) {
         this.map = map;
+        this.grid = new GridMap(map);
+    }
 
+    /**
+     * Get a copy of the map whose tides can be set, e.g. to search it after tides.
+     *
+     * @return a new grid map with the cells of the map.
+     */
+    public GridMap copy() {
+        return new GridMap(getMap());
     }
 
     /**
-     * Set a tide on the map (value 2) at the given coordinates.
+     * Get the graph of legal moves of the map. It is built once and reused by every search on the map.
      *
-     * @param row the row that the tide will be added.
-     * @param col the column that the tide will be added.
+     * @return the graph of legal moves.
      */
-    public void setTide(int row, int col) {
-        map[row][col] = 2;
+    @Override
+    public TriangleGraph getGraph() {
+        return grid.getGraph();
+    }
+
+    /**
+     * Get the version of the map, which never changes as no tide is set on it.
+     *
+     * @return the version of the map.
+     */
+    @Override
+    public int getVersion() {
+        return grid.getVersion();
     }
 
     /**
@@ -105,23 +128,23 @@ public enum Map {
      *
      * @return the number of islands.
      */
+    @Override
     public int countIslands() {
-        int rows = map.length;
-        int columns = map[0].length;
-
-        int count = 0;
-        for(int r=0; r< rows; r++) {
-            for (int c=0; c<columns; c++) {
-                if (map[r][c]==1) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        return grid.countIslands();
     }
 
+    /**
+     * Get a copy of the cells of the map, as the map is shared and must not be changed.
+     *
+     * @return the cells of the map.
+     */
+    @Override
     public int[][] getMap() {
-        return map;
+        int[][] copy = new int[map.length][];
+        for (int r = 0; r < map.length; r++) {
+            copy[r] = map[r].clone();
+        }
+        return copy;
     }
 
 
@@ -0,0 +1,213 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Loads a map and its route queries from a plain-text file, so that new maps do not need to be added to the Map and
+ * Conf enums. The file is read line by line and every cell is parsed straight into the row being built.
+ *
+ * File format:
+ * # comment lines start with '#', blank lines are ignored.
+ * 0 0 0 1 0      one line per row of the map: 0 (sea), 1 (island) or 2 (tide), optionally separated by
+ * 0 1 0 0 0      spaces, tabs or commas (so 00010 is also a valid row). All rows have the same number of columns.
+ * query 0 0 1 4  a route query: start row, start column, goal row, goal column.
+ *
+ * @author 210017984.
+ */
+public class MapLoader {
+
+    private static final String QUERY = "query";
+
+    // Initialise variables.
+    private final GridMap map;
+    private final ArrayList<Query> queries;
+
+    /**
+     * Create a loaded map.
+     *
+     * @param map     the map loaded.
+     * @param queries the route queries loaded.
+     */
+    private MapLoader(GridMap map, ArrayList<Query> queries) {
+        this.map = map;
+        this.queries = queries;
+    }
+
+    /**
+     * Get the map loaded from the file.
+     *
+     * @return the map.
+     */
+    public GridMap getMap() {
+        return map;
+    }
+
+    /**
+     * Get the route queries loaded from the file, in the order they appear.
+     *
+     * @return the queries.
+     */
+    public ArrayList<Query> getQueries() {
+        return queries;
+    }
+
+    /**
+     * Load a map and its queries from a text file.
+     *
+     * @param file the path of the file.
+     * @return the loaded map and queries.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not in the expected format.
+     */
+    public static MapLoader load(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            return load(reader, file.toString());
+        }
+    }
+
+    /**
+     * Load a map and its queries from a reader.
+     *
+     * @param reader the reader of the text.
+     * @param source the name of the source, used in error messages.
+     * @return the loaded map and queries.
+     * @throws IOException              if the text cannot be read.
+     * @throws IllegalArgumentException if the text is not in the expected format.
+     */
+    public static MapLoader load(BufferedReader reader, String source) throws IOException {
+        ArrayList<int[]> rows = new ArrayList<>();
+        ArrayList<int[]> queryLines = new ArrayList<>();
+        int[] rowBuffer = new int[64]; // reused for every row, copied once the width of the row is known.
+        int columns = -1;
+        int lineNo = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            int first = skipSeparators(line, 0);
+
+            // Skip blank lines and comments.
+            if (first == line.length() || line.charAt(first) == '#') {
+                continue;
+            }
+
+            if (line.startsWith(QUERY, first)) {
+                queryLines.add(parseQuery(line, first + QUERY.length(), source, lineNo));
+                continue;
+            }
+
+            int width = 0;
+            for (int i = first; i < line.length(); i++) {
+                char ch = line.charAt(i);
+                if (ch >= '0' && ch <= '2') {
+                    if (width == rowBuffer.length) {
+                        rowBuffer = Arrays.copyOf(rowBuffer, width * 2);
+                    }
+                    rowBuffer[width++] = ch - '0';
+                } else if (!isSeparator(ch)) {
+                    throw formatError(source, lineNo, "unexpected character '" + ch + "'");
+                }
+            }
+
+            if (columns == -1) {
+                columns = width;
+            } else if (width != columns) {
+                throw formatError(source, lineNo, "expected " + columns + " columns but found " + width);
+            }
+            rows.add(Arrays.copyOf(rowBuffer, width));
+        }
+
+        if (rows.isEmpty()) {
+            throw formatError(source, lineNo, "the map has no rows");
+        }
+
+        GridMap map = new GridMap(rows.toArray(new int[0][]));
+
+        // Check that every query is inside the map, now that its size is known.
+        ArrayList<Query> queries = new ArrayList<>();
+        for (int[] q : queryLines) {
+            for (int i = 0; i < 4; i += 2) {
+                if (q[i] < 0 || q[i] >= rows.size() || q[i + 1] < 0 || q[i + 1] >= columns) {
+                    throw formatError(source, q[4], "query coordinates (" + q[i] + "," + q[i + 1] + ") are outside the map");
+                }
+            }
+            queries.add(new Query(new Coord(q[0], q[1]), new Coord(q[2], q[3])));
+        }
+
+        return new MapLoader(map, queries);
+    }
+
+    /**
+     * Parse the four numbers of a query line.
+     *
+     * @param line   the line.
+     * @param from   the position after the query keyword.
+     * @param source the name of the source, used in error messages.
+     * @param lineNo the number of the line, used in error messages.
+     * @return the start row, start column, goal row, goal column and line number of the query.
+     */
+    private static int[] parseQuery(String line, int from, String source, int lineNo) {
+        int[] query = new int[5];
+        int i = from;
+        for (int n = 0; n < 4; n++) {
+            i = skipSeparators(line, i);
+            int value = 0;
+            int digits = 0;
+            while (i < line.length() && Character.isDigit(line.charAt(i))) {
+                value = value * 10 + (line.charAt(i++) - '0');
+                digits++;
+            }
+            if (digits == 0) {
+                throw formatError(source, lineNo, "a query needs 4 numbers: start row, start column, goal row, goal column");
+            }
+            query[n] = value;
+        }
+        if (skipSeparators(line, i) != line.length()) {
+            throw formatError(source, lineNo, "unexpected text after the query");
+        }
+        query[4] = lineNo;
+        return query;
+    }
+
+    /**
+     * Skip the separators (spaces, tabs and commas) of a line.
+     *
+     * @param line the line.
+     * @param from the position to start from.
+     * @return the position of the first character that is not a separator.
+     */
+    private static int skipSeparators(String line, int from) {
+        int i = from;
+        while (i < line.length() && isSeparator(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Check if a character separates cells or numbers.
+     *
+     * @param ch the character.
+     * @return true if it is a space, tab or comma.
+     */
+    private static boolean isSeparator(char ch) {
+        return ch == ' ' || ch == '\t' || ch == ',';
+    }
+
+    /**
+     * Create the exception thrown for a badly formatted file.
+     *
+     * @param source  the name of the source.
+     * @param lineNo  the number of the line.
+     * @param message what is wrong.
+     * @return the exception.
+     */
+    private static IllegalArgumentException formatError(String source, int lineNo, String message) {
+        return new IllegalArgumentException(source + ":" + lineNo + ": " + message);
+    }
+
+}
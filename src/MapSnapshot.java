@@ -0,0 +1,140 @@
+/**
+ * An immutable version of a map, so that searches on many threads can read it without locks while tides are set.
+ * Setting a tide does not change a snapshot, it creates the next version with withTide. The versions share their rows
+ * (copy-on-write): the next version copies the array of rows and the one row that changed, so a tide costs
+ * O(rows + columns) instead of a copy of the whole map, and every older version stays valid for the searches still
+ * reading it.
+ *
+ * The graph of a snapshot computes the neighbours from its rows when they are asked for, so a new version does not
+ * rebuild an AdjacencyTable either. A snapshot is a Grid but not a TidalGrid, so it cannot be given to code that sets
+ * tides; use withTide, or a VersionedMap to hold the latest version.
+ *
+ * @author 210017984.
+ */
+public class MapSnapshot implements Grid {
+
+    // Initialise variables.
+    private final int[][] rows; // shared with the other versions, never written.
+    private final int version;
+    private final int islands;
+    private final TriangleGraph graph;
+
+    /**
+     * Create a snapshot from its rows.
+     *
+     * @param rows    the rows of the snapshot, which must not be changed afterwards.
+     * @param version the version of the snapshot.
+     * @param islands the number of islands in the rows.
+     */
+    private MapSnapshot(int[][] rows, int version, int islands) {
+        this.rows = rows;
+        this.version = version;
+        this.islands = islands;
+        this.graph = new TriangleGraph(rows.length, rows[0].length) {
+            @Override
+            public int getCell(int row, int col) {
+                return MapSnapshot.this.rows[row][col];
+            }
+        };
+    }
+
+    /**
+     * Take a snapshot of a map, copying its cells once. Later changes to the map do not change the snapshot.
+     *
+     * @param map the map.
+     * @return the snapshot of the map, with the same version.
+     */
+    public static MapSnapshot of(Grid map) {
+        if (map instanceof MapSnapshot) {
+            return (MapSnapshot) map;
+        }
+        int version = map.getVersion(); // read first, like DistanceField, so a tide set while copying is not missed.
+        int[][] cells = map.getMap();
+        int[][] rows = new int[cells.length][];
+        for (int r = 0; r < cells.length; r++) {
+            rows[r] = cells[r].clone();
+        }
+        return new MapSnapshot(rows, version, map.countIslands());
+    }
+
+    /**
+     * Create the next version of the snapshot, with a tide (value 2) at the given coordinates. The snapshot itself
+     * does not change.
+     *
+     * @param row the row that the tide will be added.
+     * @param col the column that the tide will be added.
+     * @return the next version.
+     */
+    public MapSnapshot withTide(int row, int col) {
+        int[][] next = rows.clone(); // the other rows are shared.
+        next[row] = rows[row].clone();
+        next[row][col] = 2;
+        return new MapSnapshot(next, version + 1, rows[row][col] == 1 ? islands - 1 : islands);
+    }
+
+    /**
+     * Get the value of a cell (0 for sea, 1 for island, 2 for tide).
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return the value of the cell.
+     */
+    public int getCell(int row, int col) {
+        return rows[row][col];
+    }
+
+    /**
+     * Get a copy of the cells of the snapshot, as the rows are shared and must not be changed.
+     *
+     * @return the cells of the snapshot.
+     */
+    @Override
+    public int[][] getMap() {
+        int[][] copy = new int[rows.length][];
+        for (int r = 0; r < rows.length; r++) {
+            copy[r] = rows[r].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Get the graph of legal moves of the snapshot.
+     *
+     * @return the graph of legal moves.
+     */
+    @Override
+    public TriangleGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Get the version of the snapshot.
+     *
+     * @return the version of the snapshot.
+     */
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the snapshot itself, as it never changes.
+     *
+     * @return this snapshot.
+     */
+    @Override
+    public Grid snapshot() {
+        return this;
+    }
+
+    /**
+     * Count number of islands in the snapshot. Number of 1's.
+     *
+     * @return the number of islands.
+     */
+    @Override
+    public int countIslands() {
+        return islands;
+    }
+
+}
@@ -0,0 +1,271 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * A map stored in a compact binary file that is memory-mapped instead of read into the heap, so that opening it is
+ * near-instant and the heap used does not depend on the size of the map. The searches read the cells straight from
+ * the mapped file through its graph.
+ *
+ * File format (big-endian):
+ * int magic ("TMAP"), int version (1), int rows, int columns,
+ * the cells row by row, 2 bits per cell (4 cells per byte, first cell in the lowest bits): 0 sea, 1 island, 2 tide,
+ * int number of queries, then 4 ints per query: start row, start column, goal row, goal column.
+ *
+ * The file is mapped read-only. Tides set on the map are kept in the heap, in a bitmap of one bit per cell that is only
+ * allocated when the first tide is set, and are never written to the file.
+ *
+ * Convert a text map (see MapLoader) with
+ * java MappedMap <map.txt> <map.tmap>
+ *
+ * @author 210017984.
+ */
+public class MappedMap implements TidalGrid {
+
+    private static final int MAGIC = 0x544D4150; // "TMAP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    // Initialise variables.
+    private final MappedByteBuffer buffer;
+    private final int rows;
+    private final int columns;
+    private final ArrayList<Query> queries = new ArrayList<>();
+    private final TriangleGraph graph;
+    private long[] tides; // one bit per cell, set for the cells with a tide set by setTide; null until the first one.
+    private volatile int version = 0; // incremented by every tide.
+
+    /**
+     * Open a binary map file.
+     *
+     * @param file the path of the file.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a binary map, or a query is outside the map.
+     */
+    public MappedMap(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IllegalArgumentException(file + ": not a binary map (file too short)");
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException(file + ": not a binary map (wrong header)");
+        }
+        this.rows = buffer.getInt(8);
+        this.columns = buffer.getInt(12);
+
+        long cellBytes = cellBytes(rows, columns);
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE || buffer.capacity() < HEADER_BYTES + cellBytes + 4) {
+            throw new IllegalArgumentException(file + ": the size of the map does not match the file");
+        }
+
+        // Read the queries stored after the cells.
+        int position = (int) (HEADER_BYTES + cellBytes);
+        int count = buffer.getInt(position);
+        if (count < 0 || buffer.capacity() < position + 4 + 16L * count) {
+            throw new IllegalArgumentException(file + ": the queries do not match the file");
+        }
+        for (int i = 0; i < count; i++) {
+            int at = position + 4 + 16 * i;
+            // Check that the query is inside the map, like MapLoader does for text maps.
+            for (int offset = 0; offset < 16; offset += 8) {
+                int row = buffer.getInt(at + offset);
+                int col = buffer.getInt(at + offset + 4);
+                if (row < 0 || row >= rows || col < 0 || col >= columns) {
+                    throw new IllegalArgumentException(file + ": query " + i + " coordinates (" + row + "," + col + ") are outside the map");
+                }
+            }
+            queries.add(new Query(new Coord(buffer.getInt(at), buffer.getInt(at + 4)), new Coord(buffer.getInt(at + 8), buffer.getInt(at + 12))));
+        }
+
+        // The graph reads the cells straight from the mapped file.
+        this.graph = new TriangleGraph(rows, columns) {
+            @Override
+            public int getCell(int row, int col) {
+                return MappedMap.this.getCell(row, col);
+            }
+        };
+    }
+
+    public static void main(String[] args) {
+        //Example: java MappedMap ../maps/harbour.txt ../maps/harbour.tmap
+
+        if (args.length != 2) {
+            System.out.println("Please run the converter like this: java MappedMap <map.txt> <map.tmap>");
+            System.exit(-1);
+        }
+        try {
+            MapLoader loaded = MapLoader.load(Paths.get(args[0]));
+            write(loaded.getMap(), loaded.getQueries(), Paths.get(args[1]));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Could not convert the map: " + e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Get the number of bytes used by the cells of a map.
+     *
+     * @param rows    the number of rows.
+     * @param columns the number of columns.
+     * @return the number of bytes of the cells.
+     */
+    private static long cellBytes(int rows, int columns) {
+        return ((long) rows * columns + 3) / 4;
+    }
+
+    /**
+     * Write a map and its queries to a binary map file.
+     *
+     * @param map     the map to write.
+     * @param queries the route queries to store with the map.
+     * @param file    the path of the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(Grid map, ArrayList<Query> queries, Path file) throws IOException {
+        int[][] cells = map.getMap();
+        int rows = cells.length;
+        int columns = cells[0].length;
+
+        try (OutputStream out = Files.newOutputStream(file)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns);
+            out.write(header.array());
+
+            // Pack 4 cells per byte, one row of the map at a time.
+            byte[] packed = new byte[8192];
+            int length = 0;
+            int current = 0;
+            int inByte = 0;
+            for (int[] row : cells) {
+                for (int cell : row) {
+                    current |= (cell & 3) << (inByte * 2);
+                    if (++inByte == 4) {
+                        packed[length++] = (byte) current;
+                        current = 0;
+                        inByte = 0;
+                        if (length == packed.length) {
+                            out.write(packed, 0, length);
+                            length = 0;
+                        }
+                    }
+                }
+            }
+            if (inByte > 0) {
+                packed[length++] = (byte) current;
+            }
+            out.write(packed, 0, length);
+
+            ByteBuffer tail = ByteBuffer.allocate(4 + 16 * queries.size());
+            tail.putInt(queries.size());
+            for (Query query : queries) {
+                tail.putInt(query.getStart().getR()).putInt(query.getStart().getC());
+                tail.putInt(query.getGoal().getR()).putInt(query.getGoal().getC());
+            }
+            out.write(tail.array());
+        }
+    }
+
+    /**
+     * Get the route queries stored with the map.
+     *
+     * @return the queries.
+     */
+    public ArrayList<Query> getQueries() {
+        return queries;
+    }
+
+    /**
+     * Get the value of a cell, read from the mapped file.
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return the value of the cell (0 for sea, 1 for island, 2 for tide).
+     */
+    public int getCell(int row, int col) {
+        int cell = row * columns + col;
+        if (tides != null && (tides[cell >>> 6] & (1L << cell)) != 0) {
+            return 2;
+        }
+        return (buffer.get(HEADER_BYTES + (cell >>> 2)) >>> ((cell & 3) * 2)) & 3;
+    }
+
+    /**
+     * Copy the cells of the map into the heap. Only meant for small maps (e.g. to print them).
+     *
+     * @return a copy of the cells of the map.
+     */
+    @Override
+    public int[][] getMap() {
+        int[][] cells = new int[rows][columns];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                cells[r][c] = getCell(r, c);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Get the graph of legal moves of the map, which reads the cells from the mapped file.
+     *
+     * @return the graph of legal moves.
+     */
+    @Override
+    public TriangleGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Set a tide on the map (value 2) at the given coordinates. The file is not changed.
+     *
+     * @param row the row that the tide will be added.
+     * @param col the column that the tide will be added.
+     */
+    @Override
+    public void setTide(int row, int col) {
+        int cell = row * columns + col;
+        if (tides == null) {
+            tides = new long[(int) (((long) rows * columns + 63) >>> 6)];
+        }
+        tides[cell >>> 6] |= 1L << cell; // the shift only uses the low 6 bits of the cell.
+        version++;
+    }
+
+    /**
+     * Get the version of the map, which changes every time a tide is set.
+     *
+     * @return the version of the map.
+     */
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Count number of islands in the map. Number of 1's.
+     *
+     * @return the number of islands.
+     */
+    @Override
+    public int countIslands() {
+        int count = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                if (getCell(r, c) == 1) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+}
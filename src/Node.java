@@ -12,6 +12,7 @@ public class Node {
     private Coord state;
     private Node parent;
     private int depth;
+    private float pathCost;
     private Coord goal;
     private double h_Cost = 0;
     private double f_Cost = 0;
@@ -26,6 +27,7 @@ public class Node {
         this.state = state;
         this.parent = parent;
         this.depth = calculateDepth(); // calculate depth of node using the calculateDepth function.
+        this.pathCost = calculatePathCost();
     }
 
     /**
@@ -35,16 +37,35 @@ public class Node {
      * @param state     the coordinates for the state of the node.
      * @param goal      the coordinates of the goal state.
      * @param heuristic the heuristic to be used.
+     * @param landmarks the landmark table of the map for the heuristic L, null otherwise.
      * @param algo      the algorithm to be used -> important for calculating the f_cost.
-     * @param start     the coordinates of the starting position -> important for calculating the f_cost.
      */
-    public Node(Node parent, Coord state, Coord goal, char heuristic, String algo, Coord start) {
+    public Node(Node parent, Coord state, Coord goal, char heuristic, LandmarkTable landmarks, String algo) {
         this.state = state;
         this.parent = parent;
         this.depth = calculateDepth();
+        this.pathCost = calculatePathCost();
         this.goal = goal;
-        this.h_Cost = heuristicScore(heuristic);
-        this.f_Cost = calculateFCost(algo, start);
+        this.h_Cost = heuristicScore(heuristic, landmarks);
+        this.f_Cost = calculateFCost(algo);
+    }
+
+    /**
+     * Create a new node (used for informed search), reading its heuristic cost from a heuristic table.
+     *
+     * @param parent     the parent node.
+     * @param state      the coordinates for the state of the node.
+     * @param heuristics the heuristic table of the goal state.
+     * @param algo       the algorithm to be used -> important for calculating the f_cost.
+     */
+    public Node(Node parent, Coord state, HeuristicTable heuristics, String algo) {
+        this.state = state;
+        this.parent = parent;
+        this.depth = calculateDepth();
+        this.pathCost = calculatePathCost();
+        this.goal = heuristics.getGoal();
+        this.h_Cost = heuristics.get(state.getR(), state.getC()); // a single array load once computed.
+        this.f_Cost = calculateFCost(algo);
     }
 
     /**
@@ -75,13 +96,12 @@ public class Node {
     }
 
     /**
-     * Get the cost of the path up to the current node from the starting position.
+     * Get the cost of the path up to the current node from the root of its search tree.
      *
-     * @param start the coordinates of the starting position.
      * @return the cost of the path.
      */
-    public float getPathCost(Coord start) {
-        return getPath(start).size() - 1;
+    public float getPathCost() {
+        return pathCost;
     }
 
     /**
@@ -112,20 +132,29 @@ public class Node {
         return (parent == null) ? 1 : parent.depth + 1;
     }
 
+    /**
+     * Calculate path cost from the parent's path cost, as every move costs 1.
+     *
+     * @return the cost of the path up to the node.
+     */
+    private float calculatePathCost() {
+        // If parent == null (initial case), then return 0. Otherwise return the path cost of the parent node + 1.
+        return (parent == null) ? 0 : parent.pathCost + 1;
+    }
+
     /**
      * Calculate f_cost depending on the algorithm used.
      *
-     * @param algo  the algorithm used.
-     * @param start the coordinates of the starting position.
+     * @param algo the algorithm used.
      * @return the calculated f_cost.
      */
-    private double calculateFCost(String algo, Coord start) {
+    private double calculateFCost(String algo) {
         switch (algo) {
             case "BestF":
                 return getH_Cost();
             case "AStar":
                 // AStar combines heuristic cost with path cost.
-                return getH_Cost() + getPathCost(start);
+                return getH_Cost() + getPathCost();
         }
         return 0;
     }
@@ -164,24 +193,60 @@ public class Node {
 
     /**
      * Calculate heuristic cost. Available heuristics include Manhattan cartesian, Manhattan triangle,
-     * Euclidean distance, and Chebyshev distance.
+     * Euclidean distance, Chebyshev distance, and landmarks.
      *
      * @param heuristic the heuristic being used.
+     * @param landmarks the landmark table of the map for the heuristic L, null otherwise.
      * @return manhattan distance.
      */
-    private double heuristicScore(char heuristic) {
-        int deltaX = goal.getR() - getState().getR();
-        int deltaY = goal.getC() - getState().getC();
+    private double heuristicScore(char heuristic, LandmarkTable landmarks) {
+        return heuristicScore(heuristic, landmarks, getState().getR(), getState().getC(), goal);
+    }
+
+    /**
+     * Calculate heuristic cost of a cell without creating a node, for the heuristics that only need the coordinates
+     * (M, T, E and C).
+     *
+     * @param heuristic the heuristic being used.
+     * @param row       the row of the cell.
+     * @param col       the column of the cell.
+     * @param goal      the coordinates of the goal state.
+     * @return the heuristic cost of the cell.
+     */
+    public static double heuristicScore(char heuristic, int row, int col, Coord goal) {
+        return heuristicScore(heuristic, null, row, col, goal);
+    }
+
+    /**
+     * Calculate heuristic cost of a cell without creating a node. Available heuristics include Manhattan cartesian,
+     * Manhattan triangle, Euclidean distance, Chebyshev distance, and landmarks (from the landmark table of the map).
+     *
+     * @param heuristic the heuristic being used.
+     * @param landmarks the landmark table of the map for the heuristic L, null otherwise.
+     * @param row       the row of the cell.
+     * @param col       the column of the cell.
+     * @param goal      the coordinates of the goal state.
+     * @return the heuristic cost of the cell.
+     * @throws IllegalStateException if the heuristic is L and there is no landmark table.
+     */
+    public static double heuristicScore(char heuristic, LandmarkTable landmarks, int row, int col, Coord goal) {
+        int deltaX = goal.getR() - row;
+        int deltaY = goal.getC() - col;
 
         switch (heuristic) {
             case 'M':
                 return Math.abs(deltaX) + Math.abs(deltaY); // return manhattan distance (Cartesian Coordinates).
             case 'T':
-                return manhattanTriangle(); // return manhattan distance (Triangle Grid).
+                return manhattanTriangle(row, col, goal); // return manhattan distance (Triangle Grid).
             case 'E':
                 return Math.sqrt(Math.pow(deltaX, 2) + Math.pow(deltaY, 2)); // return Euclidian distance.
             case 'C':
                 return Math.max(Math.abs(deltaX), Math.abs(deltaY)); // return Chebyshev distance.
+            case 'L':
+                if (landmarks == null) {
+                    throw new IllegalStateException("The heuristic L needs the landmark table of the map, see Search.setLandmarks.");
+                }
+                return landmarks.lowerBound(row, col, goal); // return landmark (ALT) lower bound.
 
         }
         return 0;
@@ -191,12 +256,17 @@ public class Node {
      * Compute the manhattan distance using the triangle grid method. Following the calculations specified in the
      * lectures.
      *
+     * @param row  the row of the cell.
+     * @param col  the column of the cell.
+     * @param goal the coordinates of the goal state.
      * @return the manhattan distance using the triangle grid method.
      */
-    private double manhattanTriangle() {
-        double a = -state.getR();
-        double b = (state.getR() + state.getC() - state.getTriangleDirection()) / 2;
-        double c = (state.getR() + state.getC() - state.getTriangleDirection()) / 2 - state.getR() + state.getTriangleDirection();
+    private static double manhattanTriangle(int row, int col, Coord goal) {
+        int direction = Coord.getTriangleDirection(row, col);
+
+        double a = -row;
+        double b = (row + col - direction) / 2;
+        double c = (row + col - direction) / 2 - row + direction;
 
         double aG = -goal.getR();
         double bG = (goal.getR() + goal.getC() - goal.getTriangleDirection()) / 2;
@@ -0,0 +1,265 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Stack;
+
+/**
+ * The NodeSearch class containing common methods used by both the UninformedSearch and InformedSearch classes: the
+ * searches that build their search tree out of Node objects, with a frontier and an explored list of nodes.
+ *
+ * @author 210017984.
+ */
+public abstract class NodeSearch extends Search {
+
+    // Initialise variables.
+    private int[] nextStates = new int[TriangleGraph.MAX_NEIGHBOURS]; // cells of the next legal states of a state.
+    private ArrayList<Node> explored = new ArrayList<>();
+    // Constant-time membership of the states in the frontier and explored list, keyed by cell index.
+    // Index 0 is used by every search, index 1 only by the second (inverse) search of BIDIRECTIONAL.
+    private BitSet[] frontierIndex = {new BitSet(), new BitSet()};
+    private BitSet[] exploredIndex = {new BitSet(), new BitSet()};
+
+    /**
+     * Create a new NodeSearch.
+     *
+     * @param map   the map in the selected configuration.
+     * @param start the starting coordinates.
+     * @param goal  the goal coordinates.
+     */
+    public NodeSearch(Grid map, Coord start, Coord goal) {
+        super(map, start, goal);
+    }
+
+    /**
+     * Create a new NodeSearch.
+     *
+     * @param map       the map in the selected configuration.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     */
+    public NodeSearch(Grid map, Coord start, Coord goal, char heuristic) {
+        super(map, start, goal, heuristic);
+    }
+
+    /**
+     * Set a new start and goal, clearing the explored states of the previous run as well as its results.
+     *
+     * @param start the starting coordinates.
+     * @param goal  the goal coordinates.
+     */
+    @Override
+    public void setQuery(Coord start, Coord goal) {
+        super.setQuery(start, goal);
+        explored.clear();
+        for (int i = 0; i < frontierIndex.length; i++) {
+            frontierIndex[i].clear();
+            exploredIndex[i].clear();
+        }
+    }
+
+    /**
+     * Get the side of the search a frontier number belongs to. Only the second frontier of BIDIRECTIONAL (number 2)
+     * uses its own membership sets.
+     *
+     * @param frontierNo the number of frontier.
+     * @return 1 for the second frontier of BIDIRECTIONAL, 0 otherwise.
+     */
+    private int side(int frontierNo) {
+        return frontierNo == 2 ? 1 : 0;
+    }
+
+    /**
+     * Check in constant time if a node with the state passed in is currently in the frontier.
+     *
+     * @param state      the state that we are looking.
+     * @param frontierNo the number of frontier. Used for BIDIRECTIONAL because it uses 2 frontiers.
+     * @return true if the state is in the frontier, false otherwise.
+     */
+    public boolean isInFrontier(Coord state, int frontierNo) {
+        return frontierIndex[side(frontierNo)].get(cellIndex(state));
+    }
+
+    /**
+     * Check in constant time if a node with the state passed in was already explored.
+     *
+     * @param state      the state that we are looking.
+     * @param frontierNo the number of frontier. Used for BIDIRECTIONAL because it uses 2 explored lists.
+     * @return true if the state was explored, false otherwise.
+     */
+    public boolean isExplored(Coord state, int frontierNo) {
+        return exploredIndex[side(frontierNo)].get(cellIndex(state));
+    }
+
+    /**
+     * Get nodes explored.
+     *
+     * @return ArrayList containing the nodes explored.
+     */
+    public ArrayList<Node> getExplored() {
+        return explored;
+    }
+
+    /**
+     * Add a node to the explored ArrayList passed in.
+     *
+     * @param node     the node to be added.
+     * @param explored the explored arraylist to add a node to.
+     */
+    public void addExplored(Node node, ArrayList<Node> explored) {
+        addExplored(node, explored, 0);
+    }
+
+    /**
+     * Add a node to the explored ArrayList passed in, marking its state as explored.
+     *
+     * @param node       the node to be added.
+     * @param explored   the explored arraylist to add a node to.
+     * @param frontierNo the number of frontier. Used for BIDIRECTIONAL because it uses 2 explored lists.
+     */
+    public void addExplored(Node node, ArrayList<Node> explored, int frontierNo) {
+        explored.add(node);
+        exploredIndex[side(frontierNo)].set(cellIndex(node.getState()));
+    }
+
+    /**
+     * Print all the states currently in the frontier.
+     *
+     * @param frontier the frontier to print.
+     */
+    public abstract void printFrontier(Collection<Node> frontier);
+
+    /**
+     * Expand a node by finding its suitable successors (next possible moves).
+     *
+     * @param node       the node to be expanded.
+     * @param frontier   the frontier to be passed in the addSuitableSuccessors to check that a state was not already
+     *                   explored or in the frontier.
+     * @param frontierNo the number of frontier. Used for BIDIRECTIONAL because it uses 2 frontiers.
+     * @return an ArrayList containing all the legal and available successors of the node passed in.
+     */
+    public ArrayList<Node> expand(Node node, Collection<Node> frontier, int frontierNo) {
+
+        int cell = cellIndex(node.getState());
+
+        ArrayList<Node> successors = new ArrayList<>(); // ArrayList to hold the successor nodes.
+
+        // Iterate through the next legal states, already in tie breaking order in the graph.
+        int count = getGraph().neighbours(cell, nextStates);
+        for (int i = 0; i < count; i++) {
+            addSuitableSuccessors(frontier, frontierNo, getGraph().coord(nextStates[i]), successors, node);
+        }
+        return successors;
+    }
+
+    /**
+     * Ensures that the state being explored is not contained already in the frontier or was previously explored.
+     * If it is not, then it is added to the successors ArrayList passed in.
+     *
+     * @param frontier   the frontier to make the check if node is contained already.
+     * @param frontierNo the number of frontier. Used for BIDIRECTIONAL to get the states of the appropriate frontier,
+     *                   as it uses 2 different frontiers.
+     * @param state      the state being explored.
+     * @param successors the successors ArrayList - where we store all the suitable successors.
+     * @param parent     the parent node of the state.
+     */
+    public abstract void addSuitableSuccessors(Collection<Node> frontier, int frontierNo, Coord state, ArrayList<Node> successors, Node parent);
+
+    /**
+     * Inserts all the successors to the frontier.
+     *
+     * @param successors the successors ArrayList containing all the suitable successors.
+     */
+    public abstract void insertAll(ArrayList<Node> successors);
+
+    /**
+     * Insert a node to the frontier.
+     *
+     * @param node     the node to be added.
+     * @param frontier the frontier to add the node to.
+     */
+    public void insert(Node node, Collection<Node> frontier) {
+        insert(node, frontier, 0);
+    }
+
+    /**
+     * Insert a node to the frontier, marking its state as being in the frontier.
+     *
+     * @param node       the node to be added.
+     * @param frontier   the frontier to add the node to.
+     * @param frontierNo the number of frontier. Used for BIDIRECTIONAL because it uses 2 frontiers.
+     */
+    public void insert(Node node, Collection<Node> frontier, int frontierNo) {
+        frontier.add(node); // Add node.
+        markInFrontier(node, frontierNo);
+    }
+
+    /**
+     * Mark the state of a node as being in the frontier. Used when a node is added to the frontier without
+     * going through insert (e.g. addFirst for DFS).
+     *
+     * @param node       the node added to the frontier.
+     * @param frontierNo the number of frontier. Used for BIDIRECTIONAL because it uses 2 frontiers.
+     */
+    public void markInFrontier(Node node, int frontierNo) {
+        frontierIndex[side(frontierNo)].set(cellIndex(node.getState()));
+    }
+
+    /**
+     * Unmark the state of a node that was removed from the frontier.
+     *
+     * @param node       the node removed from the frontier (can be null if the frontier was empty).
+     * @param frontierNo the number of frontier. Used for BIDIRECTIONAL because it uses 2 frontiers.
+     * @return the node passed in.
+     */
+    public Node unmarkInFrontier(Node node, int frontierNo) {
+        if (node != null) {
+            frontierIndex[side(frontierNo)].clear(cellIndex(node.getState()));
+        }
+        return node;
+    }
+
+    /**
+     * Removes the first element of the frontier (the one with the lowest F_Cost currently in the frontier).
+     *
+     * @return the node removed.
+     */
+    public abstract Node removeFromFrontier();
+
+    /**
+     * Print final output (when goal node is reached).
+     *
+     * @param node the node from which we get the path to the start.
+     */
+    public void printOutput(Node node) {
+        Stack<Coord> pathStates = node.getPath(getStart());
+
+        // The start is at the top of the stack, so the path from start to goal is the stack in reverse.
+        for (int i = pathStates.size() - 1; i >= 0; i--) {
+            getSolution().add(pathStates.get(i));
+        }
+
+        pathCost = node.getPathCost();
+        nodesExplored = getExplored().size();
+
+        // if print flag is true, print the output.
+        if (isPrint()) {
+            // Print path, path cost, and number of nodes explored.
+            while (!pathStates.isEmpty()) {
+                System.out.print(pathStates.pop());
+            }
+            System.out.println("\n" + pathCost); // Print path cost.
+            System.out.println(nodesExplored); // Print nodes explored.
+        }
+    }
+
+    /**
+     * If the search could not find a solution, print fail message and the explored size.
+     */
+    @Override
+    public void failure() {
+        nodesExplored = getExplored().size();
+        super.failure();
+    }
+
+}
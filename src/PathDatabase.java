@@ -0,0 +1,374 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A compressed path database of a small map: for every start and goal, the first move (right, down, left or up) of a
+ * shortest route between them. A route is answered by following the first moves from the start, one lookup per move,
+ * without searching or allocating (see getDistance and route(int, int, int[])).
+ *
+ * The first moves of a start are found with a breadth first search from it, in the tie breaking order, and the
+ * searches of the starts run in parallel on a ForkJoinPool. The moves of a start are then kept as runs: a run is the
+ * first goal it covers and the move of its goals (2 bits, packed in one int with the goal). Goals that cannot be
+ * reached (and the start itself) take the move of the run they are in, so they never start a run; whether a goal can be
+ * reached is told by the connected areas of sea instead. A lookup is a binary search over the runs of the start.
+ *
+ * The database is only valid for the version of the map it was built on (see Grid.getVersion), and the work to build
+ * it grows with the square of the cells, so maps are limited to MAX_CELLS cells.
+ *
+ * @author 210017984.
+ */
+public class PathDatabase {
+
+    /**
+     * The most cells of a map with a path database.
+     */
+    public static final int MAX_CELLS = 1 << 14;
+
+    private static final int NONE = -1;
+    private static final int LEAF_STARTS = 8; // starts searched by one task before it stops splitting.
+
+    // Initialise variables.
+    private final int version;
+    private final int rows;
+    private final int columns;
+    private final int[] area; // the connected area of sea of every cell, NONE for islands and tides.
+    private final int[] firstRun; // the runs of a start are firstRun[start] to firstRun[start + 1] - 1.
+    private final int[] runs; // the first goal of every run, shifted left by 2, plus its move.
+
+    /**
+     * Build the path database of a map on the common pool.
+     *
+     * @param map the map.
+     */
+    public PathDatabase(Grid map) {
+        this(map, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Build the path database of a map.
+     *
+     * @param map  the map.
+     * @param pool the pool the searches of the starts run on.
+     * @throws IllegalArgumentException if the map has more than MAX_CELLS cells.
+     */
+    public PathDatabase(Grid map, ForkJoinPool pool) {
+        this.version = map.getVersion(); // read first, so that a tide set while building makes the database stale.
+        TriangleGraph graph = map.getGraph();
+        int cells = graph.getCells();
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("The map has " + cells + " cells, a path database takes at most " + MAX_CELLS + ".");
+        }
+        this.rows = graph.getRows();
+        this.columns = graph.getColumns();
+        this.area = areas(graph);
+
+        int[][] startRuns = new int[cells][];
+        pool.invoke(new BuildTask(graph, startRuns, 0, cells));
+        this.firstRun = new int[cells + 1];
+        for (int start = 0; start < cells; start++) {
+            firstRun[start + 1] = firstRun[start] + startRuns[start].length;
+        }
+        this.runs = new int[firstRun[cells]];
+        for (int start = 0; start < cells; start++) {
+            System.arraycopy(startRuns[start], 0, runs, firstRun[start], startRuns[start].length);
+        }
+    }
+
+    /**
+     * Label the connected areas of sea of a map.
+     *
+     * @param graph the graph of the map.
+     * @return the area of every cell, NONE for islands and tides.
+     */
+    private static int[] areas(TriangleGraph graph) {
+        int[] area = new int[graph.getCells()];
+        Arrays.fill(area, NONE);
+        int[] queue = new int[graph.getCells()];
+        int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+        for (int cell = 0; cell < area.length; cell++) {
+            if (area[cell] != NONE || !graph.isLegal(cell / graph.getColumns(), cell % graph.getColumns())) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            area[cell] = cell;
+            queue[tail++] = cell;
+            while (head < tail) {
+                int found = graph.neighbours(queue[head++], neighbours);
+                for (int i = 0; i < found; i++) {
+                    if (area[neighbours[i]] == NONE) {
+                        area[neighbours[i]] = cell;
+                        queue[tail++] = neighbours[i];
+                    }
+                }
+            }
+        }
+        return area;
+    }
+
+    /**
+     * Find the first moves of a start with a breadth first search, and compress them into runs.
+     *
+     * @param graph the graph of the map.
+     * @param start the start.
+     * @param first an array of the size of the map, for the first move towards every cell.
+     * @param queue an array of the size of the map, for the cells to search.
+     * @return the runs of the start.
+     */
+    private static int[] startRuns(TriangleGraph graph, int start, int[] first, int[] queue) {
+        Arrays.fill(first, NONE);
+        int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            int found = graph.neighbours(cell, neighbours);
+            for (int i = 0; i < found; i++) {
+                int next = neighbours[i];
+                if (next != start && first[next] == NONE) {
+                    // The cells next to the start are reached by their own move, the others by their parent's.
+                    first[next] = cell == start ? moveBetween(start, next, graph.getColumns()) : first[cell];
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        // The goals not reached keep the move of the run they are in, so the first run takes the move of the first
+        // goal reached.
+        int goal = 0;
+        while (goal < first.length && first[goal] == NONE) {
+            goal++;
+        }
+        int[] compressed = new int[4];
+        int count = 0;
+        int move = goal < first.length ? first[goal] : TriangleGraph.RIGHT;
+        compressed[count++] = move; // the first run starts at goal 0.
+        for (; goal < first.length; goal++) {
+            if (first[goal] != NONE && first[goal] != move) {
+                move = first[goal];
+                if (count == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, count * 2);
+                }
+                compressed[count++] = goal << 2 | move;
+            }
+        }
+        return Arrays.copyOf(compressed, count);
+    }
+
+    /**
+     * Get the move from a cell to one of its neighbours.
+     *
+     * @param from    the cell moving.
+     * @param to      the neighbour it moves to.
+     * @param columns the columns of the map.
+     * @return RIGHT, DOWN, LEFT or UP.
+     */
+    private static int moveBetween(int from, int to, int columns) {
+        // Vertical first, as a map of one column has them at from + 1 and from - 1.
+        if (to == from + columns) {
+            return TriangleGraph.DOWN;
+        }
+        if (to == from - columns) {
+            return TriangleGraph.UP;
+        }
+        return to == from + 1 ? TriangleGraph.RIGHT : TriangleGraph.LEFT;
+    }
+
+    /**
+     * Get the first move of a shortest route from a start to a goal that can be reached from it.
+     *
+     * @param start the start cell.
+     * @param goal  the goal cell.
+     * @return RIGHT, DOWN, LEFT or UP.
+     */
+    private int firstMove(int start, int goal) {
+        // The last run of the start that begins at or before the goal.
+        int low = firstRun[start];
+        int high = firstRun[start + 1] - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (runs[middle] >>> 2 <= goal) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return runs[low] & 3;
+    }
+
+    /**
+     * Check if a goal can be reached from a start. Like the flat searches, a start on an island or tide moves to its
+     * legal neighbours, but a goal on one is never reached (unless it is the start).
+     *
+     * @param start the start cell.
+     * @param goal  the goal cell.
+     * @return true if there is a route.
+     */
+    private boolean canReach(int start, int goal) {
+        if (start == goal) {
+            return true;
+        }
+        if (area[goal] == NONE) {
+            return false;
+        }
+        if (area[start] != NONE) {
+            return area[start] == area[goal];
+        }
+        for (int move = TriangleGraph.RIGHT; move <= TriangleGraph.UP; move++) {
+            int next = follow(start, move);
+            if (next != NONE && area[next] == area[goal]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the cell reached by a move, if it is legal.
+     *
+     * @param cell the cell moving.
+     * @param move the move.
+     * @return the cell reached, NONE if the move leaves the map, goes to an island or tide, or does not exist.
+     */
+    private int follow(int cell, int move) {
+        int next = TriangleGraph.adjacentCell(rows, columns, cell, move);
+        return next != NONE && area[next] != NONE ? next : NONE;
+    }
+
+    /**
+     * Get the cost of the shortest route from a start to a goal, by following the first moves.
+     *
+     * @param start the starting coordinates.
+     * @param goal  the goal coordinates.
+     * @return the cost of the shortest route, -1 if the goal cannot be reached.
+     */
+    public int getDistance(Coord start, Coord goal) {
+        return route(start.getR() * columns + start.getC(), goal.getR() * columns + goal.getC(), null);
+    }
+
+    /**
+     * Follow the first moves from a start to a goal, without allocating.
+     *
+     * @param start the start cell.
+     * @param goal  the goal cell.
+     * @param out   the array the cells of the route are written to (from the start to the goal), or null to only count
+     *              them; at least the cost of the route plus one long.
+     * @return the cost of the route, -1 if the goal cannot be reached.
+     */
+    public int route(int start, int goal, int[] out) {
+        if (!canReach(start, goal)) {
+            return -1;
+        }
+        int cell = start;
+        int moves = 0;
+        if (out != null) {
+            out[0] = start;
+        }
+        while (cell != goal) {
+            cell = follow(cell, firstMove(cell, goal));
+            moves++;
+            if (out != null) {
+                out[moves] = cell;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Get a shortest route from a start to a goal by following the first moves.
+     *
+     * @param start the starting coordinates.
+     * @param goal  the goal coordinates.
+     * @return the states of the route from the start to the goal, empty if the goal cannot be reached.
+     */
+    public ArrayList<Coord> route(Coord start, Coord goal) {
+        int[] cells = new int[rows * columns];
+        int moves = route(start.getR() * columns + start.getC(), goal.getR() * columns + goal.getC(), cells);
+        ArrayList<Coord> path = new ArrayList<>(moves + 1);
+        for (int i = 0; i <= moves; i++) {
+            path.add(new Coord(cells[i] / columns, cells[i] % columns));
+        }
+        return path;
+    }
+
+    /**
+     * Get the version of the map the database was built on.
+     *
+     * @return the version of the map.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the rows of the map the database was built on.
+     *
+     * @return the rows of the map.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the columns of the map the database was built on.
+     *
+     * @return the columns of the map.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the number of runs kept for all the starts.
+     *
+     * @return the number of runs.
+     */
+    public int getRuns() {
+        return runs.length;
+    }
+
+    /**
+     * A task searching a range of the starts, split in halves until it is small enough.
+     */
+    private static class BuildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TriangleGraph graph;
+        private final int[][] startRuns;
+        private final int from;
+        private final int to;
+
+        /**
+         * Create a task for the starts from cell from (inclusive) to cell to (exclusive).
+         *
+         * @param graph     the graph of the map.
+         * @param startRuns the array the runs of every start are written to.
+         * @param from      the first start of the task.
+         * @param to        the end of the starts of the task.
+         */
+        private BuildTask(TriangleGraph graph, int[][] startRuns, int from, int to) {
+            this.graph = graph;
+            this.startRuns = startRuns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_STARTS) {
+                int[] first = new int[graph.getCells()];
+                int[] queue = new int[graph.getCells()];
+                for (int start = from; start < to; start++) {
+                    startRuns[start] = startRuns(graph, start, first, queue);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BuildTask(graph, startRuns, from, middle), new BuildTask(graph, startRuns, middle, to));
+            }
+        }
+    }
+
+}
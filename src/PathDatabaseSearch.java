@@ -0,0 +1,71 @@
+import java.util.ArrayList;
+
+/**
+ * The PathDatabaseSearch class answers a route query by following the first moves of a path database (see
+ * PathDatabase) from the start to the goal. Nothing is searched, so the route is found in one lookup per move whatever
+ * the map, and it is the shortest, like AStar's. nodesExplored counts the lookups, which is the cost of the route.
+ *
+ * The database can be built once and shared by the searches of many queries on the map, but must be built again after
+ * a tide changes the map: a search with a database built for another version or size of the map throws an
+ * IllegalStateException rather than follow moves that may no longer be legal.
+ *
+ * @author 210017984.
+ */
+public class PathDatabaseSearch extends Search {
+
+    // Initialise variables.
+    private final PathDatabase database;
+    private final int[] cells; // the cells of the route, written by the database.
+
+    /**
+     * Create a path database search instance.
+     *
+     * @param database the path database of the map.
+     * @param map      the map passed in.
+     * @param start    the starting coordinates.
+     * @param goal     the goal coordinates.
+     */
+    public PathDatabaseSearch(PathDatabase database, Grid map, Coord start, Coord goal) {
+        super(map, start, goal);
+        this.database = database;
+        this.cells = new int[database.getRows() * database.getColumns()];
+    }
+
+    /**
+     * Follow the first moves from the start to the goal. If a route is found, its path, cost, and explored nodes are
+     * printed.
+     *
+     * @param initialNode the initial node, only used for its state.
+     * @throws IllegalStateException if the database was not built for the current version of the map.
+     */
+    @Override
+    public void loopFrontier(Node initialNode) {
+        TriangleGraph graph = getGraph();
+        if (database.getVersion() != getMap().getVersion() || database.getRows() != graph.getRows()
+                || database.getColumns() != graph.getColumns()) {
+            throw new IllegalStateException("The path database was built for another map, or before a tide was set on it.");
+        }
+        ArrayList<Coord> path = getSolution();
+        path.clear();
+        int moves = database.route(cellIndex(initialNode.getState()), cellIndex(getGoal()), cells);
+        if (moves < 0) {
+            return;
+        }
+        for (int i = 0; i <= moves; i++) {
+            path.add(graph.coord(cells[i]));
+        }
+        setFoundSolution(true);
+        pathCost = moves;
+        nodesExplored = moves;
+
+        // if print flag is true, print the output.
+        if (isPrint()) {
+            for (Coord state : path) {
+                System.out.print(state);
+            }
+            System.out.println("\n" + pathCost); // Print path cost.
+            System.out.println(nodesExplored); // Print nodes explored.
+        }
+    }
+
+}
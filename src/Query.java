@@ -0,0 +1,45 @@
+/**
+ * A route query: the departure and destination ports of a ferry on a map.
+ *
+ * @author 210017984.
+ */
+public class Query {
+
+    // Initialise variables.
+    private final Coord start;
+    private final Coord goal;
+
+    /**
+     * Create a new query.
+     *
+     * @param start the starting coordinates (departure port).
+     * @param goal  the goal coordinates (destination port).
+     */
+    public Query(Coord start, Coord goal) {
+        this.start = start;
+        this.goal = goal;
+    }
+
+    /**
+     * Get coordinates of the starting position.
+     *
+     * @return the coordinates of the starting position.
+     */
+    public Coord getStart() {
+        return start;
+    }
+
+    /**
+     * Get coordinates of the goal position.
+     *
+     * @return the coordinates of the goal position.
+     */
+    public Coord getGoal() {
+        return goal;
+    }
+
+    public String toString() {
+        return start + "->" + goal;
+    }
+
+}
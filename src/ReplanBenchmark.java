@@ -0,0 +1,190 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Benchmark class used to compare incremental replanning (IncrementalPlanner) against replanning from scratch, over
+ * the tide sequence of HighTides: tides are added one at a time, and after every tide the route is planned again both
+ * ways. The tides come from a seeded random generator, so both ways see the same tides on every run. For each case it
+ * reports, as a CSV table, the time and the states expanded by each way, and the number of tides after which the
+ * costs of the two routes were different (which should be 0). Each generated map is also run with its start on an
+ * island, which the ferry may still sail out of.
+ *
+ * run with
+ * java ReplanBenchmark [tides] [seed] [size of generated maps ...]
+ *
+ * @author 210017984.
+ */
+public class ReplanBenchmark {
+
+    private static final char[] HEURISTICS = {'M', 'T', 'E', 'C'};
+
+    // Initialise variables.
+    private final int maxTides;
+    private final long seed;
+
+    /**
+     * Create a new benchmark.
+     *
+     * @param maxTides the number of tides added on every map (at most the number of free cells).
+     * @param seed     the seed of the tides.
+     */
+    public ReplanBenchmark(int maxTides, long seed) {
+        this.maxTides = maxTides;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        //Example: java ReplanBenchmark 200 1 64 256
+
+        try {
+            int tides = args.length >= 1 ? Integer.parseInt(args[0]) : 100;
+            long seed = args.length >= 2 ? Long.parseLong(args[1]) : 1;
+            ArrayList<Integer> sizes = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) {
+                sizes.add(Integer.parseInt(args[i]));
+            }
+            if (sizes.isEmpty()) {
+                sizes.add(64);
+                sizes.add(256);
+            }
+
+            ReplanBenchmark benchmark = new ReplanBenchmark(tides, seed);
+            System.out.println("case,heuristic,tides,initialExpanded,incrementalMs,incrementalExpanded,fullMs,fullExplored,costMismatches");
+
+            for (Conf conf : Conf.values()) {
+                for (char heuristic : HEURISTICS) {
+                    // The configurations share their maps, so the tides are set on a copy.
+                    benchmark.runCase(conf.name(), copyOf(conf.getMap()), conf.getS(), conf.getG(), heuristic);
+                }
+            }
+            for (int size : sizes) {
+                for (char heuristic : HEURISTICS) {
+                    benchmark.runCase("GEN" + size, generateRoutableMap(size), new Coord(0, 0), new Coord(size - 1, size - 1), heuristic);
+                }
+                for (char heuristic : HEURISTICS) {
+                    GridMap map = islandAt(generateRoutableMap(size), new Coord(0, 0));
+                    benchmark.runCase("GEN" + size + "ISLANDSTART", map, new Coord(0, 0), new Coord(size - 1, size - 1), heuristic);
+                }
+            }
+        } catch (NumberFormatException nfe) {
+            System.out.println("Please run the benchmark like this: java ReplanBenchmark <tides> <seed> <size> ...");
+        }
+    }
+
+    /**
+     * Copy a map, so that tides can be set on the copy only.
+     *
+     * @param map the map to copy.
+     * @return the copy.
+     */
+    private static GridMap copyOf(Grid map) {
+        int[][] cells = map.getMap();
+        int[][] copy = new int[cells.length][];
+        for (int r = 0; r < cells.length; r++) {
+            copy[r] = cells[r].clone();
+        }
+        return new GridMap(copy);
+    }
+
+    /**
+     * Copy a map with an island on one of its cells.
+     *
+     * @param map  the map to copy.
+     * @param cell the coordinates of the island.
+     * @return the copy.
+     */
+    private static GridMap islandAt(Grid map, Coord cell) {
+        GridMap copy = copyOf(map);
+        copy.getMap()[cell.getR()][cell.getC()] = 1; // before the graph of the copy is built.
+        return copy;
+    }
+
+    /**
+     * Generate a map like Benchmark does, trying the next seeds until the opposite corners are connected, so that the
+     * route has something to be replanned around.
+     *
+     * @param size the number of rows and columns.
+     * @return the generated map.
+     */
+    private static GridMap generateRoutableMap(int size) {
+        for (long seed = size; ; seed++) {
+            GridMap map = Benchmark.generateMap(size, 0.1, seed);
+            Search search = new CompactSearch(map, new Coord(0, 0), new Coord(size - 1, size - 1));
+            search.treeSearch("BFS", false);
+            if (search.isFoundSolution()) {
+                return map;
+            }
+        }
+    }
+
+    /**
+     * Add the tides one at a time on one problem, replanning incrementally and from scratch after each of them, and
+     * print a row of results.
+     *
+     * @param name      the name of the case.
+     * @param map       the map of the problem, changed by the tides.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param heuristic the heuristic used by both ways.
+     */
+    private void runCase(String name, TidalGrid map, Coord start, Coord goal, char heuristic) {
+        HighTides highTides = new HighTides(map, start, goal, heuristic, new Random(seed));
+        IncrementalPlanner planner = new IncrementalPlanner(map, start, goal, heuristic);
+        planner.plan();
+        int initialExpanded = planner.getExpanded();
+
+        int tides = Math.min(maxTides, countTideCells(map, start, goal));
+        long incrementalNanos = 0;
+        long fullNanos = 0;
+        long fullExplored = 0;
+        int mismatches = 0;
+        CompactSearch full = new CompactSearch(map, start, goal, heuristic); // reused, so only the search is timed.
+        for (int tide = 1; tide <= tides; tide++) {
+            Coord cell = highTides.nextTide(map);
+
+            long begin = System.nanoTime();
+            planner.setTide(cell.getR(), cell.getC()); // also sets the tide on the map.
+            planner.plan();
+            incrementalNanos += System.nanoTime() - begin;
+
+            map.getGraph(); // build the graph of the map again after the tide, outside the timing.
+            full.setQuery(start, goal);
+            begin = System.nanoTime();
+            full.treeSearch("AStar", false);
+            fullNanos += System.nanoTime() - begin;
+            fullExplored += full.nodesExplored;
+
+            float fullCost = full.isFoundSolution() ? full.pathCost : Float.POSITIVE_INFINITY;
+            if (fullCost != planner.getPathCost()) {
+                mismatches++;
+            }
+        }
+
+        System.out.printf("%s,%c,%d,%d,%.3f,%d,%.3f,%d,%d%n", name, heuristic, tides, initialExpanded,
+                incrementalNanos / 1e6, planner.getTotalExpanded() - initialExpanded, fullNanos / 1e6, fullExplored,
+                mismatches);
+    }
+
+    /**
+     * Count the cells HighTides can pick for a tide (it picks from every row and column but the last ones), so that
+     * no more tides than that are asked for.
+     *
+     * @param map   the map of the problem.
+     * @param start the starting coordinates.
+     * @param goal  the goal coordinates.
+     * @return the number of cells that can become tides.
+     */
+    private static int countTideCells(Grid map, Coord start, Coord goal) {
+        int[][] cells = map.getMap();
+        int count = 0;
+        for (int r = 0; r < cells.length - 1; r++) {
+            for (int c = 0; c < cells[r].length - 1; c++) {
+                if (cells[r][c] != 1 && cells[r][c] != 2 && !A1main.isCoord(start, r, c) && !A1main.isCoord(goal, r, c)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,98 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The answer to a route query: the route found (if any), its cost and the number of nodes explored to find it.
+ * It does not change once created, so it can be shared between threads and kept in caches.
+ *
+ * @author 210017984.
+ */
+public class Route {
+
+    // Initialise variables.
+    private final Query query;
+    private final List<Coord> path;
+    private final float pathCost;
+    private final int nodesExplored;
+
+    /**
+     * Copy the result of a search, so that the search can be reused.
+     *
+     * @param query  the query that was run.
+     * @param search the search that ran it.
+     */
+    public Route(Query query, Search search) {
+        this(query, new ArrayList<>(search.getSolution()), search.pathCost, search.nodesExplored);
+    }
+
+    /**
+     * Create the answer to a query.
+     *
+     * @param query         the query that was run.
+     * @param path          the route found, empty if there is none.
+     * @param pathCost      the cost of the route.
+     * @param nodesExplored the number of nodes explored to find it.
+     */
+    public Route(Query query, ArrayList<Coord> path, float pathCost, int nodesExplored) {
+        this.query = query;
+        this.path = Collections.unmodifiableList(path);
+        this.pathCost = pathCost;
+        this.nodesExplored = nodesExplored;
+    }
+
+    /**
+     * Get the query of this route.
+     *
+     * @return the query.
+     */
+    public Query getQuery() {
+        return query;
+    }
+
+    /**
+     * Get whether a route was found.
+     *
+     * @return true if a route was found, false otherwise.
+     */
+    public boolean isFound() {
+        return !path.isEmpty();
+    }
+
+    /**
+     * Get the route found, from the start to the goal. Empty if no route was found.
+     *
+     * @return the states of the route.
+     */
+    public List<Coord> getPath() {
+        return path;
+    }
+
+    /**
+     * Get the cost of the route found.
+     *
+     * @return the path cost.
+     */
+    public float getPathCost() {
+        return pathCost;
+    }
+
+    /**
+     * Get the number of nodes explored to answer the query.
+     *
+     * @return the nodes explored.
+     */
+    public int getNodesExplored() {
+        return nodesExplored;
+    }
+
+    /**
+     * Format the route like the responses of RouteServer, e.g. (1,1)(1,2) 1.0 2 or fail 5.
+     *
+     * @return the route as a line.
+     */
+    public String toString() {
+        return RouteServer.format(path, pathCost, nodesExplored);
+    }
+
+}
@@ -0,0 +1,161 @@
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * A bounded cache of route answers in front of the searches, so that a query asked again is not searched again.
+ * Answers are keyed by the map, its version, the start, the goal, the algorithm and the heuristic. As the version of a
+ * map changes every time a tide is set (see Grid.getVersion), an answer computed before a tide is never returned
+ * after it; it is simply never asked for again and ends up evicted. When the cache is full, the least recently used
+ * answer is evicted.
+ *
+ * The cache can be used by many threads. A query that misses is searched without holding the lock, so two threads
+ * missing the same query at the same time both search it, and the second answer replaces the first (they are equal).
+ *
+ * @author 210017984.
+ */
+public class RouteCache {
+
+    /**
+     * The key of an answer.
+     */
+    private static class Key {
+        private final Grid map;
+        private final int version;
+        private final Coord start;
+        private final Coord goal;
+        private final String algo;
+        private final char heuristic;
+
+        private Key(Grid map, int version, Coord start, Coord goal, String algo, char heuristic) {
+            this.map = map;
+            this.version = version;
+            this.start = start;
+            this.goal = goal;
+            this.algo = algo;
+            // The uninformed searches do not use the heuristic, so it does not split their answers.
+            this.heuristic = algo.equals("BestF") || algo.equals("AStar") || algo.equals("BiAStar") ? heuristic : ' ';
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return map == key.map && version == key.version && start.equals(key.start) && goal.equals(key.goal)
+                    && algo.equals(key.algo) && heuristic == key.heuristic;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(map), version, start, goal, algo, heuristic);
+        }
+    }
+
+    // Initialise variables.
+    private final int capacity;
+    private final LinkedHashMap<Key, Route> routes;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Create an empty cache.
+     *
+     * @param capacity the most answers kept.
+     */
+    public RouteCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of the cache must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        // Iterated in access order, so the first entry is the least recently used.
+        this.routes = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get the answer to a query from the cache, or search it and keep the answer.
+     *
+     * @param map       the map to search.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param algo      the algorithm used (BFS, DFS, BestF, AStar, Bidirectional, ParallelBidirectional or BiAStar).
+     * @param heuristic the chosen heuristic.
+     * @return the answer to the query.
+     * @throws IllegalArgumentException if the algorithm is not known.
+     */
+    public Route route(Grid map, Coord start, Coord goal, String algo, char heuristic) {
+        if (!RouteServer.isSearchAlgo(algo)) {
+            throw new IllegalArgumentException("Accepted algorithms: DFS, BFS, AStar, BestF, Bidirectional, ParallelBidirectional, BiAStar");
+        }
+        Grid snapshot = map.snapshot(); // searched and keyed on one version, even if a tide is set meanwhile.
+        Key key = new Key(map, snapshot.getVersion(), start, goal, algo, heuristic);
+        synchronized (this) {
+            Route route = routes.get(key);
+            if (route != null) {
+                hits++;
+                return route;
+            }
+            misses++;
+        }
+
+        Search search = RouteServer.createSearch(algo, snapshot, start, goal, heuristic);
+        search.treeSearch(algo, false);
+        Route route = new Route(new Query(start, goal), search);
+
+        synchronized (this) {
+            routes.put(key, route);
+            if (routes.size() > capacity) {
+                routes.remove(routes.keySet().iterator().next());
+                evictions++;
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Get the number of queries answered from the cache.
+     *
+     * @return the number of hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of queries that had to be searched.
+     *
+     * @return the number of misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of answers evicted to keep the cache within its capacity.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Get the number of answers in the cache.
+     *
+     * @return the number of answers.
+     */
+    public synchronized int size() {
+        return routes.size();
+    }
+
+    /**
+     * Describe the counters of the cache, e.g. hits 3 misses 2 evictions 0 size 2.
+     *
+     * @return the counters as a line.
+     */
+    public synchronized String toString() {
+        return "hits " + hits + " misses " + misses + " evictions " + evictions + " size " + routes.size();
+    }
+
+}
@@ -0,0 +1,414 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A long-running route server, so that the JVM start-up, the JIT warm-up and the loading of the maps are paid once
+ * instead of once per query. Requests are read one per line, either from the standard input or, when a port is
+ * given, from any number of connections to a socket on the local machine (each connection is served on its own
+ * virtual thread when the JVM supports them).
+ *
+ * Request:  <DFS|BFS|AStar|BestF|Bidirectional|ParallelBidirectional|BiAStar|Field> <ConfID|path/to/map> [H] [startRow startCol goalRow goalCol]
+ *           (without coordinates, the configuration's ports or the first query of the map file are used)
+ *           Field answers from the cached distance field of the goal (see DistanceField); its nodes explored are
+ *           the cells followed from the start to the goal.
+ * Response: <path> <path cost> <nodes explored>, e.g. (1,1)(1,2) 1.0 2
+ *           fail <nodes explored>       if there is no route
+ *           error <message>             if the request is not valid
+ * Send "tide <ConfID|path/to/map> <row> <col>" to set a tide on a map for every later request (answered with
+ * "version <n>", the version of the map after the tide), "stats" to get the counters of the route cache (hits,
+ * misses, evictions and size) and of the distance field caches of all the maps (hits, misses and size), and "quit" to
+ * close the connection (or to stop the server when reading the standard input).
+ *
+ * The answers of the searches are kept in a RouteCache shared by every connection, so a request asked again on the same
+ * version of a map is answered without searching. A map that gets a tide is wrapped in a VersionedMap, so that the
+ * requests searching it on other connections keep reading the version they started on while the tide is set; the
+ * configurations and the loaded maps themselves are never changed. The distance fields of Field are kept in a DistanceFieldCache per map,
+ * which holds at most -DRouteServer.fieldCacheSize fields (DistanceFieldCache.DEFAULT_CAPACITY by default), so that
+ * asking for new goals does not grow the memory without bound.
+ *
+ * Map files are only read from the map directory, -DRouteServer.mapDir (the working directory by default): paths are
+ * resolved against it, and a path leading outside of it (e.g. with .. or a symbolic link) is answered with an error.
+ *
+ * run with
+ * java RouteServer [port [cacheSize]]
+ *
+ * @author 210017984.
+ */
+public class RouteServer {
+
+    private static final int DEFAULT_CACHE_SIZE = 10000;
+
+    // Maps loaded from files, by path. Shared read-only by every request.
+    private final ConcurrentHashMap<String, LoadedMap> maps = new ConcurrentHashMap<>();
+    // Maps that got a tide, by the configuration or loaded map they were created from.
+    private final ConcurrentHashMap<Grid, VersionedMap> tidal = new ConcurrentHashMap<>();
+    // Distance fields of the goals asked for with Field, by map.
+    private final ConcurrentHashMap<Grid, DistanceFieldCache> fields = new ConcurrentHashMap<>();
+    // Hits and misses of the field caches dropped when their map got its first tide.
+    private final AtomicLong droppedFieldHits = new AtomicLong();
+    private final AtomicLong droppedFieldMisses = new AtomicLong();
+    // Answers of the searches.
+    private final RouteCache routes;
+    private final int fieldCacheSize;
+    private final Path mapDir; // real path of the directory the map files are read from.
+
+    /**
+     * Create a new route server.
+     *
+     * @param cacheSize      the most answers kept in the route cache.
+     * @param fieldCacheSize the most distance fields kept for each map.
+     * @param mapDir         the directory the map files are read from.
+     * @throws IOException if the map directory does not exist.
+     */
+    public RouteServer(int cacheSize, int fieldCacheSize, Path mapDir) throws IOException {
+        if (fieldCacheSize <= 0) {
+            throw new IllegalArgumentException("The capacity of the cache must be positive: " + fieldCacheSize);
+        }
+        this.routes = new RouteCache(cacheSize);
+        this.fieldCacheSize = fieldCacheSize;
+        this.mapDir = mapDir.toRealPath();
+    }
+
+    /**
+     * A map loaded from a file, with its queries.
+     */
+    private static class LoadedMap {
+        private final Grid map;
+        private final ArrayList<Query> queries;
+
+        private LoadedMap(Grid map, ArrayList<Query> queries) {
+            this.map = map;
+            this.queries = queries;
+        }
+    }
+
+    public static void main(String[] args) {
+        //Example: java RouteServer 5011 10000
+
+        try {
+            RouteServer server = new RouteServer(args.length >= 2 ? Integer.parseInt(args[1]) : DEFAULT_CACHE_SIZE,
+                    Integer.getInteger("RouteServer.fieldCacheSize", DistanceFieldCache.DEFAULT_CAPACITY),
+                    Paths.get(System.getProperty("RouteServer.mapDir", ".")));
+            if (args.length >= 1) {
+                server.listen(Integer.parseInt(args[0]));
+            } else {
+                server.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+                        new PrintWriter(System.out, true));
+            }
+        } catch (NumberFormatException nfe) {
+            System.out.println("Please run the server like this: java RouteServer <port> [cacheSize], or java RouteServer to read requests from the standard input.");
+        } catch (NoSuchFileException e) {
+            System.out.println("The map directory " + e.getFile() + " does not exist. Set it with -DRouteServer.mapDir=<path>.");
+        } catch (IOException e) {
+            System.out.println("The server stopped: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create the executor that serves the connections: a virtual thread per connection if the JVM supports them
+     * (Java 21+), otherwise a cached pool of platform threads.
+     *
+     * @return the executor.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Accept connections on a port of the local machine and serve each one concurrently.
+     *
+     * @param port the port to listen to.
+     * @throws IOException if the socket cannot be opened.
+     */
+    public void listen(int port) throws IOException {
+        ExecutorService executor = newExecutor();
+        try (ServerSocket serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress())) {
+            System.out.println("Listening on " + serverSocket.getLocalSocketAddress());
+            while (true) {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> {
+                    try (Socket s = socket;
+                         BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                         PrintWriter out = new PrintWriter(s.getOutputStream(), true)) {
+                        serve(in, out);
+                    } catch (IOException e) {
+                        // The client closed the connection, nothing else to do.
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Answer the requests read from a reader, one per line, until it ends or "quit" is read.
+     *
+     * @param in  the reader of the requests.
+     * @param out the writer of the responses.
+     * @throws IOException if the requests cannot be read.
+     */
+    public void serve(BufferedReader in, PrintWriter out) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.equals("quit")) {
+                break;
+            }
+            if (line.equals("stats")) {
+                out.println("cache " + routes + " fields " + fieldStats());
+                continue;
+            }
+            out.println(answer(line));
+        }
+    }
+
+    /**
+     * Describe the counters of the distance field caches of all the maps, e.g. hits 3 misses 1 size 1.
+     *
+     * @return the counters as a line.
+     */
+    private String fieldStats() {
+        long hits = droppedFieldHits.get();
+        long misses = droppedFieldMisses.get();
+        int size = 0;
+        for (DistanceFieldCache cache : fields.values()) {
+            hits += cache.getHits();
+            misses += cache.getMisses();
+            size += cache.size();
+        }
+        return "hits " + hits + " misses " + misses + " size " + size;
+    }
+
+    /**
+     * Answer one request.
+     *
+     * @param request the request line.
+     * @return the response line.
+     */
+    public String answer(String request) {
+        String[] parts = request.split("\\s+");
+        if (parts.length < 2) {
+            return "error expected: <Algo> <ConfID|path/to/map> [H] [startRow startCol goalRow goalCol]";
+        }
+        try {
+            String algo = parts[0];
+            if (algo.equals("tide")) {
+                return tide(parts);
+            }
+            int next = 2;
+            char heuristic = 'M';
+            if (parts.length > next && Character.isLetter(parts[next].charAt(0))) {
+                heuristic = parts[next++].charAt(0);
+            }
+            if (heuristic != 'M' && heuristic != 'T' && heuristic != 'E' && heuristic != 'C') {
+                return "error accepted heuristics: M, T, E, C";
+            }
+
+            // Find the map and the default start and goal.
+            Grid map;
+            Query query;
+            if (A1main.isConf(parts[1])) {
+                Conf conf = Conf.valueOf(parts[1]);
+                map = conf.getMap();
+                query = new Query(conf.getS(), conf.getG());
+            } else {
+                LoadedMap loaded = load(parts[1]);
+                map = loaded.map;
+                query = loaded.queries.isEmpty() ? null : loaded.queries.get(0);
+            }
+            VersionedMap versioned = tidal.get(map);
+            if (versioned != null) {
+                map = versioned; // a tide was set, so the map is searched on its latest version.
+            }
+
+            if (parts.length == next + 4) {
+                query = new Query(new Coord(Integer.parseInt(parts[next]), Integer.parseInt(parts[next + 1])),
+                        new Coord(Integer.parseInt(parts[next + 2]), Integer.parseInt(parts[next + 3])));
+            } else if (parts.length != next) {
+                return "error expected 4 coordinates: startRow startCol goalRow goalCol";
+            }
+            if (query == null) {
+                return "error the map has no queries, give the coordinates of the start and goal";
+            }
+            if (!inside(map, query.getStart()) || !inside(map, query.getGoal())) {
+                return "error the start and goal must be inside the map";
+            }
+
+            if (algo.equals("Field")) {
+                DistanceField field = fields.computeIfAbsent(map, m -> new DistanceFieldCache(m, fieldCacheSize)).get(query.getGoal());
+                ArrayList<Coord> path = field.route(query.getStart());
+                return format(path, field.getDistance(query.getStart()), path.size());
+            }
+            if (!isSearchAlgo(algo)) {
+                return "error accepted algorithms: DFS, BFS, AStar, BestF, Bidirectional, ParallelBidirectional, BiAStar, Field";
+            }
+            return routes.route(map, query.getStart(), query.getGoal(), algo, heuristic).toString();
+        } catch (NumberFormatException e) {
+            return "error the coordinates must be numbers";
+        } catch (UncheckedIOException | IllegalArgumentException e) {
+            return "error " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        } catch (RuntimeException e) {
+            // Any other failure of one request (e.g. a heuristic table that cannot be built) must not stop the server.
+            return "error " + (e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    /**
+     * Set a tide on a map for every later request.
+     *
+     * @param parts the words of the request: tide, the map, the row and the column.
+     * @return the response line, with the version of the map after the tide.
+     */
+    private String tide(String[] parts) {
+        if (parts.length != 4) {
+            return "error expected: tide <ConfID|path/to/map> <row> <col>";
+        }
+        Grid map = A1main.isConf(parts[1]) ? Conf.valueOf(parts[1]).getMap() : load(parts[1]).map;
+        Coord tide = new Coord(Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+        if (!inside(map, tide)) {
+            return "error the tide must be inside the map";
+        }
+        VersionedMap versioned = tidal.computeIfAbsent(map, VersionedMap::new);
+        DistanceFieldCache dropped = fields.remove(map); // the fields before the first tide are not asked for again.
+        if (dropped != null) {
+            droppedFieldHits.addAndGet(dropped.getHits());
+            droppedFieldMisses.addAndGet(dropped.getMisses());
+        }
+        versioned.setTide(tide.getR(), tide.getC());
+        return "version " + versioned.getVersion();
+    }
+
+    /**
+     * Check if an algorithm is one of the searches (BFS, DFS, BestF, AStar, Bidirectional, ParallelBidirectional or BiAStar).
+     *
+     * @param algo the algorithm.
+     * @return true if there is a search for the algorithm, false otherwise.
+     */
+    static boolean isSearchAlgo(String algo) {
+        switch (algo) {
+            case "BFS":
+            case "DFS":
+            case "BestF":
+            case "AStar":
+            case "Bidirectional":
+            case "ParallelBidirectional":
+            case "BiAStar":
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Create the search for an algorithm.
+     *
+     * @param algo      the algorithm requested.
+     * @param map       the map to search.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     * @return the search, or null if the algorithm is not known.
+     */
+    static Search createSearch(String algo, Grid map, Coord start, Coord goal, char heuristic) {
+        switch (algo) {
+            case "BFS":
+            case "DFS":
+                return new UninformedSearch(map, start, goal);
+            case "BestF":
+            case "AStar":
+                return new InformedSearch(map, start, goal, heuristic);
+            case "Bidirectional":
+                return new BidirectionalSearch(map, start, goal);
+            case "ParallelBidirectional":
+                return new ConcurrentBidirectionalSearch(map, start, goal);
+            case "BiAStar":
+                return new BidirectionalAStar(map, start, goal, heuristic);
+        }
+        return null;
+    }
+
+    /**
+     * Format a route as a response line.
+     *
+     * @param path          the states of the route, empty if no route was found.
+     * @param pathCost      the cost of the route.
+     * @param nodesExplored the number of nodes explored to find it.
+     * @return the response line.
+     */
+    static String format(List<Coord> path, float pathCost, int nodesExplored) {
+        if (path.isEmpty()) {
+            return "fail " + nodesExplored;
+        }
+        StringBuilder response = new StringBuilder();
+        for (Coord state : path) {
+            response.append(state);
+        }
+        return response.append(" ").append(pathCost).append(" ").append(nodesExplored).toString();
+    }
+
+    /**
+     * Load a map file of the map directory once, and get it from the cache afterwards.
+     *
+     * @param path the path of the map file (.tmap for binary maps), relative to the map directory.
+     * @return the loaded map.
+     * @throws IllegalArgumentException if the path leads outside of the map directory.
+     */
+    private LoadedMap load(String path) {
+        Path file = mapDir.resolve(path).normalize();
+        if (!file.startsWith(mapDir)) {
+            throw new IllegalArgumentException("the map " + path + " is not inside the map directory");
+        }
+        return maps.computeIfAbsent(file.toString(), p -> {
+            try {
+                // Follow the symbolic links, which may lead outside of the map directory too.
+                if (!file.toRealPath().startsWith(mapDir)) {
+                    throw new IllegalArgumentException("the map " + path + " is not inside the map directory");
+                }
+                if (p.endsWith(".tmap")) {
+                    MappedMap mapped = new MappedMap(file);
+                    return new LoadedMap(mapped, mapped.getQueries());
+                }
+                MapLoader loaded = MapLoader.load(file);
+                return new LoadedMap(loaded.getMap(), loaded.getQueries());
+            } catch (IOException e) {
+                throw new UncheckedIOException(new IOException("could not load the map " + path + " (" + e.getMessage() + ")", e));
+            }
+        });
+    }
+
+    /**
+     * Check if coordinates are inside a map.
+     *
+     * @param map   the map.
+     * @param state the coordinates.
+     * @return true if they are inside the map, false otherwise.
+     */
+    private static boolean inside(Grid map, Coord state) {
+        TriangleGraph graph = map.getGraph();
+        return state.getR() >= 0 && state.getC() >= 0 && state.getR() < graph.getRows() && state.getC() < graph.getColumns();
+    }
+
+}
@@ -0,0 +1,571 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The SMAStar class runs simplified memory-bounded A* (SMA*), which never keeps more than a fixed number of nodes in
+ * memory. It expands like A* (lowest F_cost first, the deepest node on ties), but when the memory is full it forgets
+ * the worst leaf (highest F_cost, the shallowest on ties) to make room, or the new child if it is worse still, and
+ * backs its F_cost up to its parent. A node with forgotten children stays in the queue with the lowest F_cost of those,
+ * so the search comes back and regenerates them when they are the best option again, and a node whose children were all
+ * forgotten becomes a leaf again. As a state has at most three neighbours, the parent keeps the F_cost of each
+ * forgotten child, so a regenerated child gets back the F_cost it was forgotten with instead of a lower estimate, and
+ * the search does not go round in circles between nodes of the same F_cost.
+ *
+ * The F_cost of a node is never lower than the one of its parent (pathmax), and a node as deep as the node budget
+ * (or one short of it, if it is not the goal) gets an infinite F_cost, as no route through it fits in memory. The
+ * route found is the shortest one whenever the shortest route fits in the node budget. A node is not generated if a
+ * node of the same state with no higher path cost is already in memory, or if the state was generated with a lower
+ * path cost, or as low from another parent state (see record): of the many routes as short to a state, only one is
+ * searched, instead of all of them being forgotten and searched again.
+ *
+ * The search fails as soon as the lowest F_cost in the queue (the F_cost backed up to the start) is higher than the
+ * cost of any route that fits in memory, that is the node budget or the number of cells, minus one. On maps with many
+ * more cells than the node budget, the table of the generated states forgets some of them and the F_costs can rise
+ * slowly, so the search also fails once it expanded a given number of nodes. A goal on an island or tide is never
+ * reached, like in the flat searches.
+ *
+ * The nodes are kept in arrays of the size of the budget, indexed by slot, and the generated states in a table of 8
+ * to 16 entries per node. nodesExplored counts the expansions, and the number of regenerations (children generated
+ * again after being forgotten, even if they are forgotten again at once) is printed after it.
+ *
+ * @author 210017984.
+ */
+public class SMAStar extends Search {
+
+    /**
+     * The node budget used if none is given.
+     */
+    public static final int DEFAULT_MAX_NODES = 100_000;
+
+    /**
+     * The expansions after which the search fails, if none is given.
+     */
+    public static final int DEFAULT_MAX_EXPANSIONS = 10_000_000;
+
+    private static final float INFINITY = Float.POSITIVE_INFINITY;
+    private static final int EMPTY = -1;
+
+    // Initialise variables.
+    private TriangleGraph graph;
+    private final int maxNodes;
+    private final int maxExpansions;
+    private int goalCell;
+    private int[] neighbours = new int[TriangleGraph.MAX_NEIGHBOURS];
+    private int[] childCells = new int[TriangleGraph.MAX_NEIGHBOURS]; // children of the node being expanded.
+    private float[] childF = new float[TriangleGraph.MAX_NEIGHBOURS];
+    private int[] childIndices = new int[TriangleGraph.MAX_NEIGHBOURS];
+
+    // The nodes in memory, indexed by slot.
+    private final int[] cells;
+    private final int[] parents;
+    private final int[] depths; // the path cost of the node.
+    private final float[] fCosts;
+    private final float[] forgotten; // the lowest F_cost of the forgotten children of the node.
+    private final float[] backedUp; // the F_cost of each forgotten child, by the index of its state among the neighbours.
+    private final byte[] forgottenChildren; // a bit for each neighbour that is a forgotten child.
+    private final byte[] childIndex; // the index of the state of the node among the neighbours of its parent.
+    private final boolean[] expanded;
+    private final int[] children; // children of the node in memory.
+    private final int[] freeSlots;
+    private int freeCount;
+
+    // The leaves, lowest F_cost first (to expand) and highest F_cost first (to forget).
+    private final CellHeap open;
+    private final CellHeap worst;
+
+    // The node in memory with the lowest path cost for each state (open addressing, states to slots).
+    private final int[] tableCells;
+    private final int[] tableSlots;
+
+    // The lowest path cost each state was generated with, and the state of its parent, in buckets of 2 (see record).
+    private final int[] seenCells;
+    private final int[] seenDepths;
+    private final int[] seenParents;
+
+    private int expandedCount = 0;
+    private long regenerations = 0;
+
+    /**
+     * Create an SMA* search instance with the default node budget.
+     *
+     * @param map       the map passed in.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     */
+    public SMAStar(Grid map, Coord start, Coord goal, char heuristic) {
+        this(map, start, goal, heuristic, DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Create an SMA* search instance.
+     *
+     * @param map       the map passed in.
+     * @param start     the starting coordinates.
+     * @param goal      the goal coordinates.
+     * @param heuristic the chosen heuristic.
+     * @param maxNodes  the most nodes kept in memory.
+     */
+    public SMAStar(Grid map, Coord start, Coord goal, char heuristic, int maxNodes) {
+        this(map, start, goal, heuristic, maxNodes, DEFAULT_MAX_EXPANSIONS);
+    }
+
+    /**
+     * Create an SMA* search instance.
+     *
+     * @param map           the map passed in.
+     * @param start         the starting coordinates.
+     * @param goal          the goal coordinates.
+     * @param heuristic     the chosen heuristic.
+     * @param maxNodes      the most nodes kept in memory.
+     * @param maxExpansions the most expansions before the search fails.
+     */
+    public SMAStar(Grid map, Coord start, Coord goal, char heuristic, int maxNodes, int maxExpansions) {
+        super(map, start, goal, heuristic);
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("The node budget must be at least 1: " + maxNodes);
+        }
+        if (maxExpansions < 0) {
+            throw new IllegalArgumentException("The expansion limit must not be negative: " + maxExpansions);
+        }
+        this.graph = getGraph();
+        this.maxNodes = maxNodes;
+        this.maxExpansions = maxExpansions;
+        this.cells = new int[maxNodes];
+        this.parents = new int[maxNodes];
+        this.depths = new int[maxNodes];
+        this.fCosts = new float[maxNodes];
+        this.forgotten = new float[maxNodes];
+        this.backedUp = new float[maxNodes * TriangleGraph.MAX_NEIGHBOURS];
+        this.forgottenChildren = new byte[maxNodes];
+        this.childIndex = new byte[maxNodes];
+        this.expanded = new boolean[maxNodes];
+        this.children = new int[maxNodes];
+        this.freeSlots = new int[maxNodes];
+        this.open = new CellHeap(maxNodes);
+        this.worst = new CellHeap(maxNodes);
+        int capacity = Integer.highestOneBit(maxNodes) * 4; // at most half full.
+        this.tableCells = new int[capacity];
+        this.tableSlots = new int[capacity];
+        int seen = Integer.highestOneBit(Math.min(maxNodes, graph.getCells())) * 16; // 4 to 8 buckets per node.
+        this.seenCells = new int[seen];
+        this.seenDepths = new int[seen];
+        this.seenParents = new int[seen];
+    }
+
+    /**
+     * Get the number of children generated again after being forgotten by the last search.
+     *
+     * @return the number of regenerations.
+     */
+    public long getRegenerations() {
+        return regenerations;
+    }
+
+    /**
+     * Get the heuristic cost of a cell towards the goal.
+     *
+     * @param cell the cell.
+     * @return the heuristic cost of the cell.
+     */
+    private double h(int cell) {
+        return Node.heuristicScore(getHeuristic(), getLandmarks(), cell / graph.getColumns(), cell % graph.getColumns(), getGoal());
+    }
+
+    /**
+     * Loop and expand the best leaf until the goal is reached, the lowest F_cost is higher than the cost of any route
+     * that fits in memory, or the expansion limit is reached. If goal is found, its path, cost, explored nodes and
+     * regenerations are printed.
+     *
+     * @param initialNode the initial node, only used for its state.
+     */
+    @Override
+    public void loopFrontier(Node initialNode) {
+        goalCell = cellIndex(getGoal());
+        expandedCount = 0;
+        regenerations = 0;
+        getSolution().clear();
+        open.clear();
+        worst.clear();
+        Arrays.fill(tableCells, EMPTY);
+        Arrays.fill(seenCells, EMPTY);
+        freeCount = maxNodes;
+        for (int i = 0; i < maxNodes; i++) {
+            freeSlots[i] = maxNodes - 1 - i; // slot 0 is used first.
+        }
+
+        int startCell = cellIndex(initialNode.getState());
+        if (startCell != goalCell && !graph.isLegal(getGoal().getR(), getGoal().getC())) {
+            return; // like the flat searches, which never move to an illegal goal (but may start on one).
+        }
+        record(startCell, 0, EMPTY);
+        queue(allocate(startCell, EMPTY, 0, (float) h(startCell)));
+        int maxCost = Math.min(maxNodes, graph.getCells()) - 1; // a shortest route never visits a cell twice.
+
+        while (!open.isEmpty()) {
+            int best = open.peek();
+            if (open.peekKey() > maxCost) {
+                return; // no route fits in the node budget.
+            }
+            if (cells[best] == goalCell) {
+                setFoundSolution(true);
+                printOutput(best);
+                return;
+            }
+            if (expandedCount == maxExpansions) {
+                return; // the search gave up.
+            }
+            open.remove(best);
+            if (worst.contains(best)) {
+                worst.remove(best);
+            }
+            expandedCount++;
+            expand(best);
+        }
+    }
+
+    /**
+     * Expand a node, generating its children in order of F_cost and forgetting worse leaves to make room for them. The
+     * first expansion generates every child; the next ones only regenerate the children that were forgotten. If no
+     * child is left in memory, the node becomes a leaf again.
+     *
+     * @param node the slot of the node.
+     */
+    private void expand(int node) {
+        boolean regenerating = expanded[node];
+        int wasForgotten = forgottenChildren[node];
+        expanded[node] = true;
+        forgottenChildren[node] = 0;
+        forgotten[node] = INFINITY;
+        int depth = depths[node] + 1;
+
+        // Find the children worth generating, with their F_cost.
+        int found = graph.neighbours(cells[node], neighbours);
+        int count = 0;
+        for (int i = 0; i < found; i++) {
+            int next = neighbours[i];
+            int known = lookup(next);
+            float fCost;
+            if (regenerating) {
+                if ((wasForgotten & (1 << i)) == 0 || (known != EMPTY && depths[known] <= depth)
+                        || !record(next, depth, cells[node])) {
+                    continue; // in memory, never generated, or now reached by a shorter path or from another state.
+                }
+                fCost = backedUp[node * TriangleGraph.MAX_NEIGHBOURS + i];
+                regenerations++;
+            } else if ((known != EMPTY ? depths[known] <= depth : isAncestor(next, node))
+                    || !record(next, depth, cells[node])) {
+                continue; // reached by a path that is no longer or as long from another state, or a cycle.
+            } else if (depth >= maxNodes || (next != goalCell && depth == maxNodes - 1)) {
+                fCost = INFINITY; // the route through it would not fit in memory.
+            } else {
+                fCost = Math.max(fCosts[node], (float) (depth + h(next))); // pathmax.
+            }
+            // Keep them sorted by F_cost (stable, so ties keep the tie breaking order).
+            int at = count++;
+            while (at > 0 && childF[at - 1] > fCost) {
+                childF[at] = childF[at - 1];
+                childCells[at] = childCells[at - 1];
+                childIndices[at] = childIndices[at - 1];
+                at--;
+            }
+            childF[at] = fCost;
+            childCells[at] = next;
+            childIndices[at] = i;
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (freeCount == 0 && !forgetWorstLeaf(childF[i], depth, node)) {
+                // The child is worse than every leaf, so it is the one forgotten.
+                backUp(node, childIndices[i], childF[i]);
+                continue;
+            }
+            int child = allocate(childCells[i], node, depth, childF[i]);
+            childIndex[child] = (byte) childIndices[i];
+            queue(child);
+            children[node]++;
+        }
+
+        if (children[node] == 0) {
+            // No child is in memory: the node is a leaf again, with the F_cost of its best forgotten child.
+            fCosts[node] = forgotten[node];
+        }
+        queue(node);
+    }
+
+    /**
+     * Record that a child of a node was forgotten, with its F_cost.
+     *
+     * @param node  the slot of the node.
+     * @param index the index of the state of the child among the neighbours of the node.
+     * @param fCost the F_cost of the child.
+     */
+    private void backUp(int node, int index, float fCost) {
+        backedUp[node * TriangleGraph.MAX_NEIGHBOURS + index] = fCost;
+        forgottenChildren[node] |= 1 << index;
+        forgotten[node] = Math.min(forgotten[node], fCost);
+    }
+
+    /**
+     * Forget the worst leaf to make room for a child, unless the child is worse than it: a higher F_cost, or the same
+     * F_cost and shallower. The node being expanded is not a leaf then, so it is never the one forgotten.
+     *
+     * @param fCost  the F_cost of the child.
+     * @param depth  the depth of the child.
+     * @param parent the slot of the node being expanded.
+     * @return true if a leaf was forgotten, false otherwise.
+     */
+    private boolean forgetWorstLeaf(float fCost, int depth, int parent) {
+        if (worst.isEmpty()) {
+            return false;
+        }
+        int leaf = worst.peek();
+        if (fCosts[leaf] < fCost || (fCosts[leaf] == fCost && depths[leaf] > depth)) {
+            return false;
+        }
+        worst.remove(leaf);
+        open.remove(leaf);
+        int above = parents[leaf];
+        release(leaf);
+        if (above != EMPTY) {
+            // Back the F_cost of the leaf up to its parent, which has to regenerate it.
+            backUp(above, childIndex[leaf], fCosts[leaf]);
+            children[above]--;
+            if (above != parent) { // the node being expanded is queued once its expansion ends.
+                if (children[above] == 0) {
+                    fCosts[above] = forgotten[above];
+                }
+                queue(above);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if a state is on the path from the start to a node.
+     *
+     * @param cell the state.
+     * @param node the slot of the node.
+     * @return true if the state is on the path, false otherwise.
+     */
+    private boolean isAncestor(int cell, int node) {
+        for (int n = node; n != EMPTY; n = parents[n]) {
+            if (cells[n] == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Record that a state is generated with a path cost from a parent state. Each state has a bucket of two entries,
+     * like the transposition table of IDAStar: the first keeps the state with the lowest path cost, the second the
+     * state generated most recently. A state is only generated again with the same path cost from the same parent
+     * state, so of the many paths as short to a state only one is searched, and forgotten again and again.
+     *
+     * @param cell       the state.
+     * @param depth      the path cost of the state.
+     * @param parentCell the state of the parent (EMPTY for the start).
+     * @return false if the state was generated with a lower path cost, or as low from another state, true otherwise.
+     */
+    private boolean record(int cell, int depth, int parentCell) {
+        int first = ((cell * 0x9E3779B9) >>> 1) & (seenCells.length - 2);
+        int second = first + 1;
+        for (int slot = first; slot <= second; slot++) {
+            if (seenCells[slot] == cell) {
+                if (seenDepths[slot] < depth || (seenDepths[slot] == depth && seenParents[slot] != parentCell)) {
+                    return false;
+                }
+                seenDepths[slot] = depth;
+                seenParents[slot] = parentCell;
+                return true;
+            }
+        }
+
+        int slot = first;
+        if (seenCells[first] != EMPTY) {
+            if (depth < seenDepths[first]) {
+                // Move the state of the first entry to the second, replacing the state there.
+                seenCells[second] = seenCells[first];
+                seenDepths[second] = seenDepths[first];
+                seenParents[second] = seenParents[first];
+            } else {
+                slot = second;
+            }
+        }
+        seenCells[slot] = cell;
+        seenDepths[slot] = depth;
+        seenParents[slot] = parentCell;
+        return true;
+    }
+
+    /**
+     * Put a node in memory.
+     *
+     * @param cell   the state of the node.
+     * @param parent the slot of the parent (EMPTY for the start).
+     * @param depth  the path cost of the node.
+     * @param fCost  the F_cost of the node.
+     * @return the slot of the node.
+     */
+    private int allocate(int cell, int parent, int depth, float fCost) {
+        int node = freeSlots[--freeCount];
+        cells[node] = cell;
+        parents[node] = parent;
+        depths[node] = depth;
+        fCosts[node] = fCost;
+        forgotten[node] = INFINITY;
+        forgottenChildren[node] = 0;
+        expanded[node] = false;
+        children[node] = 0;
+        int known = lookup(cell);
+        if (known == EMPTY || depths[known] > depth) {
+            store(cell, node);
+        }
+        return node;
+    }
+
+    /**
+     * Remove a node from memory.
+     *
+     * @param node the slot of the node.
+     */
+    private void release(int node) {
+        if (lookup(cells[node]) == node) {
+            delete(cells[node]);
+        }
+        freeSlots[freeCount++] = node;
+    }
+
+    /**
+     * Put a node in the queue of nodes to expand with the right key, or take it out. A leaf is queued with its F_cost,
+     * and can be forgotten. A node with children in memory is only queued while some of its children were forgotten,
+     * with the lowest F_cost of those, so that it is expanded again to regenerate them; it is never forgotten.
+     *
+     * @param node the slot of the node.
+     */
+    private void queue(int node) {
+        boolean leaf = children[node] == 0;
+        float key = leaf ? fCosts[node] : forgotten[node];
+        if (!leaf && key == INFINITY) {
+            if (open.contains(node)) {
+                open.remove(node);
+            }
+        } else if (open.contains(node)) {
+            open.update(node, key, -depths[node]);
+        } else {
+            open.push(node, key, -depths[node]); // lowest F_cost, then deepest.
+        }
+
+        if (!leaf) {
+            if (worst.contains(node)) {
+                worst.remove(node);
+            }
+        } else if (worst.contains(node)) {
+            worst.update(node, -key, depths[node]);
+        } else {
+            worst.push(node, -key, depths[node]); // highest F_cost, then shallowest.
+        }
+    }
+
+    /**
+     * Find the slot of the table holding a state, or the empty slot where it would go.
+     *
+     * @param cell the state.
+     * @return the slot of the table.
+     */
+    private int tableSlot(int cell) {
+        int mask = tableCells.length - 1;
+        int slot = (cell * 0x9E3779B9) >>> 1 & mask;
+        while (tableCells[slot] != EMPTY && tableCells[slot] != cell) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Get the node in memory with the lowest path cost for a state.
+     *
+     * @param cell the state.
+     * @return the slot of the node, or EMPTY if no node of the state is in memory.
+     */
+    private int lookup(int cell) {
+        int slot = tableSlot(cell);
+        return tableCells[slot] == EMPTY ? EMPTY : tableSlots[slot];
+    }
+
+    /**
+     * Set the node in memory with the lowest path cost for a state.
+     *
+     * @param cell the state.
+     * @param node the slot of the node.
+     */
+    private void store(int cell, int node) {
+        int slot = tableSlot(cell);
+        tableCells[slot] = cell;
+        tableSlots[slot] = node;
+    }
+
+    /**
+     * Remove a state from the table, moving back the states after it so that they can still be found.
+     *
+     * @param cell the state.
+     */
+    private void delete(int cell) {
+        int mask = tableCells.length - 1;
+        int hole = tableSlot(cell);
+        tableCells[hole] = EMPTY;
+        for (int slot = (hole + 1) & mask; tableCells[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int home = (tableCells[slot] * 0x9E3779B9) >>> 1 & mask;
+            // Move the state into the hole if the hole is between its home slot and its slot.
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                tableCells[hole] = tableCells[slot];
+                tableSlots[hole] = tableSlots[slot];
+                tableCells[slot] = EMPTY;
+                hole = slot;
+            }
+        }
+    }
+
+    /**
+     * Record and print the final output: the path, its cost, the number of nodes explored and the regenerations.
+     *
+     * @param node the slot of the goal node.
+     */
+    private void printOutput(int node) {
+        ArrayList<Coord> path = getSolution();
+        for (int n = node; n != EMPTY; n = parents[n]) {
+            path.add(graph.coord(cells[n]));
+        }
+        for (int i = 0, j = path.size() - 1; i < j; i++, j--) {
+            path.set(i, path.set(j, path.get(i)));
+        }
+        pathCost = depths[node];
+        nodesExplored = expandedCount;
+
+        // if print flag is true, print the output.
+        if (isPrint()) {
+            for (Coord state : path) {
+                System.out.print(state);
+            }
+            System.out.println("\n" + pathCost); // Print path cost.
+            System.out.println(nodesExplored); // Print nodes explored.
+            System.out.println(regenerations); // Print regenerations.
+        }
+    }
+
+    /**
+     * If the search could not find a solution, print fail message, the number of explored states and the
+     * regenerations.
+     */
+    @Override
+    public void failure() {
+        nodesExplored = expandedCount;
+        if (isPrint()) {
+            System.out.println("fail");
+            System.out.println(nodesExplored);
+            System.out.println(regenerations);
+        }
+    }
+
+}
@@ -2,7 +2,10 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 /**
- * The Search class containing common methods used by both the UninformedSearch and InformedSearch classes.
+ * The Search class containing what every search has in common: the query, the tree search entry point, and the results
+ * (path, path cost and nodes explored). The searches that build a tree of Node objects extend NodeSearch, which adds
+ * the frontier and explored list; the others keep their search state in their own structures and only implement
+ * loopFrontier.
  *
  * @author 210017984.
  */
@@ -13,17 +16,21 @@ public abstract class Search {
     public float pathCost = 0;
     boolean print;
     // Initialise variables.
-    private int[][] map;
+    private final Grid map;
+    private TriangleGraph graph;
     private Coord start;
     private Coord goal;
-    private ArrayList<Node> explored = new ArrayList<>();
     private String algo;
     private char heuristic;
+    private LandmarkTable landmarks; // the landmark table of the map, for the heuristic L.
+    private int landmarksVersion; // the version of the map the landmark table was checked against.
     private boolean foundSolution = false;
+    private ArrayList<Coord> solution = new ArrayList<>(); // states of the path found, from start to goal.
 
 
-    public Search(Map map, Coord start, Coord goal) {
-        this.map = map.getMap();
+    public Search(Grid map, Coord start, Coord goal) {
+        this.map = map;
+        this.graph = map.getGraph();
         this.start = start;
         this.goal = goal;
     }
@@ -36,8 +43,9 @@ public abstract class Search {
      * @param goal      the goal coordinates.
      * @param heuristic the chosen heuristic.
      */
-    public Search(Map map, Coord start, Coord goal, char heuristic) {
-        this.map = map.getMap();
+    public Search(Grid map, Coord start, Coord goal, char heuristic) {
+        this.map = map;
+        this.graph = map.getGraph();
         this.start = start;
         this.goal = goal;
         this.heuristic = heuristic;
@@ -52,6 +60,24 @@ public abstract class Search {
         this.foundSolution = foundSolution;
     }
 
+    /**
+     * Get whether a solution was found.
+     *
+     * @return true if a solution was found, false otherwise.
+     */
+    public boolean isFoundSolution() {
+        return foundSolution;
+    }
+
+    /**
+     * Get the path found by the search, from the start to the goal. Empty if no solution was found.
+     *
+     * @return the states of the path found.
+     */
+    public ArrayList<Coord> getSolution() {
+        return solution;
+    }
+
     /**
      * Get whether the print flag is true or false.
      *
@@ -89,6 +115,28 @@ public abstract class Search {
         return goal;
     }
 
+    /**
+     * Set a new start and goal, so that the same search instance can be run again for another query. The results and
+     * explored states of the previous run are cleared, and the graph of the map is read again so that tides set since
+     * then are seen. Only CompactSearch, which starts every run with an empty frontier, is meant to be reused like this;
+     * the other searches should be created once per query.
+     *
+     * @param start the starting coordinates.
+     * @param goal  the goal coordinates.
+     */
+    public void setQuery(Coord start, Coord goal) {
+        this.graph = map.getGraph(); // the graph is built again if a tide was set since the last run.
+        if (landmarks != null && landmarksVersion != map.getVersion()) {
+            checkLandmarks(landmarks);
+        }
+        this.start = start;
+        this.goal = goal;
+        foundSolution = false;
+        pathCost = 0;
+        nodesExplored = 0;
+        solution.clear();
+    }
+
     /**
      * Get algorithm selected.
      *
@@ -117,79 +165,51 @@ public abstract class Search {
     }
 
     /**
-     * Iterate through the nodes of the frontier, add the state of each node to the frontierStates ArrayList
-     * and then return it.
-     *
-     * @param frontier the frontier that we want to get its states.
-     * @return an ArrayList containing all the states of the frontier.
-     */
-    public ArrayList<Coord> getFrontierStates(Collection<Node> frontier) {
-        ArrayList<Coord> frontierStates = new ArrayList<>();
-
-        // Iterate through the frontier, adding each node's state to the frontierStates ArrayList.
-        frontier.stream().forEach(node -> frontierStates.add(node.getState()));
-
-        return frontierStates;
-    }
-
-    /**
-     * Get a node that has the same state as the one passed in and is included in the frontier.
+     * Set the landmark table used by the heuristic L. It must have been built for the map as it is now.
      *
-     * @param frontier the frontier to be iterated.
-     * @param state    the state that we are looking.
-     * @return the node that is included in the frontier.
+     * @param landmarks the landmark table of the map, or null if L is not used.
+     * @throws IllegalStateException if the table was built for another map, or before a tide was set on it.
      */
-    public Node getNodeInFrontier(Collection<Node> frontier, Coord state) {
-        for (Node node : frontier) {
-            if (node.getState().equals(state)) {
-                return node;
-            }
+    public void setLandmarks(LandmarkTable landmarks) {
+        if (landmarks != null) {
+            checkLandmarks(landmarks);
         }
-        return null;
+        this.landmarks = landmarks;
     }
 
     /**
-     * Get a node from an explored ArrayList that has the same state as the one passed in.
+     * Get the landmark table used by the heuristic L.
      *
-     * @param explored the explored to be iterated.
-     * @param state    the state that we are looking.
-     * @return the node that is included in the explored ArrayList.
+     * @return the landmark table of the map, null if there is none.
      */
-    public Node getNodeInExplored(ArrayList<Node> explored, Coord state) {
-        for (Node node : explored) {
-            if (node.getState().equals(state)) {
-                return node;
-            }
-        }
-        return null;
+    public LandmarkTable getLandmarks() {
+        return landmarks;
     }
 
     /**
-     * Get nodes explored.
+     * Check that a landmark table was built for the map as it is now, i.e. with the same size and legal cells.
      *
-     * @return ArrayList containing the nodes explored.
+     * @param landmarks the landmark table.
+     * @throws IllegalStateException if the table was built for another map, or before a tide was set on it.
      */
-    public ArrayList<Node> getExplored() {
-        return explored;
+    private void checkLandmarks(LandmarkTable landmarks) {
+        int version = map.getVersion();
+        if (!landmarks.isFor(graph)) {
+            throw new IllegalStateException("The landmark table was built for another map, or before a tide was set on it.");
+        }
+        landmarksVersion = version;
     }
 
     /**
-     * Add a node to the explored ArrayList passed in.
+     * Get the index of a cell in the map (row-major), used to key the frontier and explored membership sets.
      *
-     * @param node     the node to be added.
-     * @param explored the explored arraylist to add a node to.
+     * @param state the coordinates of the cell.
+     * @return the index of the cell.
      */
-    public void addExplored(Node node, ArrayList<Node> explored) {
-        explored.add(node);
+    public int cellIndex(Coord state) {
+        return graph.cellIndex(state);
     }
 
-    /**
-     * Print all the states currently in the frontier.
-     *
-     * @param frontier the frontier to print.
-     */
-    public abstract void printFrontier(Collection<Node> frontier);
-
     /**
      * Construct the search tree to find the goal.
      *
@@ -203,7 +223,7 @@ public abstract class Search {
 
         // Create initial node.
         if ((getAlgo().equals("BestF")) || (getAlgo().equals("AStar"))) {
-            initialNode = new Node(null, start, getGoal(), getHeuristic(), getAlgo(), getStart());
+            initialNode = new Node(null, start, getGoal(), getHeuristic(), landmarks, getAlgo());
         } else {
             initialNode = new Node(null, start);
         }
@@ -225,79 +245,6 @@ public abstract class Search {
      */
     public abstract void loopFrontier(Node initialNode);
 
-    /**
-     * Expand a node by finding its suitable successors (next possible moves).
-     *
-     * @param node       the node to be expanded.
-     * @param frontier   the frontier to be passed in the addSuitableSuccessors to check that a state was not already
-     *                   explored or in the frontier.
-     * @param frontierNo the number of frontier. Used for BIDIRECTIONAL because it uses 2 frontiers.
-     * @return an ArrayList containing all the legal and available successors of the node passed in.
-     */
-    public ArrayList<Node> expand(Node node, Collection<Node> frontier, int frontierNo) {
-
-        ArrayList<Coord> nextStates = successor(node.getState()); // Assign all the next legal states to an ArrayList.
-
-        ArrayList<Node> successors = new ArrayList<>(); // ArrayList to hold the successor nodes.
-
-        // Iterate through the next states.
-        for (Coord state : nextStates) {
-            addSuitableSuccessors(frontier, frontierNo, state, successors, node);
-        }
-        return successors;
-    }
-
-    /**
-     * Ensures that the state being explored is not contained already in the frontier or was previously explored.
-     * If it is not, then it is added to the successors ArrayList passed in.
-     *
-     * @param frontier   the frontier to make the check if node is contained already.
-     * @param frontierNo the number of frontier. Used for BIDIRECTIONAL to get the states of the appropriate frontier,
-     *                   as it uses 2 different frontiers.
-     * @param state      the state being explored.
-     * @param successors the successors ArrayList - where we store all the suitable successors.
-     * @param parent     the parent node of the state.
-     */
-    public abstract void addSuitableSuccessors(Collection<Node> frontier, int frontierNo, Coord state, ArrayList<Node> successors, Node parent);
-
-
-    /**
-     * Inserts all the successors to the frontier.
-     *
-     * @param successors the successors ArrayList containing all the suitable successors.
-     */
-    public abstract void insertAll(ArrayList<Node> successors);
-
-    /**
-     * Insert a node to the frontier.
-     *
-     * @param node     the node to be added.
-     * @param frontier the frontier to add the node to.
-     */
-    public void insert(Node node, Collection<Node> frontier) {
-        frontier.add(node); // Add node.
-    }
-
-    /**
-     * Removes the first element of the frontier (the one with the lowest F_Cost currently in the frontier).
-     *
-     * @return the node removed.
-     */
-    public abstract Node removeFromFrontier();
-
-    /**
-     * Get states of nodes that are included in the explored list.
-     *
-     * @param explored the arrayList that contains the explored states to be iterated.
-     * @return the states of the nodes explored.
-     */
-    public ArrayList<Coord> getExploredStates(ArrayList<Node> explored) {
-        ArrayList<Coord> exploredStates = new ArrayList<>();
-
-        explored.stream().forEach(node -> exploredStates.add(node.getState()));
-
-        return exploredStates;
-    }
 
     /**
      * Check if the state passed in is the goal state.
@@ -310,113 +257,30 @@ public abstract class Search {
     }
 
     /**
-     * Find the next possible moves for the state passed in. Add the successor states in a List according to the tie
-     * breaking constraints specified.
-     *
-     * @param state the state checked.
-     * @return an ArrayList containing the next possible moves/states.
-     */
-    public ArrayList<Coord> successor(Coord state) {
-        int downwards = state.getTriangleDirection(); // get if triangle direction is downwards.
-
-        ArrayList<Coord> successorStates = new ArrayList<>(); // Initialise ArrayList to hold all the successor states.
-
-        int row = state.getR(); // Get row of state passed in.
-        int col = state.getC(); // Get column of state passed in.
-
-        Coord stateLeft = new Coord(row, col - 1); // Initialise the left state.
-        Coord stateRight = new Coord(row, col + 1); // Initialise the right state.
-        Coord stateVertical;
-
-        boolean assignBelow; // vertical state is the one below (down) or not? (the one above).
-
-        if (downwards == 1) {
-            stateVertical = new Coord(row - 1, col); // Assign the upwards state in the stateVertical.
-            assignBelow = false;
-        } else {
-            stateVertical = new Coord(row + 1, col); // Assign the downward state in the stateVertical.
-            assignBelow = true;
-        }
-
-        // Tie breaking.
-        successorStates.add(stateRight); // Add the right position (1st priority).
-
-        // If the vertical state is down, then add it second (2nd priority)
-        if (assignBelow) {
-            successorStates.add(stateVertical);
-        }
-
-        successorStates.add(stateLeft);  // Add the left position (3rd priority)
-
-        // If the vertical state is upwards, then add it last (4th priority)
-        if (!assignBelow) {
-            successorStates.add(stateVertical);
-        }
-
-        return keepOnlyLegalStates(successorStates); // Keep and return only the legal states out of the ones added.
-    }
-
-
-    /**
-     * This method ensures that only legal states are kept.
-     * It ensures that both row and column are greater or equal than 0 (we cannot have negative coordinates) and less
-     * or equal than the map's row and column boundaries.
-     * It finally checks that the state is not an island i.e. has a value of 1 on the map.
+     * Get the map being searched.
      *
-     * @param states the states passed in from the successor function.
-     * @return only the legal states from those passed in.
+     * @return the map.
      */
-    public ArrayList<Coord> keepOnlyLegalStates(ArrayList<Coord> states) {
-
-        ArrayList<Coord> legalStates = new ArrayList<>();
-
-        // Iterate through the states passed in, keep only the legal states.
-        for (Coord state : states) {
-
-            int row = state.getR(); // Get row of current state.
-            int col = state.getC(); // Get column of current state.
-
-            int rows = map.length - 1;
-            int columns = map[0].length - 1;
-
-            // Check that the current state is legal.
-            if ((row >= 0 && col >= 0) && (row <= rows && col <= columns) && (map[row][col] != 1) && (map[row][col] != 2)) {
-                legalStates.add(state); // add state to the legal states ArrayList.
-            }
-        }
-
-        return legalStates;
+    public Grid getMap() {
+        return map;
     }
 
     /**
-     * Print final output (when goal node is reached).
+     * Get the graph of legal moves of the map being searched.
      *
-     * @param node the node from which we get the path to the start.
+     * @return the graph of the map.
      */
-    public void printOutput(Node node) {
-        Stack<Coord> pathStates = node.getPath(start);
-
-        pathCost = node.getPathCost(start);
-        nodesExplored = getExplored().size();
-
-        // if print flag is true, print the output.
-        if (print) {
-            // Print path, path cost, and number of nodes explored.
-            while (!pathStates.isEmpty()) {
-                System.out.print(pathStates.pop());
-            }
-            System.out.println("\n" + pathCost); // Print path cost.
-            System.out.println(nodesExplored); // Print nodes explored.
-        }
+    public TriangleGraph getGraph() {
+        return graph;
     }
 
     /**
-     * If the search could not find a solution, print fail message, the explored size, and then exit the system.
+     * If the search could not find a solution, print fail message and the number of explored nodes.
      */
     public void failure() {
         if (isPrint()) {
             System.out.println("fail");
-            System.out.println(getExplored().size());
+            System.out.println(nodesExplored);
         }
     }
 
@@ -0,0 +1,18 @@
+/**
+ * A grid whose tides can be set. Implemented by GridMap, MappedMap and VersionedMap, but not by the Map
+ * configurations, which are shared by the whole JVM (see Map.copy), nor by MapSnapshot, which never changes (it creates
+ * the next version with withTide instead), so code that sets tides cannot be given a snapshot.
+ *
+ * @author 210017984.
+ */
+public interface TidalGrid extends Grid {
+
+    /**
+     * Set a tide on the grid (value 2) at the given coordinates.
+     *
+     * @param row the row that the tide will be added.
+     * @param col the column that the tide will be added.
+     */
+    void setTide(int row, int col);
+
+}
@@ -0,0 +1,176 @@
+import java.util.function.IntPredicate;
+
+/**
+ * The graph of legal moves of a map. A cell can move to its left and right neighbours and to the neighbour below
+ * (upwards triangle) or above (downwards triangle), as long as that neighbour is within the map and is not an island
+ * (1) or a tide (2). Cells are indexed row by row (row * columns + column).
+ *
+ * The neighbours are computed from the cells of the map when they are asked for, so the graph itself does not use
+ * memory per cell. AdjacencyTable precomputes them for maps held in the heap. The planners that keep their own copy
+ * of which cells are blocked find the cells next to a cell with the static adjacentCell and adjacentCells.
+ *
+ * @author 210017984.
+ */
+public abstract class TriangleGraph {
+
+    /**
+     * The most neighbours a cell can have, i.e. the size of the array passed to neighbours.
+     */
+    public static final int MAX_NEIGHBOURS = 3;
+
+    // The moves, in the tie breaking order.
+    static final int RIGHT = 0;
+    static final int DOWN = 1;
+    static final int LEFT = 2;
+    static final int UP = 3;
+
+    // Initialise graph variables.
+    private final int rows;
+    private final int columns;
+    private final IntPredicate illegal; // true for the cells a ferry cannot be on.
+
+    /**
+     * Create a new graph.
+     *
+     * @param rows    the number of rows of the map.
+     * @param columns the number of columns of the map.
+     */
+    protected TriangleGraph(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.illegal = cell -> !isLegal(cell / columns, cell % columns);
+    }
+
+    /**
+     * Get the value of a cell of the map (0 for sea, 1 for island, 2 for tide).
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return the value of the cell.
+     */
+    public abstract int getCell(int row, int col);
+
+    /**
+     * Check if a ferry can be on a cell, i.e. it is within the map and it is not an island (1) or a tide (2).
+     *
+     * @param row the row of the cell.
+     * @param col the column of the cell.
+     * @return true if the cell is legal, false otherwise.
+     */
+    public boolean isLegal(int row, int col) {
+        if (row < 0 || col < 0 || row >= rows || col >= columns) {
+            return false;
+        }
+        int value = getCell(row, col);
+        return value != 1 && value != 2;
+    }
+
+    /**
+     * Find the legal neighbours of a cell, in the tie breaking order: right (1st), down (2nd), left (3rd), up (4th).
+     *
+     * @param cell the index of the cell.
+     * @param out  the array the neighbours are written to (at least MAX_NEIGHBOURS long).
+     * @return the number of neighbours written.
+     */
+    public int neighbours(int cell, int[] out) {
+        return adjacentCells(rows, columns, cell, illegal, out);
+    }
+
+    /**
+     * Get the cell next to a cell in the direction of a move, on a map of the given size.
+     *
+     * @param rows    the number of rows of the map.
+     * @param columns the number of columns of the map.
+     * @param cell    the index of the cell.
+     * @param move    the move (RIGHT, DOWN, LEFT or UP).
+     * @return the cell reached, -1 if the move leaves the map or the triangle has no vertical neighbour that way.
+     */
+    static int adjacentCell(int rows, int columns, int cell, int move) {
+        int r = cell / columns;
+        int c = cell % columns;
+
+        // A triangle pointing downwards has its vertical neighbour above, otherwise below.
+        boolean downwards = ((r + c) & 1) == 1;
+
+        switch (move) {
+            case RIGHT:
+                return c + 1 < columns ? cell + 1 : -1;
+            case DOWN:
+                return !downwards && r + 1 < rows ? cell + columns : -1;
+            case LEFT:
+                return c > 0 ? cell - 1 : -1;
+            default:
+                return downwards && r > 0 ? cell - columns : -1;
+        }
+    }
+
+    /**
+     * Find the cells next to a cell that are within the map and not blocked, in the tie breaking order (right, down,
+     * left, up).
+     *
+     * @param rows    the number of rows of the map.
+     * @param columns the number of columns of the map.
+     * @param cell    the index of the cell.
+     * @param blocked true for the cells that cannot be moved to.
+     * @param out     the array the cells are written to (at least MAX_NEIGHBOURS long).
+     * @return the number of cells written.
+     */
+    static int adjacentCells(int rows, int columns, int cell, IntPredicate blocked, int[] out) {
+        int count = 0;
+        for (int move = RIGHT; move <= UP; move++) {
+            int next = adjacentCell(rows, columns, cell, move);
+            if (next != -1 && !blocked.test(next)) {
+                out[count++] = next;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of rows of the map.
+     *
+     * @return the number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the number of columns of the map.
+     *
+     * @return the number of columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the number of cells of the map.
+     *
+     * @return the number of cells.
+     */
+    public int getCells() {
+        return rows * columns;
+    }
+
+    /**
+     * Get the index of a cell.
+     *
+     * @param state the coordinates of the cell.
+     * @return the index of the cell.
+     */
+    public int cellIndex(Coord state) {
+        return state.getR() * columns + state.getC();
+    }
+
+    /**
+     * Get the coordinates of a cell.
+     *
+     * @param cell the index of the cell.
+     * @return the coordinates of the cell.
+     */
+    public Coord coord(int cell) {
+        return new Coord(cell / columns, cell % columns);
+    }
+
+}
@@ -8,7 +8,7 @@ import java.util.stream.Collectors;
  *
  * @author 210017984.
  */
-public class UninformedSearch extends Search {
+public class UninformedSearch extends NodeSearch {
 
     // Initialise frontier.
     private LinkedList<Node> frontier;
@@ -20,7 +20,7 @@ public class UninformedSearch extends Search {
      * @param start the starting coordinates.
      * @param goal  the goal coordinates.
      */
-    public UninformedSearch(Map map, Coord start, Coord goal) {
+    public UninformedSearch(Grid map, Coord start, Coord goal) {
         super(map, start, goal);
         this.frontier = new LinkedList<>();
     }
@@ -87,7 +87,7 @@ public class UninformedSearch extends Search {
     @Override
     public void addSuitableSuccessors(Collection<Node> frontier, int frontierNo, Coord state, ArrayList<Node> successors, Node parent) {
         // if state is not contained in a node of explored or frontier.
-        if (!getFrontierStates(frontier).contains(state) && !getExploredStates(getExplored()).contains(state)) {
+        if (!isInFrontier(state, frontierNo) && !isExplored(state, frontierNo)) {
             Node nd = new Node(parent, state);
             successors.add(nd);
         }
@@ -111,6 +111,7 @@ public class UninformedSearch extends Search {
 
             for (Node node : reverseList) {
                 frontier.addFirst(node);
+                markInFrontier(node, 0);
             }
 
         }
@@ -118,6 +119,7 @@ public class UninformedSearch extends Search {
         else if (getAlgo().equals("BFS")) {
             for (Node node : successors) {
                 frontier.addLast(node);  // Add current node last - first in, first out.
+                markInFrontier(node, 0);
 
             }
         }
@@ -129,7 +131,7 @@ public class UninformedSearch extends Search {
      * @return the node removed.
      */
     public Node removeFromFrontier() {
-        return frontier.poll();
+        return unmarkInFrontier(frontier.poll(), 0);
     }
 
 }
@@ -0,0 +1,84 @@
+/**
+ * A map whose tides can be set while other threads search it. It holds the latest MapSnapshot, and setting a tide
+ * replaces it with the next version (see MapSnapshot.withTide). Readers never lock: a search takes the graph of the
+ * version that is current when it starts (or a snapshot, see snapshot()) and keeps reading that version, whatever
+ * tides are set meanwhile. Tides are set by one updater at a time.
+ *
+ * @author 210017984.
+ */
+public class VersionedMap implements TidalGrid {
+
+    // Initialise variables.
+    private volatile MapSnapshot current;
+
+    /**
+     * Create a versioned map from the current cells of a map. Tides set on the versioned map do not change the map.
+     *
+     * @param map the map.
+     */
+    public VersionedMap(Grid map) {
+        this.current = MapSnapshot.of(map);
+    }
+
+    /**
+     * Get the latest version of the map.
+     *
+     * @return the current snapshot.
+     */
+    @Override
+    public MapSnapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * Set a tide (value 2) at the given coordinates, publishing the next version of the map.
+     *
+     * @param row the row that the tide will be added.
+     * @param col the column that the tide will be added.
+     */
+    @Override
+    public synchronized void setTide(int row, int col) {
+        current = current.withTide(row, col);
+    }
+
+    /**
+     * Get a copy of the cells of the latest version.
+     *
+     * @return the cells of the map.
+     */
+    @Override
+    public int[][] getMap() {
+        return current.getMap();
+    }
+
+    /**
+     * Get the graph of legal moves of the latest version. The graph does not change when tides are set later.
+     *
+     * @return the graph of legal moves.
+     */
+    @Override
+    public TriangleGraph getGraph() {
+        return current.getGraph();
+    }
+
+    /**
+     * Get the version of the map, which changes every time a tide is set.
+     *
+     * @return the version of the map.
+     */
+    @Override
+    public int getVersion() {
+        return current.getVersion();
+    }
+
+    /**
+     * Count number of islands in the latest version. Number of 1's.
+     *
+     * @return the number of islands.
+     */
+    @Override
+    public int countIslands() {
+        return current.countIslands();
+    }
+
+}